@@ -0,0 +1,84 @@
+package com.ktilelis.todo.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.ktilelis.todo.exception.GlobalExceptionHandler;
+import com.ktilelis.todo.exception.TodoApiException;
+import com.ktilelis.todo.exception.TodoNotFoundException;
+import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.DirectFieldBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds error responses the way a failing request does, including creating the exception. Logging of the handler
+ * is switched off so the numbers show the cost of the exception and the response, not of the console appender.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GlobalExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private ResourceBundleMessageSource messageSource;
+    private MethodParameter requestParameter;
+    private TodoRequestDto invalidRequest;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(GlobalExceptionHandler.class)).setLevel(Level.OFF);
+
+        this.messageSource = new ResourceBundleMessageSource();
+        this.messageSource.setBasename("messages");
+        var beanFactory = new StaticListableBeanFactory(Map.of("meterRegistry", new SimpleMeterRegistry()));
+        this.handler = new GlobalExceptionHandler(this.messageSource, beanFactory.getBeanProvider(MeterRegistry.class), Duration.ofSeconds(1));
+        this.requestParameter = new MethodParameter(GlobalExceptionHandlerBenchmark.class.getDeclaredMethod("receive", TodoRequestDto.class), 0);
+        this.invalidRequest = new TodoRequestDto("", null, null, -1L);
+    }
+
+    @Benchmark
+    public ResponseEntity<TodoApiException> notFound() {
+        return this.handler.handleTodoNotFound(new TodoNotFoundException(42L));
+    }
+
+    /**
+     * The not-found path as it was before {@link TodoNotFoundException}: a stack trace and a message resolved per miss.
+     */
+    @Benchmark
+    public ResponseEntity<TodoApiException> notFoundWithStackTrace() {
+        var message = this.messageSource.getMessage("exception.not_found", new Object[]{42L}, Locale.getDefault());
+        return this.handler.handleNotFound(new NoSuchElementException(message));
+    }
+
+    @Benchmark
+    public ResponseEntity<TodoApiException> validation() {
+        var bindingResult = new DirectFieldBindingResult(this.invalidRequest, "todoRequestDto");
+        bindingResult.rejectValue("title", "NotBlank", "Title must not be blank");
+        bindingResult.rejectValue("version", "PositiveOrZero", "Version must not be negative");
+        return this.handler.handleValidation(new MethodArgumentNotValidException(this.requestParameter, bindingResult));
+    }
+
+    @Benchmark
+    public ResponseEntity<TodoApiException> generic() {
+        return this.handler.handleGeneric(new IllegalStateException("boom"), Locale.getDefault());
+    }
+
+    @SuppressWarnings("unused")
+    private void receive(TodoRequestDto request) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.ktilelis.todo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes one page of the list in each encoding the API negotiates, optionally gzipped the way Tomcat compresses
+ * responses. The size of the page in every combination is reported by the {@code size} benchmark as its
+ * {@code bytes} secondary result. The {@code page} envelope is what the API writes; {@code pageImpl} is {@code Page} serialized directly, for
+ * comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoEncodingBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"page", "pageImpl"})
+    private String envelope;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Object page;
+
+    @Setup
+    public void setUp() {
+        this.objectMapper = switch (this.format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> throw new IllegalArgumentException("Unsupported format: " + this.format);
+        };
+        var content = LongStream.range(0, this.pageSize).mapToObj(TodoFixtures::response).toList();
+        var pageImpl = new PageImpl<TodoResponseDto>(content, PageRequest.of(3, this.pageSize), 10_000);
+        this.page = "page".equals(this.envelope) ? new PagedModel<>(pageImpl) : pageImpl;
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return this.encode();
+    }
+
+    /**
+     * JMH sums {@code EVENTS} counters over the measurement iterations, so the size is taken from exactly one
+     * invocation, as long as {@code -i} and {@code -bs} are not overridden; its time is meaningless.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1, batchSize = 1)
+    public void size(PayloadSize size) throws IOException {
+        size.bytes = this.encode().length;
+    }
+
+    private byte[] encode() throws IOException {
+        if (!this.gzip) {
+            return this.objectMapper.writeValueAsBytes(this.page);
+        }
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new GZIPOutputStream(bytes)) {
+            this.objectMapper.writeValue(out, this.page);
+        }
+        return bytes.toByteArray();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long bytes;
+    }
+}
@@ -0,0 +1,52 @@
+package com.ktilelis.todo.benchmark;
+
+import com.ktilelis.todo.todomanagement.model.TodoEntry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoEntryBenchmark {
+
+    private TodoEntry entry;
+    private TodoEntry equalEntry;
+    private TodoEntry otherEntry;
+    private Set<TodoEntry> entries;
+
+    @Setup
+    public void setUp() {
+        this.entry = TodoFixtures.entry(42);
+        this.equalEntry = TodoFixtures.entry(42);
+        this.otherEntry = TodoFixtures.entry(43);
+        this.entries = LongStream.range(0, 1_000).mapToObj(TodoFixtures::entry).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    @Benchmark
+    public int hashCodeOf() {
+        return this.entry.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsEqual() {
+        return this.entry.equals(this.equalEntry);
+    }
+
+    @Benchmark
+    public boolean equalsDifferent() {
+        return this.entry.equals(this.otherEntry);
+    }
+
+    @Benchmark
+    public boolean setContains() {
+        return this.entries.contains(this.equalEntry);
+    }
+}
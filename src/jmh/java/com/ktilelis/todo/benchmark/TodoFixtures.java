@@ -0,0 +1,81 @@
+package com.ktilelis.todo.benchmark;
+
+import com.ktilelis.todo.todomanagement.model.TodoEntry;
+import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Todos whose text and timestamps vary from one id to the next, the same for every run, so payload sizes and
+ * compression ratios come close to real data rather than to a string repeated on every row.
+ */
+final class TodoFixtures {
+
+    static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0, 0, 123_456_000);
+
+    private static final String[] WORDS = ("""
+            call email book renew pay review draft send order fix clean plan schedule cancel update check prepare submit
+            return pick collect water buy print sign file backup migrate refactor deploy test measure write read answer
+            invoice report meeting dentist passport insurance garage groceries birthday present flight hotel train ticket
+            contract landlord plumber electrician doctor school teacher parents neighbour team manager client supplier
+            budget taxes receipts photos laptop phone charger printer router password account subscription newsletter
+            library books garden roses lawn bike tyres car oil brakes kitchen sink window curtains paint shelves boxes
+            before after monday tuesday friday weekend tomorrow morning evening quarterly urgent maybe again first last
+            the a for with about from to on at and or but not until by into our my their new old second final
+            """).trim().split("\\s+");
+
+    private TodoFixtures() {
+    }
+
+    static TodoEntry entry(long id) {
+        var random = new SplittableRandom(id);
+        var entry = new TodoEntry();
+        entry.setId(id);
+        entry.setTitle(title(random));
+        entry.setDescription(description(random));
+        entry.setDone(random.nextInt(3) == 0);
+        entry.setExpiresAt(random.nextBoolean() ? NOW.plusMinutes(random.nextInt(60 * 24 * 60)) : null);
+        entry.setCreatedAt(NOW.minusSeconds(random.nextInt(60 * 60 * 24 * 365)));
+        entry.setUpdatedAt(NOW.minusSeconds(random.nextInt(60 * 60 * 24 * 30)));
+        entry.setVersion((long) random.nextInt(8));
+        return entry;
+    }
+
+    static TodoResponseDto response(long id) {
+        var entry = entry(id);
+        return new TodoResponseDto(entry.getId(), entry.getTitle(), entry.getDescription(), entry.getDone(), entry.getExpiresAt(),
+                entry.getCreatedAt(), entry.getUpdatedAt(), entry.getVersion());
+    }
+
+    static TodoRequestDto request(long id) {
+        var entry = entry(id);
+        return new TodoRequestDto(entry.getTitle(), entry.getDescription(), entry.getExpiresAt(), null);
+    }
+
+    private static String title(SplittableRandom random) {
+        var title = words(random, 2 + random.nextInt(6));
+        return Character.toUpperCase(title.charAt(0)) + title.substring(1);
+    }
+
+    private static String description(SplittableRandom random) {
+        // some todos are just a title
+        if (random.nextInt(5) == 0) {
+            return null;
+        }
+        var description = words(random, 4 + random.nextInt(36)) + ".";
+        return description.length() <= 500 ? description : description.substring(0, 500);
+    }
+
+    private static String words(SplittableRandom random, int count) {
+        var text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,59 @@
+package com.ktilelis.todo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Serializes responses the way the list and item endpoints do; pages are written as {@link PagedModel} because the
+ * application serializes {@code Page} via DTO.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private TodoResponseDto todo;
+
+    @Setup
+    public void setUp() {
+        this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        this.todo = TodoFixtures.response(42);
+    }
+
+    @Benchmark
+    public byte[] serializeTodo() throws Exception {
+        return this.objectMapper.writeValueAsBytes(this.todo);
+    }
+
+    @Benchmark
+    public byte[] serializePage(PageState state) throws Exception {
+        return this.objectMapper.writeValueAsBytes(state.page);
+    }
+
+    @State(Scope.Benchmark)
+    public static class PageState {
+
+        @Param({"20", "100"})
+        private int pageSize;
+
+        private PagedModel<TodoResponseDto> page;
+
+        @Setup
+        public void setUp() {
+            var content = LongStream.range(0, this.pageSize).mapToObj(TodoFixtures::response).toList();
+            this.page = new PagedModel<>(new PageImpl<>(content, PageRequest.of(3, this.pageSize), 10_000));
+        }
+    }
+}
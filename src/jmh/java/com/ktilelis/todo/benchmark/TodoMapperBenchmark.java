@@ -0,0 +1,40 @@
+package com.ktilelis.todo.benchmark;
+
+import com.ktilelis.todo.todomanagement.model.TodoEntry;
+import com.ktilelis.todo.todomanagement.model.TodoMapper;
+import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoMapperBenchmark {
+
+    private TodoMapper mapper;
+    private TodoEntry entry;
+    private TodoRequestDto request;
+
+    @Setup
+    public void setUp() {
+        this.mapper = Mappers.getMapper(TodoMapper.class);
+        this.entry = TodoFixtures.entry(42);
+        this.request = TodoFixtures.request(42);
+    }
+
+    @Benchmark
+    public TodoResponseDto toDto() {
+        return this.mapper.toDto(this.entry);
+    }
+
+    @Benchmark
+    public TodoEntry toEntity() {
+        return this.mapper.toEntity(this.request);
+    }
+}
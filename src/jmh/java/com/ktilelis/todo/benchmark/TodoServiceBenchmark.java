@@ -0,0 +1,85 @@
+package com.ktilelis.todo.benchmark;
+
+import com.ktilelis.todo.TodoApplication;
+import com.ktilelis.todo.todomanagement.TodoService;
+import com.ktilelis.todo.todomanagement.model.TodoFilter;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Runs the service layer end to end against PostgreSQL. A container is started unless {@code SPRING_DATASOURCE_URL}
+ * (and the matching username and password variables) point at an existing database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoServiceBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private PostgreSQLContainer<?> container;
+    private ConfigurableApplicationContext context;
+    private TodoService todoService;
+    private TodoFilter openTodos;
+    private Long cachedId;
+
+    @Setup
+    public void setUp() {
+        var args = new ArrayList<String>();
+        args.add("--spring.jpa.show-sql=false");
+        args.add("--todo.expiry.enabled=false");
+        args.add("--logging.level.root=WARN");
+        if (System.getenv("SPRING_DATASOURCE_URL") == null) {
+            this.container = new PostgreSQLContainer<>("postgres:17.5-alpine");
+            this.container.start();
+            args.add("--spring.datasource.url=" + this.container.getJdbcUrl());
+            args.add("--spring.datasource.username=" + this.container.getUsername());
+            args.add("--spring.datasource.password=" + this.container.getPassword());
+        }
+        this.context = new SpringApplicationBuilder(TodoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        this.todoService = this.context.getBean(TodoService.class);
+
+        this.todoService.createTodos(LongStream.range(0, ROWS).mapToObj(TodoFixtures::request).toList());
+        this.openTodos = new TodoFilter(false, null, null, null, null, null);
+        this.cachedId = this.todoService.createTodo(TodoFixtures.request(ROWS)).id();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.context.close();
+        if (this.container != null) {
+            this.container.stop();
+        }
+    }
+
+    @Benchmark
+    public TodoResponseDto getCachedTodo() {
+        return this.todoService.getTodoById(this.cachedId);
+    }
+
+    @Benchmark
+    public Page<TodoResponseDto> getOpenTodosPage() {
+        return this.todoService.getTodos(this.openTodos, null, PageRequest.of(ThreadLocalRandom.current().nextInt(50), 20));
+    }
+
+    @Benchmark
+    public TodoResponseDto createTodo() {
+        return this.todoService.createTodo(TodoFixtures.request(ThreadLocalRandom.current().nextLong(ROWS)));
+    }
+}
@@ -0,0 +1,77 @@
+package com.ktilelis.todo.configuration;
+
+/**
+ * A concurrency limit that adapts to the latency of the work it admits, additive increase / multiplicative decrease.
+ * A request that took longer than the latency threshold, or failed on the server, shrinks the limit by the backoff
+ * ratio, once per window: requests admitted before the last cut were part of the load it already answered, so a single
+ * stall, such as the cold first requests after a start, does not take the limit all the way down. Every other request
+ * grows it by {@code 1 / limit}, roughly one per window, but only while the limit is actually in use.
+ * <p>
+ * When the database slows down, the limit follows the latency down and the surplus is rejected straight away, instead
+ * of queueing on the request threads until every request times out.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long maxLatencyNanos;
+
+    private double limit;
+    private int inFlight;
+    private boolean cut;
+    private long cutAt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long maxLatencyNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.maxLatencyNanos = maxLatencyNanos;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    /**
+     * Takes a slot without waiting; every slot taken must be handed back with {@link #release} or {@link #releaseIgnored}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (this.inFlight >= (int) this.limit) {
+            return false;
+        }
+        this.inFlight++;
+        return true;
+    }
+
+    /**
+     * Hands a slot back and adjusts the limit to how the request went.
+     *
+     * @param admittedAt  {@link System#nanoTime()} when the slot was taken
+     * @param completedAt {@link System#nanoTime()} when the request finished
+     */
+    public synchronized void release(long admittedAt, long completedAt, boolean failed) {
+        var concurrency = this.inFlight--;
+        if (failed || completedAt - admittedAt > this.maxLatencyNanos) {
+            if (!this.cut || admittedAt - this.cutAt > 0) {
+                this.limit = Math.max(this.minLimit, this.limit * this.backoffRatio);
+                this.cut = true;
+                this.cutAt = completedAt;
+            }
+        } else if (concurrency * 2 >= this.limit) {
+            this.limit = Math.min(this.maxLimit, this.limit + 1 / this.limit);
+        }
+    }
+
+    /**
+     * Hands a slot back without taking the request into account, e.g. one that went on to stream asynchronously.
+     */
+    public synchronized void releaseIgnored() {
+        this.inFlight--;
+    }
+
+    public synchronized int getLimit() {
+        return (int) this.limit;
+    }
+
+    public synchronized int getInFlight() {
+        return this.inFlight;
+    }
+}
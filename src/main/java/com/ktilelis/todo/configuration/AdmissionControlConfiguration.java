@@ -0,0 +1,28 @@
+package com.ktilelis.todo.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AdmissionControlProperties.class)
+public class AdmissionControlConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "todo.admission", name = "enabled", matchIfMissing = true)
+    public AdmissionControlInterceptor admissionControlInterceptor(AdmissionControlProperties properties, MeterRegistry meterRegistry) {
+        var rateLimit = properties.rateLimit();
+        var rateLimiter = rateLimit.enabled()
+                ? new TokenBucketRateLimiter(rateLimit.permitsPerSecond(), rateLimit.burst(), rateLimit.maxClients(), System::nanoTime)
+                : null;
+        return new AdmissionControlInterceptor(rateLimiter, limiter(properties.reads(), properties.backoffRatio()),
+                limiter(properties.writes(), properties.backoffRatio()), properties.retryAfter(), meterRegistry);
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(AdmissionControlProperties.Limit limit, double backoffRatio) {
+        return new AdaptiveConcurrencyLimiter(limit.initialLimit(), limit.minLimit(), limit.maxLimit(), backoffRatio,
+                limit.maxLatency().toNanos());
+    }
+}
@@ -0,0 +1,120 @@
+package com.ktilelis.todo.configuration;
+
+import com.ktilelis.todo.exception.TodoOverloadedException;
+import com.ktilelis.todo.exception.TodoRateLimitedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Admits requests to the todo API before they take up a request thread for long: first against the client's rate
+ * limit, then against the adaptive concurrency budget of reads or writes. Rejections are thrown to
+ * {@code GlobalExceptionHandler}, which answers 429 or 503 with {@code Retry-After}.
+ * <p>
+ * Requests that go on asynchronously, the change stream and exports, give their slot back once they started
+ * streaming and are not sampled, so long-lived connections neither hold a budget nor skew its latency.
+ */
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".permit";
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter reads;
+    private final AdaptiveConcurrencyLimiter writes;
+    private final Duration retryAfter;
+
+    private final Counter rateLimited;
+    private final Counter readsRejected;
+    private final Counter writesRejected;
+
+    public AdmissionControlInterceptor(TokenBucketRateLimiter rateLimiter,
+                                       AdaptiveConcurrencyLimiter reads,
+                                       AdaptiveConcurrencyLimiter writes,
+                                       Duration retryAfter,
+                                       MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.reads = reads;
+        this.writes = writes;
+        this.retryAfter = retryAfter;
+
+        registerGauges(meterRegistry, "reads", reads);
+        registerGauges(meterRegistry, "writes", writes);
+        this.rateLimited = rejected(meterRegistry, "rate-limit");
+        this.readsRejected = rejected(meterRegistry, "reads");
+        this.writesRejected = rejected(meterRegistry, "writes");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // the dispatch resuming an asynchronous request was admitted with it
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        if (this.rateLimiter != null) {
+            var wait = this.rateLimiter.tryAcquire(request.getRemoteAddr());
+            if (!wait.isZero()) {
+                this.rateLimited.increment();
+                throw new TodoRateLimitedException(wait);
+            }
+        }
+        var read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        var limiter = read ? this.reads : this.writes;
+        if (!limiter.tryAcquire()) {
+            (read ? this.readsRejected : this.writesRejected).increment();
+            throw new TodoOverloadedException(read ? "reads" : "writes", this.retryAfter);
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(limiter, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        var permit = takePermit(request);
+        if (permit != null) {
+            permit.limiter().releaseIgnored();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        var permit = takePermit(request);
+        if (permit != null) {
+            // client errors say nothing about our capacity; server errors, such as timed out database permits, do
+            permit.limiter().release(permit.admittedAt(), System.nanoTime(), ex != null || response.getStatus() >= 500);
+        }
+    }
+
+    private static Permit takePermit(HttpServletRequest request) {
+        var permit = (Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        request.removeAttribute(PERMIT_ATTRIBUTE);
+        return permit;
+    }
+
+    private static void registerGauges(MeterRegistry meterRegistry, String budget, AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("todo.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Concurrent requests currently admitted")
+                .tag("budget", budget)
+                .register(meterRegistry);
+        Gauge.builder("todo.admission.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Admitted requests still running")
+                .tag("budget", budget)
+                .register(meterRegistry);
+    }
+
+    private static Counter rejected(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("todo.admission.rejected")
+                .description("Requests turned away before reaching the controller")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private record Permit(AdaptiveConcurrencyLimiter limiter, long admittedAt) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.ktilelis.todo.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled      whether requests to the todo API pass through {@link AdmissionControlInterceptor}
+ * @param reads        concurrency budget of GET and HEAD requests
+ * @param writes       concurrency budget of all other requests
+ * @param backoffRatio factor a budget's limit is multiplied with after a slow or failed request
+ * @param retryAfter   {@code Retry-After} sent with a 503 when a budget is exhausted
+ * @param rateLimit    per-client rate limit, applied before the budgets
+ */
+@ConfigurationProperties("todo.admission")
+public record AdmissionControlProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue Limit reads,
+        @DefaultValue Limit writes,
+        @DefaultValue("0.9") double backoffRatio,
+        @DefaultValue("1s") Duration retryAfter,
+        @DefaultValue RateLimit rateLimit
+) {
+
+    /**
+     * @param initialLimit concurrent requests admitted at startup
+     * @param minLimit     the limit never shrinks below this
+     * @param maxLimit     the limit never grows beyond this
+     * @param maxLatency   requests slower than this count as a sign of overload
+     */
+    public record Limit(
+            @DefaultValue("20") int initialLimit,
+            @DefaultValue("1") int minLimit,
+            @DefaultValue("200") int maxLimit,
+            @DefaultValue("1s") Duration maxLatency
+    ) {
+    }
+
+    /**
+     * @param enabled          whether clients are rate limited at all
+     * @param permitsPerSecond requests per second a client may send on average
+     * @param burst            requests a client may send at once
+     * @param maxClients       clients whose buckets are tracked; the least recently seen are forgotten beyond that
+     */
+    public record RateLimit(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("100") double permitsPerSecond,
+            @DefaultValue("200") int burst,
+            @DefaultValue("100000") long maxClients
+    ) {
+    }
+}
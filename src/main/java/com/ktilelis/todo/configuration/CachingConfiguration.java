@@ -0,0 +1,36 @@
+package com.ktilelis.todo.configuration;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.StringUtils;
+
+@Configuration
+// runs outside the transaction interceptor so cache hits never open a transaction or borrow a connection
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+@EnableConfigurationProperties(CacheProperties.class)
+public class CachingConfiguration {
+
+    public static final String TODO_CACHE = "todos";
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties cacheProperties) {
+        var caffeineCacheManager = new CaffeineCacheManager();
+        var spec = cacheProperties.getCaffeine().getSpec();
+        if (StringUtils.hasText(spec)) {
+            caffeineCacheManager.setCacheSpecification(spec);
+        }
+        if (!cacheProperties.getCacheNames().isEmpty()) {
+            caffeineCacheManager.setCacheNames(cacheProperties.getCacheNames());
+        }
+        // puts and evictions issued inside a transaction are applied only once it commits,
+        // so a concurrent read cannot re-populate the cache with the row as it was before the write
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
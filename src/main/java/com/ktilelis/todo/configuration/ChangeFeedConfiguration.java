@@ -0,0 +1,21 @@
+package com.ktilelis.todo.configuration;
+
+import com.ktilelis.todo.todomanagement.TodoChangeFeed;
+import com.ktilelis.todo.todomanagement.TodoChangeLog;
+import com.ktilelis.todo.todomanagement.TodoChangeProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+@Configuration
+public class ChangeFeedConfiguration {
+
+    @Bean
+    public TodoChangeFeed todoChangeFeed(TodoChangeLog changeLog, MeterRegistry meterRegistry, TodoChangeProperties properties) {
+        // not a bean of its own: any Executor bean would make Boot back off from the application task executor
+        var drainExecutor = new SimpleAsyncTaskExecutor("todo-changes-");
+        drainExecutor.setVirtualThreads(true);
+        return new TodoChangeFeed(changeLog, drainExecutor, meterRegistry, properties);
+    }
+}
@@ -0,0 +1,19 @@
+package com.ktilelis.todo.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled        whether connections are handed out through {@link ConnectionLimitingDataSource}
+ * @param maxConcurrency connections in use at once; defaults to the pool's maximum size
+ * @param acquireTimeout how long a caller waits for a permit before the request fails
+ */
+@ConfigurationProperties("todo.datasource.limiter")
+public record ConnectionLimiterProperties(
+        @DefaultValue("true") boolean enabled,
+        Integer maxConcurrency,
+        @DefaultValue("5s") Duration acquireTimeout
+) {
+}
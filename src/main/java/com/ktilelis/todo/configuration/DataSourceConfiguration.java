@@ -0,0 +1,66 @@
+package com.ktilelis.todo.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+public class DataSourceConfiguration {
+
+    // the name of the data source the application uses, whether auto-configured or routing to replicas
+    private static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+    // static, so the post processor is registered before the data source is created
+    @Bean
+    public static BeanPostProcessor dataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                var result = bean instanceof HikariDataSource hikariDataSource ? limitConnections(hikariDataSource, environment) : bean;
+                // only the outermost data source, so a statement through the pools behind it is counted once
+                return DATA_SOURCE_BEAN_NAME.equals(beanName) ? new QueryCountingDataSource((DataSource) result) : result;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionLimiterMetrics(DataSource dataSource) {
+        return registry -> {
+            // with read replicas the primary pool sits behind the lazy connection proxy
+            var limiter = unwrapLimiter(dataSource);
+            if (limiter != null) {
+                Gauge.builder("todo.datasource.limiter.available", limiter, ConnectionLimitingDataSource::getAvailablePermits)
+                        .description("Database permits currently free")
+                        .register(registry);
+                Gauge.builder("todo.datasource.limiter.waiting", limiter, ConnectionLimitingDataSource::getWaitingThreads)
+                        .description("Callers parked waiting for a database permit")
+                        .register(registry);
+            }
+        };
+    }
+
+    private static DataSource limitConnections(HikariDataSource hikariDataSource, Environment environment) {
+        var properties = Binder.get(environment).bindOrCreate("todo.datasource.limiter", ConnectionLimiterProperties.class);
+        if (!properties.enabled()) {
+            return hikariDataSource;
+        }
+        var maxConcurrency = properties.maxConcurrency() != null ? properties.maxConcurrency() : hikariDataSource.getMaximumPoolSize();
+        return new ConnectionLimitingDataSource(hikariDataSource, maxConcurrency, properties.acquireTimeout());
+    }
+
+    private static ConnectionLimitingDataSource unwrapLimiter(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ConnectionLimitingDataSource.class) ? dataSource.unwrap(ConnectionLimitingDataSource.class) : null;
+        } catch (SQLException ex) {
+            return null;
+        }
+    }
+}
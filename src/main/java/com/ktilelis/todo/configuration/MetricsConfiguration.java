@@ -0,0 +1,19 @@
+package com.ktilelis.todo.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+public class MetricsConfiguration {
+
+    // the data source is wrapped in DataSourceConfiguration
+    @Bean
+    public FilterRegistrationBean<QueryCountingFilter> queryCountingFilter(DataSource dataSource, MeterRegistry meterRegistry) throws SQLException {
+        return new FilterRegistrationBean<>(new QueryCountingFilter(dataSource.unwrap(QueryCountingDataSource.class), meterRegistry));
+    }
+}
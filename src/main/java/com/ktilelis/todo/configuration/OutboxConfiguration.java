@@ -0,0 +1,25 @@
+package com.ktilelis.todo.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktilelis.todo.todomanagement.FileTodoOutboxSink;
+import com.ktilelis.todo.todomanagement.LoggingTodoOutboxSink;
+import com.ktilelis.todo.todomanagement.TodoOutboxProperties;
+import com.ktilelis.todo.todomanagement.TodoOutboxSink;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+@Configuration
+@EnableConfigurationProperties(TodoOutboxProperties.class)
+public class OutboxConfiguration {
+
+    @Bean
+    public TodoOutboxSink todoOutboxSink(TodoOutboxProperties properties, ObjectMapper objectMapper) throws IOException {
+        if (properties.file() != null) {
+            return new FileTodoOutboxSink(properties.file(), objectMapper);
+        }
+        return new LoggingTodoOutboxSink();
+    }
+}
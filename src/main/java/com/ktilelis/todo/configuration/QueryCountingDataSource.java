@@ -0,0 +1,92 @@
+package com.ktilelis.todo.configuration;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts the SQL statements executed on the current thread between {@link #start()} and {@link #stop()}, whoever
+ * issues them: Hibernate, {@code JdbcTemplate} or a {@code COPY} through the driver's API. A JDBC batch counts once,
+ * as it is one round trip. Statements from other threads, such as the async export, are not attributed to the request.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    private final ThreadLocal<int[]> count = new ThreadLocal<>();
+
+    public QueryCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    public void start() {
+        this.count.set(new int[1]);
+    }
+
+    public int stop() {
+        var current = this.count.get();
+        this.count.remove();
+        return current != null ? current[0] : 0;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return this.counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return this.counting(super.getConnection(username, password));
+    }
+
+    private Connection counting(Connection connection) {
+        return proxy(Connection.class, connection, (method, result) -> {
+            if (result instanceof Statement && (method.getName().startsWith("create") || method.getName().startsWith("prepare"))) {
+                return proxy(method.getReturnType(), result, (statementMethod, statementResult) -> {
+                    if (statementMethod.getName().startsWith("execute")) {
+                        this.increment();
+                    }
+                    return statementResult;
+                });
+            }
+            if (result instanceof PGConnection pgConnection && "unwrap".equals(method.getName())) {
+                return proxy(PGConnection.class, pgConnection, (pgMethod, pgResult) -> {
+                    if ("getCopyAPI".equals(pgMethod.getName())) {
+                        this.increment();
+                    }
+                    return pgResult;
+                });
+            }
+            return result;
+        });
+    }
+
+    private void increment() {
+        var current = this.count.get();
+        if (current != null) {
+            current[0]++;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<?> type, Object target, ResultHandler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            try {
+                return handler.handle(method, method.invoke(target, args));
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            }
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    private interface ResultHandler {
+        Object handle(Method method, Object result);
+    }
+}
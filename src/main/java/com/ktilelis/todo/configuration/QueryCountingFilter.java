@@ -0,0 +1,46 @@
+package com.ktilelis.todo.configuration;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each request issued as {@code todo.db.queries}, tagged like
+ * {@code http.server.requests}, so N+1 regressions show up per route.
+ */
+public class QueryCountingFilter extends OncePerRequestFilter {
+
+    private final QueryCountingDataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    public QueryCountingFilter(QueryCountingDataSource dataSource, MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        this.dataSource.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            var queries = this.dataSource.stop();
+            // only known after dispatch; unmatched requests share one series instead of one per raw path
+            var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("todo.db.queries")
+                    .description("SQL statements issued per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    .publishPercentileHistogram()
+                    .register(this.meterRegistry)
+                    .record(queries);
+        }
+    }
+}
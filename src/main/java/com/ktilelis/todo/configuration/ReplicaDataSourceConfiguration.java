@@ -0,0 +1,98 @@
+package com.ktilelis.todo.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+
+/**
+ * Replaces the auto-configured data source when replicas are enabled.
+ * <p>
+ * The application sees a {@link LazyConnectionDataSourceProxy} that only fetches a connection on the first statement.
+ * By then the transaction manager has marked the connection of a {@code @Transactional(readOnly = true)} method as
+ * read-only, and the proxy takes it from the {@link ReplicaRoutingDataSource} instead of the primary. Everything else,
+ * including Flyway and read-only calls nested in a read-write transaction, stays on the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "todo.datasource.replicas", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class ReplicaDataSourceConfiguration {
+
+    // the auto-configured pool backs off once a DataSource bean exists, so the primary is built the same way here
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, ObjectProvider<JdbcConnectionDetails> connectionDetails) {
+        var builder = properties.initializeDataSourceBuilder().type(HikariDataSource.class);
+        connectionDetails.ifAvailable(details -> builder
+                .url(details.getJdbcUrl())
+                .username(details.getUsername())
+                .password(details.getPassword())
+                .driverClassName(details.getDriverClassName()));
+        return builder.build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                             ReplicaDataSourceProperties properties,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        var replicas = new ArrayList<ReplicaRoutingDataSource.Replica>();
+        for (var instance : properties.instances()) {
+            var pool = new HikariDataSource();
+            pool.setPoolName("replica-" + replicas.size());
+            pool.setJdbcUrl(instance.url());
+            pool.setUsername(instance.username());
+            pool.setPassword(instance.password());
+            pool.setMaximumPoolSize(properties.poolSize());
+            pool.setConnectionTimeout(properties.connectionTimeout().toMillis());
+            pool.setReadOnly(true);
+            // a replica that is down at startup must not stop the application from starting
+            pool.setInitializationFailTimeout(-1);
+            meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(new ReplicaRoutingDataSource.Replica(pool.getPoolName(), pool));
+        }
+        var routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicas, properties.maxLag());
+        routingDataSource.checkReplicas();
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    public LazyConnectionDataSourceProxy dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                    ReplicaRoutingDataSource replicaRoutingDataSource) {
+        var dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    public MeterBinder replicaMetrics(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return registry -> {
+            for (var replica : replicaRoutingDataSource.getReplicas()) {
+                Gauge.builder("todo.datasource.replica.usable", replica, r -> replicaRoutingDataSource.isUsable(r) ? 1 : 0)
+                        .description("Whether the replica currently takes read-only transactions")
+                        .tag("replica", replica.getName())
+                        .register(registry);
+                Gauge.builder("todo.datasource.replica.lag", replica, r -> r.getLag().toMillis() / 1000.0)
+                        .description("Replay lag behind the primary at the last probe")
+                        .tag("replica", replica.getName())
+                        .baseUnit("seconds")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.ktilelis.todo.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * @param enabled           whether read-only transactions are sent to {@link #instances()}
+ * @param maxLag            replicas further behind the primary than this are skipped until they catch up
+ * @param checkInterval     how often every replica is probed for health and lag
+ * @param poolSize          maximum connections per replica pool
+ * @param connectionTimeout how long a read waits for a replica connection before falling back to the primary
+ * @param instances         the replicas, tried round-robin
+ */
+@ConfigurationProperties("todo.datasource.replicas")
+public record ReplicaDataSourceProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("5s") Duration maxLag,
+        @DefaultValue("5s") Duration checkInterval,
+        @DefaultValue("10") int poolSize,
+        @DefaultValue("2s") Duration connectionTimeout,
+        @DefaultValue List<Instance> instances
+) {
+
+    public record Instance(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.ktilelis.todo.configuration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(prefix = "todo.datasource.replicas", name = "enabled", havingValue = "true")
+public class ReplicaHealthChecker {
+
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    public ReplicaHealthChecker(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+    }
+
+    @Scheduled(initialDelayString = "${todo.datasource.replicas.check-interval:5s}", fixedDelayString = "${todo.datasource.replicas.check-interval:5s}")
+    public void checkReplicas() {
+        this.replicaRoutingDataSource.checkReplicas();
+    }
+}
@@ -0,0 +1,144 @@
+package com.ktilelis.todo.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections to read replicas, round-robin, for the read-only side of the lazy connection proxy.
+ * <p>
+ * Every replica is probed on a schedule for reachability and replay lag. A replica that fails the probe, fails to
+ * hand out a connection or lags behind by more than the bound is skipped until a later probe clears it. When no
+ * replica is usable the connection comes from the primary, so reads degrade to the single-database setup instead of
+ * failing.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    // zero when caught up or not a standby at all; otherwise the age of the last replayed transaction
+    static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())
+            END""";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLag = maxLag;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        var start = Math.floorMod(this.next.getAndIncrement(), Math.max(this.replicas.size(), 1));
+        for (var i = 0; i < this.replicas.size(); i++) {
+            var replica = this.replicas.get((start + i) % this.replicas.size());
+            if (!this.isUsable(replica)) {
+                continue;
+            }
+            try {
+                return replica.getDataSource().getConnection();
+            } catch (SQLException ex) {
+                this.markDown(replica, ex);
+            }
+        }
+        return this.primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return this.primary.getConnection(username, password);
+    }
+
+    /**
+     * Probes every replica once and records whether it is reachable and how far behind it is.
+     */
+    public void checkReplicas() {
+        for (var replica : this.replicas) {
+            try (var connection = replica.getDataSource().getConnection();
+                 var statement = connection.createStatement();
+                 var resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                var wasUsable = this.isUsable(replica);
+                replica.lag = Duration.ofMillis(Math.round(resultSet.getDouble(1) * 1000));
+                replica.up = true;
+                if (wasUsable != this.isUsable(replica)) {
+                    logger.info("Replica {} is {} behind the primary, {} reads", replica.getName(), replica.lag,
+                            wasUsable ? "no longer taking" : "taking");
+                }
+            } catch (SQLException ex) {
+                this.markDown(replica, ex);
+            }
+        }
+    }
+
+    public List<Replica> getReplicas() {
+        return this.replicas;
+    }
+
+    public boolean isUsable(Replica replica) {
+        return replica.up && replica.lag.compareTo(this.maxLag) <= 0;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (var replica : this.replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void markDown(Replica replica, SQLException ex) {
+        if (replica.up) {
+            logger.warn("Replica {} is down, reading from the primary until it recovers: {}", replica.getName(), ex.getMessage());
+        }
+        replica.up = false;
+    }
+
+    /**
+     * A replica starts out down; the first probe decides whether it takes reads.
+     */
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean up;
+        private volatile Duration lag = Duration.ZERO;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isUp() {
+            return up;
+        }
+
+        public Duration getLag() {
+            return lag;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.ktilelis.todo.configuration;
+
+import com.ktilelis.todo.todomanagement.TodoChangeProperties;
+import com.ktilelis.todo.todomanagement.TodoExpiryProperties;
+import com.ktilelis.todo.todomanagement.TodoIdempotencyProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({TodoExpiryProperties.class, TodoChangeProperties.class, TodoIdempotencyProperties.class})
+public class SchedulingConfiguration {
+}
@@ -0,0 +1,15 @@
+package com.ktilelis.todo.configuration;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TenancyConfiguration {
+
+    @Bean
+    public HibernatePropertiesCustomizer todoOwnerHibernateCustomizer() {
+        return properties -> properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, new TodoOwnerTenantResolver());
+    }
+}
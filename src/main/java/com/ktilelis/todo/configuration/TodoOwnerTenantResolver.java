@@ -0,0 +1,26 @@
+package com.ktilelis.todo.configuration;
+
+import com.ktilelis.todo.todomanagement.TodoOwnerContext;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Makes the bound todo owner the tenant of each Hibernate session, so the {@code @TenantId} owner column is filtered
+ * on and filled in without the queries mentioning it.
+ */
+public class TodoOwnerTenantResolver implements CurrentTenantIdentifierResolver<String> {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return TodoOwnerContext.current();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    @Override
+    public boolean isRoot(String tenantId) {
+        return TodoOwnerContext.ROOT.equals(tenantId);
+    }
+}
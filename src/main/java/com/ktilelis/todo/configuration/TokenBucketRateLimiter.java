@@ -0,0 +1,59 @@
+package com.ktilelis.todo.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * One token bucket per client: a client may send {@code burst} requests at once and {@code permitsPerSecond} on
+ * average. Buckets of clients that stayed away long enough to fill up again are dropped.
+ */
+public class TokenBucketRateLimiter {
+
+    private final double permitsPerNano;
+    private final int burst;
+    private final LongSupplier nanoTime;
+    private final Cache<String, Bucket> buckets;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst, long maxClients, LongSupplier nanoTime) {
+        this.permitsPerNano = permitsPerSecond / Duration.ofSeconds(1).toNanos();
+        this.burst = burst;
+        this.nanoTime = nanoTime;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos((long) Math.ceil(burst / this.permitsPerNano)))
+                .build();
+    }
+
+    /**
+     * Takes a token from the client's bucket.
+     *
+     * @return {@link Duration#ZERO} when a token was taken, otherwise how long until the next one is available
+     */
+    public Duration tryAcquire(String client) {
+        return this.buckets.get(client, key -> new Bucket(this.burst, this.nanoTime.getAsLong())).tryAcquire(this.nanoTime.getAsLong());
+    }
+
+    private final class Bucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        private Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        synchronized Duration tryAcquire(long now) {
+            this.tokens = Math.min(burst, this.tokens + (now - this.refilledAt) * permitsPerNano);
+            this.refilledAt = now;
+            if (this.tokens >= 1) {
+                this.tokens--;
+                return Duration.ZERO;
+            }
+            return Duration.ofNanos((long) Math.ceil((1 - this.tokens) / permitsPerNano));
+        }
+    }
+}
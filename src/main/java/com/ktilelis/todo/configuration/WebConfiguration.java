@@ -0,0 +1,69 @@
+package com.ktilelis.todo.configuration;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.ktilelis.todo.todomanagement.TodoFieldsResponseBodyAdvice;
+import com.ktilelis.todo.todomanagement.TodoOwnerInterceptor;
+import com.ktilelis.todo.todomanagement.model.TodoCountMode;
+import com.ktilelis.todo.todomanagement.model.TodoField;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import com.ktilelis.todo.todomanagement.model.TodoSortField;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+
+    private static final String[] TODO_ROUTES = {"/v1/todo/**", "/v1/owners/*/todo/**"};
+
+    private final ObjectProvider<AdmissionControlInterceptor> admissionControlInterceptor;
+
+    public WebConfiguration(ObjectProvider<AdmissionControlInterceptor> admissionControlInterceptor) {
+        this.admissionControlInterceptor = admissionControlInterceptor;
+    }
+
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, TodoSortField.class, TodoSortField::fromProperty);
+        registry.addConverter(String.class, TodoCountMode.class, TodoCountMode::fromValue);
+        registry.addConverter(String.class, TodoField.class, TodoField::fromProperty);
+    }
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer todoFieldsFilter() {
+        return builder -> builder
+                .mixIn(TodoResponseDto.class, TodoFieldsResponseBodyAdvice.FilteredTodo.class)
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    /**
+     * Binary encodings of the JSON API for clients that send {@code Accept: application/cbor} or
+     * {@code application/x-jackson-smile}. They replace the converters Spring MVC would add on its own, so they share the
+     * JSON mapper's configuration, including the {@code fields=} filter.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // rejects before any other work is done for the request
+        this.admissionControlInterceptor.ifAvailable(interceptor -> registry.addInterceptor(interceptor).addPathPatterns(TODO_ROUTES));
+        registry.addInterceptor(new TodoOwnerInterceptor()).addPathPatterns(TODO_ROUTES);
+    }
+}
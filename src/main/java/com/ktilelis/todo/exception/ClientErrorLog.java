@@ -0,0 +1,43 @@
+package com.ktilelis.todo.exception;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs at most one client error per interval and reports how many were suppressed since, so clients probing the
+ * API, or a burst of requests turned away under load, cannot flood the log.
+ */
+class ClientErrorLog {
+
+    private final Logger logger;
+    private final long intervalNanos;
+    private final AtomicLong nextLogAt;
+    private final LongAdder suppressed = new LongAdder();
+
+    ClientErrorLog(Logger logger, Duration interval) {
+        this.logger = logger;
+        this.intervalNanos = interval.toNanos();
+        this.nextLogAt = new AtomicLong(System.nanoTime());
+    }
+
+    void warn(String message) {
+        if (!this.logger.isWarnEnabled()) {
+            return;
+        }
+        var now = System.nanoTime();
+        var next = this.nextLogAt.get();
+        if (now - next < 0 || !this.nextLogAt.compareAndSet(next, now + this.intervalNanos)) {
+            this.suppressed.increment();
+            return;
+        }
+        var skipped = this.suppressed.sumThenReset();
+        if (skipped > 0) {
+            this.logger.warn("{} ({} similar errors suppressed)", message, skipped);
+        } else {
+            this.logger.warn(message);
+        }
+    }
+}
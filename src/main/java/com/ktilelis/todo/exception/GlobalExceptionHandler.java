@@ -1,55 +1,180 @@
 package com.ktilelis.todo.exception;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.TransactionException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
 
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Duration CLIENT_ERROR_LOG_INTERVAL = Duration.ofSeconds(1);
+
     private final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
     private final MessageSource messageSource;
+    private final MeterRegistry meterRegistry;
+    private final Map<HttpStatus, ClientErrorLog> clientErrorLogs = new ConcurrentHashMap<>();
+    private final String notFoundTemplate;
+    private final String rateLimitedMessage;
+    private final String overloadedMessage;
+    private final Duration retryAfter;
+    private final Counter connectionsUnavailable;
+    private final ClientErrorLog connectionsUnavailableLog;
 
-    public GlobalExceptionHandler(MessageSource messageSource) {
+    public GlobalExceptionHandler(MessageSource messageSource,
+                                  ObjectProvider<MeterRegistry> meterRegistry,
+                                  @Value("${todo.admission.retry-after:1s}") Duration retryAfter) {
         this.messageSource = messageSource;
+        // slice tests run without actuator; the global registry then drops the counts
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        // resolved once rather than for every miss; without arguments the pattern comes back unformatted
+        this.notFoundTemplate = messageSource.getMessage("exception.not_found", null, Locale.getDefault());
+        // load shedding has to stay cheap, so its answers are prepared up front
+        this.rateLimitedMessage = messageSource.getMessage("exception.rate_limited", null, Locale.getDefault());
+        this.overloadedMessage = messageSource.getMessage("exception.overloaded", null, Locale.getDefault());
+        this.retryAfter = retryAfter;
+        this.connectionsUnavailable = Counter.builder("todo.api.connections.unavailable")
+                .description("Requests answered with 503 because no database connection was available in time")
+                .register(this.meterRegistry);
+        this.connectionsUnavailableLog = new ClientErrorLog(logger, CLIENT_ERROR_LOG_INTERVAL);
+    }
+
+    @ExceptionHandler(TodoNotFoundException.class)
+    public ResponseEntity<TodoApiException> handleTodoNotFound(TodoNotFoundException ex) {
+        var errorMessage = this.notFoundTemplate.replace("{0}", String.valueOf(ex.getId()));
+        return this.clientError(ex, new TodoApiException(errorMessage, HttpStatus.NOT_FOUND));
     }
 
     @ExceptionHandler(NoSuchElementException.class)
     public ResponseEntity<TodoApiException> handleNotFound(NoSuchElementException ex) {
-        var ae = new TodoApiException(ex.getMessage(), HttpStatus.NOT_FOUND);
+        return this.clientError(ex, new TodoApiException(ex.getMessage(), HttpStatus.NOT_FOUND));
+    }
+
+    @ExceptionHandler(NoResourceFoundException.class)
+    public ResponseEntity<TodoApiException> handleNoRoute(NoResourceFoundException ex) {
+        return this.clientError(ex, new TodoApiException(ex.getMessage(), HttpStatus.NOT_FOUND));
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<TodoApiException> handleConflict(ObjectOptimisticLockingFailureException ex) {
+        var errorMessage = this.messageSource.getMessage("exception.conflict", new Object[]{ex.getIdentifier()}, Locale.getDefault());
+        var exception = new TodoApiException(errorMessage, HttpStatus.CONFLICT);
+        return this.clientError(ex, exception);
+    }
+
+    @ExceptionHandler(TodoPreconditionFailedException.class)
+    public ResponseEntity<TodoApiException> handlePreconditionFailed(TodoPreconditionFailedException ex) {
+        var errorMessage = this.messageSource.getMessage("exception.precondition_failed", new Object[]{ex.getId()}, Locale.getDefault());
+        var exception = new TodoApiException(errorMessage, HttpStatus.PRECONDITION_FAILED);
+        return this.clientError(ex, exception);
+    }
+
+    @ExceptionHandler(TodoIdempotencyKeyReusedException.class)
+    public ResponseEntity<TodoApiException> handleIdempotencyKeyReused(TodoIdempotencyKeyReusedException ex) {
+        var errorMessage = this.messageSource.getMessage("exception.idempotency_key_reused", new Object[]{ex.getKey()}, Locale.getDefault());
+        var exception = new TodoApiException(errorMessage, HttpStatus.UNPROCESSABLE_ENTITY);
+        return this.clientError(ex, exception);
+    }
+
+    @ExceptionHandler(TodoRateLimitedException.class)
+    public ResponseEntity<TodoApiException> handleRateLimited(TodoRateLimitedException ex) {
+        var response = this.clientError(ex, new TodoApiException(this.rateLimitedMessage, HttpStatus.TOO_MANY_REQUESTS));
+        return withRetryAfter(response.getStatusCode(), ex.getRetryAfter(), response.getBody());
+    }
+
+    /**
+     * Not a client error, and not worth a log line per request either; shed requests are counted on
+     * {@code todo.admission.rejected}.
+     */
+    @ExceptionHandler(TodoOverloadedException.class)
+    public ResponseEntity<TodoApiException> handleOverloaded(TodoOverloadedException ex) {
+        return withRetryAfter(HttpStatus.SERVICE_UNAVAILABLE, ex.getRetryAfter(),
+                new TodoApiException(this.overloadedMessage, HttpStatus.SERVICE_UNAVAILABLE));
+    }
 
-        logger.warn(ex.getMessage(), ex);
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ae);
+    /**
+     * A timed out database permit, see {@code ConnectionLimitingDataSource}, or pool checkout is load rather than a
+     * fault: it is answered like shed load and logged without a stack trace, at most once per second. Other data access
+     * failures are unexpected.
+     */
+    @ExceptionHandler({TransactionException.class, DataAccessException.class})
+    public ResponseEntity<TodoApiException> handleDataAccess(Exception ex, Locale locale) {
+        if (!causedByConnectionTimeout(ex)) {
+            return this.handleGeneric(ex, locale);
+        }
+        this.connectionsUnavailable.increment();
+        this.connectionsUnavailableLog.warn("503 " + ex.getMessage());
+        return withRetryAfter(HttpStatus.SERVICE_UNAVAILABLE, this.retryAfter,
+                new TodoApiException(this.overloadedMessage, HttpStatus.SERVICE_UNAVAILABLE));
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<TodoApiException> handleValidation(MethodArgumentNotValidException ex) {
-        logger.warn(ex.getMessage(), ex);
-
-        var validationErrors = ex.getBindingResult().getFieldErrors().stream().map(error -> new ValidationError(error.getField(), error.getDefaultMessage())).toList();
+        // query parameters bound into a @ModelAttribute fail conversion here rather than as a type mismatch
+        var validationErrors = ex.getBindingResult().getFieldErrors().stream()
+                .map(error -> new ValidationError(error.getField(), error.isBindingFailure()
+                        ? this.messageSource.getMessage("exception.invalid_parameter", new Object[]{error.getField()}, Locale.getDefault())
+                        : error.getDefaultMessage()))
+                .toList();
         var exception = new TodoApiException(ex.getObjectName(), HttpStatus.BAD_REQUEST, validationErrors);
-
-        return ResponseEntity.badRequest().body(exception);
+        return this.clientError(ex, exception);
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<TodoApiException> handleConstraintViolation(ConstraintViolationException ex) {
         var validationErrors = ex.getConstraintViolations().stream().map(error -> new ValidationError(error.getPropertyPath().toString(), error.getMessage())).toList();
+        var exception = new TodoApiException(ex.getMessage(), HttpStatus.BAD_REQUEST, validationErrors);
+        return this.clientError(ex, exception);
+    }
 
-        logger.warn(ex.getMessage(), ex);
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<TodoApiException> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        var errorMessage = this.messageSource.getMessage("exception.invalid_parameter", new Object[]{ex.getName()}, Locale.getDefault());
+        var validationErrors = List.of(new ValidationError(ex.getName(), errorMessage));
+        var exception = new TodoApiException(errorMessage, HttpStatus.BAD_REQUEST, validationErrors);
+        return this.clientError(ex, exception);
+    }
 
-        var exception = new TodoApiException(ex.getMessage(), HttpStatus.BAD_REQUEST, validationErrors);
-        return ResponseEntity.badRequest().body(exception);
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<TodoApiException> handleUnsupportedMediaType(HttpMediaTypeNotSupportedException ex) {
+        var exception = new TodoApiException(ex.getMessage(), HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        return this.clientError(ex, exception);
+    }
+
+    /**
+     * A streaming client went away; there is nobody left to answer.
+     */
+    @ExceptionHandler(AsyncRequestNotUsableException.class)
+    public void handleDisconnectedClient(AsyncRequestNotUsableException ex) {
+        logger.debug("Client disconnected: {}", ex.getMessage());
     }
 
     @ExceptionHandler(Exception.class)
@@ -60,4 +185,36 @@ public class GlobalExceptionHandler {
         logger.error(uuid + " " + ex.getMessage(), ex);
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ae);
     }
+
+    private static boolean causedByConnectionTimeout(Throwable ex) {
+        for (var cause = ex; cause != null && cause.getCause() != cause; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ResponseEntity<TodoApiException> withRetryAfter(HttpStatusCode status, Duration retryAfter, TodoApiException body) {
+        // Retry-After counts whole seconds; rounding down would invite the retry too early
+        var seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds)).body(body);
+    }
+
+    /**
+     * Client errors are counted on {@code todo.api.client.errors} and logged without stack traces, at most once per
+     * second and status, so scanners probing the API do not turn into CPU and log volume.
+     */
+    private ResponseEntity<TodoApiException> clientError(Exception ex, TodoApiException body) {
+        var status = body.getHttpStatus();
+        Counter.builder("todo.api.client.errors")
+                .description("Requests rejected with a 4xx status")
+                .tag("status", String.valueOf(status.value()))
+                .tag("exception", ex.getClass().getSimpleName())
+                .register(this.meterRegistry)
+                .increment();
+        this.clientErrorLogs.computeIfAbsent(status, key -> new ClientErrorLog(logger, CLIENT_ERROR_LOG_INTERVAL))
+                .warn(status.value() + " " + ex.getMessage());
+        return ResponseEntity.status(status).body(body);
+    }
 }
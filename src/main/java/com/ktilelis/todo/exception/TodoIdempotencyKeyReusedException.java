@@ -0,0 +1,18 @@
+package com.ktilelis.todo.exception;
+
+/**
+ * Thrown when an idempotency key comes back with a request other than the one it was first used with.
+ */
+public class TodoIdempotencyKeyReusedException extends RuntimeException {
+
+    private final String key;
+
+    public TodoIdempotencyKeyReusedException(String key) {
+        super("Idempotency key " + key + " was used for a different request");
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
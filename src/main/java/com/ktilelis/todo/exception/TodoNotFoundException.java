@@ -0,0 +1,26 @@
+package com.ktilelis.todo.exception;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Thrown when a todo does not exist. A miss is an expected outcome that is always answered with 404, so the
+ * exception carries no stack trace and leaves resolving the localized message to the response.
+ */
+public class TodoNotFoundException extends NoSuchElementException {
+
+    private final Long id;
+
+    public TodoNotFoundException(Long id) {
+        super("TODO with id " + id + " not found");
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
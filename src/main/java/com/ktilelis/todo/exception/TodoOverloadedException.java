@@ -0,0 +1,21 @@
+package com.ktilelis.todo.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request arrives while its concurrency budget is exhausted.
+ */
+public class TodoOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public TodoOverloadedException(String budget, Duration retryAfter) {
+        // thrown for every rejected request under load, so without the cost of a stack trace
+        super("No capacity left for " + budget, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ktilelis.todo.exception;
+
+/**
+ * Thrown when a conditional write names a version of a todo that is no longer current.
+ */
+public class TodoPreconditionFailedException extends RuntimeException {
+
+    private final Long id;
+
+    public TodoPreconditionFailedException(Long id) {
+        super("TODO with id " + id + " does not match the expected version");
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ktilelis.todo.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a client sends requests faster than its rate limit allows.
+ */
+public class TodoRateLimitedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public TodoRateLimitedException(Duration retryAfter) {
+        // thrown for every rejected request under load, so without the cost of a stack trace
+        super("Rate limit exceeded, retry after " + retryAfter, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,43 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktilelis.todo.todomanagement.model.TodoOutboxEvent;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends every event to a file as one line of JSON, for local development and tests, or for a log shipper to pick up.
+ */
+public class FileTodoOutboxSink implements TodoOutboxSink, AutoCloseable {
+
+    private final ObjectMapper objectMapper;
+    private final BufferedWriter writer;
+
+    public FileTodoOutboxSink(Path file, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void send(TodoOutboxEvent event) {
+        try {
+            this.writer.write(this.objectMapper.writeValueAsString(event));
+            this.writer.newLine();
+            // an event counts as delivered once it left the process
+            this.writer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.writer.close();
+    }
+}
@@ -0,0 +1,25 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.ktilelis.todo.todomanagement.model.TodoOutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Used when no other sink is configured. Changes are then not queued, so it only logs events that were queued before,
+ * while a sink was configured.
+ */
+public class LoggingTodoOutboxSink implements TodoOutboxSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingTodoOutboxSink.class);
+
+    @Override
+    public void send(TodoOutboxEvent event) {
+        logger.debug("Todo {} of {} {} (change {})", event.change().id(), event.owner(),
+                event.change().type().getEventName(), event.change().sequence());
+    }
+
+    @Override
+    public boolean isDelivering() {
+        return false;
+    }
+}
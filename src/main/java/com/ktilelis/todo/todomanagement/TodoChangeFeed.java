@@ -0,0 +1,281 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.ktilelis.todo.todomanagement.model.TodoChangeDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes the change log to {@code /changes} subscribers. One thread per instance reads new changes from the log, however
+ * many clients are connected, and hands each to the subscribers of its owner. An idle subscriber holds no thread; each
+ * has a bounded buffer, and one that lets its buffer overflow is disconnected rather than being sent an incomplete
+ * stream. Clients reconnect with the id of the last event they received and are replayed what they missed from the log.
+ * <p>
+ * A drain blocks for as long as its client takes to read, so buffers are drained on an executor of the feed's own, a
+ * virtual thread per drain, rather than on the application task executor, where slow clients would hold up exports
+ * and expiry notifications. At most one drain runs per subscriber.
+ * <p>
+ * Sequences are taken when a change is recorded, but become visible when its transaction commits, so the log can show
+ * a gap that is filled a moment later. The feed waits up to {@code gapTimeout} for a gap before it assumes the missing
+ * change was rolled back.
+ */
+public class TodoChangeFeed {
+
+    public static final String RESET_EVENT = "reset";
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoChangeFeed.class);
+
+    private final TodoChangeLog changeLog;
+    private final AsyncTaskExecutor drainExecutor;
+    private final TodoChangeProperties properties;
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Queue<Subscriber> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter published;
+    private final Counter dropped;
+
+    // only touched by the polling thread
+    private long cursor = -1;
+    private long gapSince;
+
+    public TodoChangeFeed(TodoChangeLog changeLog,
+                          AsyncTaskExecutor drainExecutor,
+                          MeterRegistry meterRegistry,
+                          TodoChangeProperties properties) {
+        this.changeLog = changeLog;
+        this.drainExecutor = drainExecutor;
+        this.properties = properties;
+
+        Gauge.builder("todo.changes.subscribers", this.subscriberCount, AtomicInteger::get)
+                .description("Open change streams")
+                .register(meterRegistry);
+        this.published = Counter.builder("todo.changes.published")
+                .description("Changes read from the change log and handed to subscribers")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("todo.changes.dropped")
+                .description("Change streams disconnected because their buffer overflowed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream of the owner's changes after {@code lastEventId}. Without one, the stream starts with a
+     * {@value #RESET_EVENT} event whose id is the position the client's current state should be read at. The stream is
+     * picked up by the next {@link #poll()}.
+     */
+    public SseEmitter subscribe(String owner, Long lastEventId) {
+        var emitter = new SseEmitter(this.properties.timeout().toMillis());
+        var subscriber = new Subscriber(owner, emitter, lastEventId);
+        emitter.onCompletion(() -> this.remove(subscriber));
+        emitter.onError(ex -> this.remove(subscriber));
+        // an expired stream ends normally; the client reconnects and resumes
+        emitter.onTimeout(emitter::complete);
+        this.pending.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Registers new subscribers and publishes the changes committed since the last call.
+     */
+    public void poll() {
+        if (this.cursor < 0) {
+            this.cursor = this.changeLog.latestSequence();
+        }
+        this.registerPending();
+
+        var now = System.nanoTime();
+        for (var row : this.changeLog.findAfter(this.cursor, this.properties.batchSize())) {
+            var sequence = row.change().sequence();
+            if (sequence != this.cursor + 1) {
+                if (this.gapSince == 0) {
+                    this.gapSince = now;
+                }
+                if (now - this.gapSince < this.properties.gapTimeout().toNanos()) {
+                    return;
+                }
+                logger.debug("Skipping change log sequences {} to {}", this.cursor + 1, sequence - 1);
+            }
+            this.gapSince = 0;
+            this.cursor = sequence;
+            this.published.increment();
+            var owned = this.subscribers.get(row.owner());
+            if (owned != null) {
+                owned.forEach(subscriber -> subscriber.send(row.change()));
+            }
+        }
+    }
+
+    /**
+     * Sends a comment to every subscriber, which keeps idle connections open through proxies and detects clients that
+     * went away.
+     */
+    public void sendHeartbeats() {
+        this.subscribers.values().forEach(owned -> owned.forEach(subscriber -> subscriber.offer(SseEmitter.event().comment(""))));
+    }
+
+    public int pruneChangeLog() {
+        var pruned = this.changeLog.deleteOlderThan(this.properties.retention());
+        if (pruned > 0) {
+            logger.info("Pruned {} changes older than {}", pruned, this.properties.retention());
+        }
+        return pruned;
+    }
+
+    /**
+     * Ends the open streams, which graceful shutdown would otherwise wait for. Clients reconnect to another instance
+     * and resume there.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void closeStreams() {
+        this.pending.forEach(subscriber -> subscriber.emitter.complete());
+        this.subscribers.values().forEach(owned -> owned.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    private void registerPending() {
+        Subscriber subscriber;
+        while ((subscriber = this.pending.poll()) != null) {
+            if (!subscriber.closed) {
+                this.register(subscriber);
+            }
+        }
+    }
+
+    private void register(Subscriber subscriber) {
+        var resumeAfter = subscriber.resumeAfter;
+        if (resumeAfter == null) {
+            subscriber.reset(this.cursor);
+        } else if (resumeAfter < this.cursor) {
+            this.replay(subscriber, resumeAfter);
+        } else {
+            subscriber.lastSequence = resumeAfter;
+        }
+        this.subscribers.compute(subscriber.owner, (owner, owned) -> {
+            var set = owned != null ? owned : ConcurrentHashMap.<Subscriber>newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        this.subscriberCount.incrementAndGet();
+        // it may have gone away while being registered
+        if (subscriber.closed) {
+            this.remove(subscriber);
+        }
+    }
+
+    private void replay(Subscriber subscriber, long resumeAfter) {
+        // older changes may have been pruned
+        if (this.changeLog.oldestSequence() > resumeAfter + 1) {
+            subscriber.reset(this.cursor);
+            return;
+        }
+        var missed = this.changeLog.findAfter(subscriber.owner, resumeAfter, this.cursor, this.properties.maxReplay() + 1);
+        if (missed.size() > this.properties.maxReplay()) {
+            subscriber.reset(this.cursor);
+            return;
+        }
+        subscriber.lastSequence = resumeAfter;
+        missed.forEach(subscriber::send);
+        subscriber.lastSequence = Math.max(subscriber.lastSequence, this.cursor);
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.closed = true;
+        var removed = new AtomicBoolean();
+        this.subscribers.computeIfPresent(subscriber.owner, (owner, owned) -> {
+            removed.set(owned.remove(subscriber));
+            return owned.isEmpty() ? null : owned;
+        });
+        if (removed.get()) {
+            this.subscriberCount.decrementAndGet();
+        }
+    }
+
+    private final class Subscriber {
+        private final String owner;
+        private final SseEmitter emitter;
+        private final Long resumeAfter;
+        private final ArrayBlockingQueue<SseEmitter.SseEventBuilder> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        // only touched by the polling thread
+        private long lastSequence;
+
+        Subscriber(String owner, SseEmitter emitter, Long resumeAfter) {
+            this.owner = owner;
+            this.emitter = emitter;
+            this.resumeAfter = resumeAfter;
+            this.buffer = new ArrayBlockingQueue<>(properties.bufferSize());
+        }
+
+        void send(TodoChangeDto change) {
+            if (change.sequence() <= this.lastSequence) {
+                return;
+            }
+            this.lastSequence = change.sequence();
+            this.offer(SseEmitter.event()
+                    .id(Long.toString(change.sequence()))
+                    .name(change.type().getEventName())
+                    .data(change, MediaType.APPLICATION_JSON));
+        }
+
+        /**
+         * Tells the client to reload its state and continue from {@code sequence}.
+         */
+        void reset(long sequence) {
+            this.lastSequence = sequence;
+            this.offer(SseEmitter.event()
+                    .id(Long.toString(sequence))
+                    .name(RESET_EVENT)
+                    .data(Map.of("sequence", sequence), MediaType.APPLICATION_JSON));
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (this.closed) {
+                return;
+            }
+            if (!this.buffer.offer(event)) {
+                // what is still buffered is not sent, so the client resumes after the last event it actually received
+                dropped.increment();
+                remove(this);
+                this.emitter.complete();
+                return;
+            }
+            if (this.draining.compareAndSet(false, true)) {
+                drainExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!this.closed && (event = this.buffer.poll()) != null) {
+                    this.emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // the client went away; the container completes the emitter
+                remove(this);
+            } finally {
+                this.draining.set(false);
+            }
+            if (!this.closed && !this.buffer.isEmpty() && this.draining.compareAndSet(false, true)) {
+                drainExecutor.execute(this::drain);
+            }
+        }
+    }
+}
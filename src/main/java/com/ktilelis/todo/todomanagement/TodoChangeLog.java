@@ -0,0 +1,172 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktilelis.todo.todomanagement.model.TodoChangeDto;
+import com.ktilelis.todo.todomanagement.model.TodoChangeType;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The {@code TODO_CHANGES} table. Changes are recorded on the caller's connection, so they commit or roll back together
+ * with the change they describe, and are queued in {@link TodoOutbox} alongside when a delivering
+ * {@link TodoOutboxSink} is configured.
+ */
+@Component
+public class TodoChangeLog {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO TODO_CHANGES (OWNER, TODO_ID, TYPE, PAYLOAD) VALUES (?, ?, ?, CAST(? AS JSONB))""";
+    // mirrors the JSON of TodoResponseDto
+    private static final String ROW_PAYLOAD = """
+            jsonb_build_object('id', ID, 'title', TITLE, 'description', DESCRIPTION, 'done', IS_DONE,
+                    'expiresAt', EXPIRES_AT, 'createdAt', CREATED_AT, 'updatedAt', UPDATED_AT, 'version', VERSION)""";
+    private static final String UPDATE_FROM_ROW_SQL = """
+            INSERT INTO TODO_CHANGES (OWNER, TODO_ID, TYPE, PAYLOAD)
+            SELECT OWNER, ID, 'UPDATED', %s
+            FROM TODO_ENTRIES
+            WHERE OWNER = ? AND ID = ?""".formatted(ROW_PAYLOAD);
+    private static final String CREATE_FROM_ROWS_SQL = """
+            INSERT INTO TODO_CHANGES (OWNER, TODO_ID, TYPE, PAYLOAD)
+            SELECT OWNER, ID, 'CREATED', %s
+            FROM TODO_ENTRIES
+            WHERE OWNER = ? AND ID = ANY (?)
+            ORDER BY ID""".formatted(ROW_PAYLOAD);
+    private static final String SELECT_SQL = "SELECT SEQ, OWNER, TODO_ID, TYPE, PAYLOAD FROM TODO_CHANGES ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String insertSql;
+    private final String updateFromRowSql;
+    private final String createFromRowsSql;
+    private final RowMapper<Row> rowMapper = (rs, rowNum) -> new Row(rs.getString("OWNER"), new TodoChangeDto(
+            rs.getLong("SEQ"),
+            TodoChangeType.valueOf(rs.getString("TYPE")),
+            rs.getLong("TODO_ID"),
+            this.readPayload(rs.getString("PAYLOAD"))));
+
+    public TodoChangeLog(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, TodoOutboxSink outboxSink) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        // without a sink that delivers somewhere, an outbox row per change (and per imported todo) buys nothing
+        var queue = outboxSink.isDelivering();
+        this.insertSql = queue ? queued(INSERT_SQL) : INSERT_SQL;
+        this.updateFromRowSql = queue ? queued(UPDATE_FROM_ROW_SQL) : UPDATE_FROM_ROW_SQL;
+        this.createFromRowsSql = queue ? queued(CREATE_FROM_ROWS_SQL) : CREATE_FROM_ROWS_SQL;
+    }
+
+    public void record(TodoChangeDto change) {
+        this.record(List.of(change));
+    }
+
+    /**
+     * Records changes of the current owner's todos; their sequences are assigned by the database.
+     */
+    public void record(List<TodoChangeDto> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        var owner = TodoOwnerContext.current();
+        this.jdbcTemplate.batchUpdate(this.insertSql, changes, changes.size(), (ps, change) -> {
+            ps.setString(1, owner);
+            ps.setLong(2, change.id());
+            ps.setString(3, change.type().name());
+            ps.setString(4, change.todo() != null ? this.writePayload(change.todo()) : null);
+        });
+    }
+
+    /**
+     * Records an update of one of the current owner's todos, taking the payload from the row as this transaction left
+     * it, so the todo does not have to be loaded after a bulk update.
+     */
+    public void recordUpdate(Long id) {
+        this.jdbcTemplate.update(this.updateFromRowSql, TodoOwnerContext.current(), id);
+    }
+
+    /**
+     * Records the creation of the current owner's todos with the given ids, taking the payloads from the rows, for
+     * todos written without Hibernate such as those loaded by {@link TodoImportService}.
+     */
+    public void recordCreated(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        this.jdbcTemplate.update(this.createFromRowsSql, ps -> {
+            ps.setString(1, TodoOwnerContext.current());
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+        });
+    }
+
+    /**
+     * The next changes of all owners in sequence order.
+     */
+    public List<Row> findAfter(long sequence, int limit) {
+        return this.jdbcTemplate.query(SELECT_SQL + "WHERE SEQ > ? ORDER BY SEQ LIMIT ?", this.rowMapper, sequence, limit);
+    }
+
+    /**
+     * One owner's changes in {@code (after, upTo]}, in sequence order.
+     */
+    public List<TodoChangeDto> findAfter(String owner, long after, long upTo, int limit) {
+        return this.jdbcTemplate.query(SELECT_SQL + "WHERE OWNER = ? AND SEQ > ? AND SEQ <= ? ORDER BY SEQ LIMIT ?", this.rowMapper,
+                owner, after, upTo, limit).stream().map(Row::change).toList();
+    }
+
+    public long latestSequence() {
+        return this.jdbcTemplate.queryForObject("SELECT COALESCE(MAX(SEQ), 0) FROM TODO_CHANGES", Long.class);
+    }
+
+    /**
+     * The lowest sequence still in the log, or {@code Long.MAX_VALUE} when it is empty.
+     */
+    public long oldestSequence() {
+        return this.jdbcTemplate.queryForObject("SELECT COALESCE(MIN(SEQ), " + Long.MAX_VALUE + ") FROM TODO_CHANGES", Long.class);
+    }
+
+    /**
+     * Ages are measured on the database clock, which also stamped the changes.
+     */
+    public int deleteOlderThan(Duration age) {
+        return this.jdbcTemplate.update("DELETE FROM TODO_CHANGES WHERE CHANGED_AT < LOCALTIMESTAMP - make_interval(secs => ?)", age.toSeconds());
+    }
+
+    /**
+     * Queues the changes an insert into {@code TODO_CHANGES} records in the outbox, in the same statement.
+     */
+    private static String queued(String insert) {
+        return """
+                WITH CHANGE AS (
+                %s
+                RETURNING SEQ, OWNER, TODO_ID, TYPE, PAYLOAD)
+                INSERT INTO TODO_OUTBOX (SEQ, OWNER, TODO_ID, TYPE, PAYLOAD)
+                SELECT SEQ, OWNER, TODO_ID, TYPE, PAYLOAD FROM CHANGE""".formatted(insert);
+    }
+
+    private String writePayload(TodoResponseDto todo) {
+        try {
+            return this.objectMapper.writeValueAsString(todo);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private TodoResponseDto readPayload(String payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return this.objectMapper.readValue(payload, TodoResponseDto.class);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public record Row(String owner, TodoChangeDto change) {
+    }
+}
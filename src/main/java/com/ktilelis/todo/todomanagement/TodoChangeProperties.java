@@ -0,0 +1,31 @@
+package com.ktilelis.todo.todomanagement;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param pollInterval      pause between two reads of the change log; bounds the latency of the stream
+ * @param batchSize         changes read from the log per poll
+ * @param bufferSize        events queued per subscriber before it is disconnected as too slow
+ * @param maxReplay         changes replayed to a reconnecting subscriber before it is told to reload instead
+ * @param gapTimeout        how long a missing sequence is waited for before it is taken to be rolled back
+ * @param heartbeatInterval pause between comments sent to idle subscribers to keep proxies from closing them
+ * @param timeout           lifetime of one stream; clients reconnect and resume afterwards
+ * @param retention         age after which changes are pruned from the log
+ * @param pruneInterval     pause between two prunes
+ */
+@ConfigurationProperties("todo.changes")
+public record TodoChangeProperties(
+        @DefaultValue("500ms") Duration pollInterval,
+        @DefaultValue("1000") int batchSize,
+        @DefaultValue("256") int bufferSize,
+        @DefaultValue("1000") int maxReplay,
+        @DefaultValue("5s") Duration gapTimeout,
+        @DefaultValue("15s") Duration heartbeatInterval,
+        @DefaultValue("30m") Duration timeout,
+        @DefaultValue("24h") Duration retention,
+        @DefaultValue("10m") Duration pruneInterval
+) {
+}
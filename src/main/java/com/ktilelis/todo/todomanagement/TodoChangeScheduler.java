@@ -0,0 +1,29 @@
+package com.ktilelis.todo.todomanagement;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TodoChangeScheduler {
+
+    private final TodoChangeFeed todoChangeFeed;
+
+    public TodoChangeScheduler(TodoChangeFeed todoChangeFeed) {
+        this.todoChangeFeed = todoChangeFeed;
+    }
+
+    @Scheduled(fixedDelayString = "${todo.changes.poll-interval:500ms}")
+    public void poll() {
+        this.todoChangeFeed.poll();
+    }
+
+    @Scheduled(initialDelayString = "${todo.changes.heartbeat-interval:15s}", fixedDelayString = "${todo.changes.heartbeat-interval:15s}")
+    public void sendHeartbeats() {
+        this.todoChangeFeed.sendHeartbeats();
+    }
+
+    @Scheduled(initialDelayString = "${todo.changes.prune-interval:10m}", fixedDelayString = "${todo.changes.prune-interval:10m}")
+    public void pruneChangeLog() {
+        this.todoChangeFeed.pruneChangeLog();
+    }
+}
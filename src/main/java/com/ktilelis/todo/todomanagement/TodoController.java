@@ -1,54 +1,156 @@
 package com.ktilelis.todo.todomanagement;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.ktilelis.todo.todomanagement.model.TodoBatchResultDto;
+import com.ktilelis.todo.todomanagement.model.TodoBatchUpdateRequestDto;
+import com.ktilelis.todo.todomanagement.model.TodoCountMode;
+import com.ktilelis.todo.todomanagement.model.TodoField;
+import com.ktilelis.todo.todomanagement.model.TodoFileFormat;
+import com.ktilelis.todo.todomanagement.model.TodoImportResultDto;
+import com.ktilelis.todo.todomanagement.model.TodoKeysetQuery;
+import com.ktilelis.todo.todomanagement.model.TodoListQuery;
 import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
 import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import com.ktilelis.todo.todomanagement.model.TodoSliceResponseDto;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PagedModel;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
 
 @RestController
-@RequestMapping("/v1/todo")
+// the unscoped routes work on the default owner's todos, see TodoOwnerInterceptor
+@RequestMapping({"/v1/todo", "/v1/owners/{owner:" + TodoOwnerContext.OWNER_PATTERN + "}/todo"})
 @Validated
 public class TodoController {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final TypeReference<TodoResponseDto> CREATED = new TypeReference<>() {
+    };
+    private static final TypeReference<List<TodoBatchResultDto>> BATCH_CREATED = new TypeReference<>() {
+    };
+
     private final TodoService todoService;
+    private final TodoExportWriter todoExportWriter;
+    private final TodoImportService todoImportService;
+    private final TodoChangeFeed todoChangeFeed;
+    private final TodoIdempotency todoIdempotency;
 
-    public TodoController(TodoService todoService) {
+    public TodoController(TodoService todoService, TodoExportWriter todoExportWriter, TodoImportService todoImportService, TodoChangeFeed todoChangeFeed,
+                          TodoIdempotency todoIdempotency) {
         this.todoService = todoService;
+        this.todoExportWriter = todoExportWriter;
+        this.todoImportService = todoImportService;
+        this.todoChangeFeed = todoChangeFeed;
+        this.todoIdempotency = todoIdempotency;
     }
 
     @GetMapping()
     public Page<TodoResponseDto> getTodos(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int pageSize,
-            @RequestParam(defaultValue = "updatedAt") String sortField,
-            @RequestParam(defaultValue = "DESC") Sort.Direction sortDirection
+            @Valid @ModelAttribute TodoListQuery query,
+            @RequestParam(defaultValue = "exact") TodoCountMode count,
+            @RequestParam(required = false) Set<TodoField> fields,
+            WebRequest request
+    ) {
+        var todos = count == TodoCountMode.ESTIMATED
+                ? this.todoService.getTodosWithEstimatedCount(query.filter(), fields, query.pageRequest())
+                : this.todoService.getTodos(query.filter(), fields, query.pageRequest());
+        if (request.checkNotModified(TodoETags.of(todos))) {
+            return null;
+        }
+        return todos;
+    }
+
+    // count=none never reaches getTodos; keyset pagination never counts, so it leaves a keyset request to getTodosKeyset
+    @GetMapping(params = {"count=none", "pagination!=keyset"})
+    public TodoSliceResponseDto getTodosWithoutCount(
+            @Valid @ModelAttribute TodoListQuery query,
+            @RequestParam(required = false) Set<TodoField> fields,
+            WebRequest request
     ) {
-        var pageInfo = PageRequest.of(page, pageSize, sortDirection, sortField);
-        return this.todoService.getTodos(pageInfo);
+        var todos = this.todoService.getTodoSlice(query.filter(), fields, query.pageRequest());
+        if (request.checkNotModified(TodoETags.of(todos))) {
+            return null;
+        }
+        return todos;
+    }
+
+    @GetMapping(params = "pagination=keyset")
+    public TodoSliceResponseDto getTodosKeyset(
+            @Valid @ModelAttribute TodoKeysetQuery query,
+            @RequestParam(required = false) Set<TodoField> fields
+    ) {
+        // the keyset queries read whole rows; fields only narrows the response
+        return this.todoService.getTodosAfter(query.filter(), query.after(), query.pageSize(), query.sortDirection());
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTodos(@RequestParam(defaultValue = "NDJSON") TodoFileFormat format) {
+        var contentDisposition = ContentDisposition.attachment().filename("todos." + format.getFileExtension()).build();
+        // the body is written on an async thread, which does not carry the request's owner binding
+        var owner = TodoOwnerContext.current();
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
+                .body(outputStream -> this.todoExportWriter.write(owner, format, outputStream));
     }
 
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public TodoImportResultDto importTodos(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) throws IOException {
+        return this.todoImportService.importTodos(TodoFileFormat.fromMediaType(contentType), body);
+    }
+
+    /**
+     * Streams creates, updates and deletes of the owner's todos. Reconnecting with {@code Last-Event-ID} resumes after
+     * that event; a {@code reset} event asks the client to reload the list instead.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return this.todoChangeFeed.subscribe(TodoOwnerContext.current(), lastEventId);
+    }
+
+    /**
+     * A single todo is served from the cache whole; {@code fields} only narrows the response.
+     */
     @GetMapping("/{id}")
-    public TodoResponseDto getTodo(@Min(0) @PathVariable Long id) {
-        return this.todoService.getTodoById(id);
+    public TodoResponseDto getTodo(@Min(0) @PathVariable Long id, @RequestParam(required = false) Set<TodoField> fields, WebRequest request) {
+        var todo = this.todoService.getTodoById(id);
+        if (request.checkNotModified(TodoETags.of(todo), TodoETags.lastModified(todo))) {
+            return null;
+        }
+        return todo;
     }
 
     @PutMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void updateTodo(@Min(0) @PathVariable Long id, @Valid @RequestBody TodoRequestDto todo) {
-        this.todoService.updateTodo(id, todo);
+    public void updateTodo(@Min(0) @PathVariable Long id,
+                           @Valid @RequestBody TodoRequestDto todo,
+                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        this.todoService.updateTodo(id, todo, TodoETags.expectedVersions(id, ifMatch));
     }
 
     @PostMapping()
     @ResponseStatus(HttpStatus.CREATED)
-    public TodoResponseDto createTodo(@Valid @RequestBody TodoRequestDto todo) {
-        return this.todoService.createTodo(todo);
+    public TodoResponseDto createTodo(@Valid @RequestBody TodoRequestDto todo,
+                                      @Size(min = 1, max = 255) @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return this.todoIdempotency.execute(idempotencyKey, todo, CREATED, () -> this.todoService.createTodo(todo));
     }
 
     @DeleteMapping("/{id}")
@@ -56,4 +158,20 @@ public class TodoController {
     public void deleteTodo(@Min(0) @PathVariable Long id) {
         this.todoService.deleteTodo(id);
     }
+
+    @PostMapping("/batch")
+    public List<TodoBatchResultDto> createTodos(@NotEmpty @Size(max = MAX_BATCH_SIZE) @RequestBody List<TodoRequestDto> todos,
+                                                @Size(min = 1, max = 255) @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return this.todoIdempotency.execute(idempotencyKey, todos, BATCH_CREATED, () -> this.todoService.createTodos(todos));
+    }
+
+    @PutMapping("/batch")
+    public List<TodoBatchResultDto> updateTodos(@NotEmpty @Size(max = MAX_BATCH_SIZE) @RequestBody List<TodoBatchUpdateRequestDto> todos) {
+        return this.todoService.updateTodos(todos);
+    }
+
+    @DeleteMapping("/batch")
+    public List<TodoBatchResultDto> deleteTodos(@NotEmpty @Size(max = MAX_BATCH_SIZE) @RequestParam List<Long> ids) {
+        return this.todoService.deleteTodos(ids);
+    }
 }
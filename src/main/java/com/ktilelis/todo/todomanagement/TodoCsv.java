@@ -0,0 +1,130 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+final class TodoCsv {
+
+    static final String EXPORT_HEADER = "id,title,description,done,expiresAt,createdAt,updatedAt";
+    static final List<String> IMPORT_HEADER = List.of("title", "description", "expiresAt");
+
+    private TodoCsv() {
+    }
+
+    static String toRow(TodoResponseDto todo) {
+        return String.join(",",
+                format(todo.id()),
+                escape(todo.title()),
+                escape(todo.description()),
+                format(todo.done()),
+                format(todo.expiresAt()),
+                format(todo.createdAt()),
+                format(todo.updatedAt()));
+    }
+
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return quote(value);
+    }
+
+    /**
+     * Quotes every non-null value so that PostgreSQL's COPY can tell an empty string from NULL.
+     */
+    static String escapeForCopy(String value) {
+        return value == null ? "" : quote(value);
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String format(Object value) {
+        return Objects.toString(value, "");
+    }
+
+    /**
+     * Reads RFC 4180 records one at a time, including quoted fields that span several lines.
+     */
+    static final class RecordReader {
+
+        private final Reader reader;
+        private long linesRead;
+        private long recordLine;
+
+        RecordReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * @return the fields of the next record, or {@code null} at the end of the input
+         */
+        List<String> next() throws IOException {
+            var fields = new ArrayList<String>();
+            var field = new StringBuilder();
+            var quoted = false;
+            var empty = true;
+            this.recordLine = this.linesRead + 1;
+
+            int c;
+            while ((c = this.reader.read()) != -1) {
+                empty = false;
+                if (quoted) {
+                    if (c != '"') {
+                        if (c == '\n') {
+                            this.linesRead++;
+                        }
+                        field.append((char) c);
+                        continue;
+                    }
+                    int next = this.reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                        continue;
+                    }
+                    quoted = false;
+                    if (next == -1) {
+                        break;
+                    }
+                    c = next;
+                }
+
+                if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    this.linesRead++;
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+
+            if (empty) {
+                return null;
+            }
+            this.linesRead++;
+            fields.add(field.toString());
+            return fields;
+        }
+
+        /**
+         * @return the line on which the record most recently returned by {@link #next()} started
+         */
+        long recordLine() {
+            return this.recordLine;
+        }
+    }
+}
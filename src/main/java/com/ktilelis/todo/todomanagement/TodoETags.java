@@ -0,0 +1,89 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.ktilelis.todo.exception.TodoPreconditionFailedException;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import com.ktilelis.todo.todomanagement.model.TodoSliceResponseDto;
+import org.springframework.data.domain.Page;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Validators for conditional requests. A todo's strong ETag is its version, which every write increments. Lists get
+ * weak ETags: they are only ever matched by {@code If-None-Match}, and Tomcat does not compress a response whose ETag
+ * is strong.
+ */
+final class TodoETags {
+
+    private static final String ANY = "*";
+
+    private TodoETags() {
+    }
+
+    static String of(TodoResponseDto todo) {
+        return quote(String.valueOf(todo.version()));
+    }
+
+    /**
+     * A page changes whenever one of its rows is updated, rows move in or out of it, or the total changes, so the
+     * ETag hashes exactly that instead of the serialized body.
+     */
+    static String of(Page<TodoResponseDto> page) {
+        var version = new StringBuilder()
+                .append(page.getNumber()).append('/')
+                .append(page.getSize()).append('/')
+                .append(page.getTotalElements());
+        for (var todo : page.getContent()) {
+            version.append('|').append(todo.id()).append(':').append(todo.version());
+        }
+        return weak(DigestUtils.md5DigestAsHex(version.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static String of(TodoSliceResponseDto slice) {
+        var version = new StringBuilder().append(slice.hasNext());
+        for (var todo : slice.content()) {
+            version.append('|').append(todo.id()).append(':').append(todo.version());
+        }
+        return weak(DigestUtils.md5DigestAsHex(version.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static long lastModified(TodoResponseDto todo) {
+        return todo.updatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Resolves an {@code If-Match} header to the versions the client accepts, or {@code null} when the update is
+     * unconditional. The update proceeds when any of them is current; weak or unknown validators can never match.
+     */
+    static Set<Long> expectedVersions(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.strip())) {
+            return null;
+        }
+        var versions = new LinkedHashSet<Long>();
+        for (var entry : ifMatch.split(",")) {
+            var etag = entry.strip();
+            if (etag.length() >= 2 && etag.charAt(0) == '"' && etag.charAt(etag.length() - 1) == '"') {
+                try {
+                    versions.add(Long.parseLong(etag.substring(1, etag.length() - 1)));
+                } catch (NumberFormatException ex) {
+                    // not one of our ETags
+                }
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new TodoPreconditionFailedException(id);
+        }
+        return versions;
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+
+    private static String weak(String value) {
+        return "W/" + quote(value);
+    }
+}
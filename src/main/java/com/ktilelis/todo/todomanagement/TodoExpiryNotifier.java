@@ -0,0 +1,55 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.MessageSource;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Locale;
+import java.util.Objects;
+
+@Component
+public class TodoExpiryNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoExpiryNotifier.class);
+
+    private final ObjectProvider<JavaMailSender> mailSender;
+    private final MessageSource messageSource;
+    private final TodoExpiryProperties properties;
+
+    public TodoExpiryNotifier(ObjectProvider<JavaMailSender> mailSender, MessageSource messageSource, TodoExpiryProperties properties) {
+        this.mailSender = mailSender;
+        this.messageSource = messageSource;
+        this.properties = properties;
+    }
+
+    /**
+     * Sends the expiry mail, or only logs it when no mail server or recipient is configured. Failures propagate, so
+     * the caller can re-arm the todo for the next run.
+     */
+    public void notifyExpired(TodoResponseDto todo) {
+        var sender = this.mailSender.getIfAvailable();
+        if (sender == null || !StringUtils.hasText(this.properties.mailTo())) {
+            logger.info("Todo {} '{}' expired at {}", todo.id(), todo.title(), todo.expiresAt());
+            return;
+        }
+
+        var message = new SimpleMailMessage();
+        if (StringUtils.hasText(this.properties.mailFrom())) {
+            message.setFrom(this.properties.mailFrom());
+        }
+        message.setTo(this.properties.mailTo());
+        message.setSubject(this.getMessage("notification.expired.subject", todo.title()));
+        message.setText(this.getMessage("notification.expired.text", todo.title(), todo.expiresAt(), Objects.toString(todo.description(), "")));
+        sender.send(message);
+    }
+
+    private String getMessage(String code, Object... args) {
+        return this.messageSource.getMessage(code, args, Locale.getDefault());
+    }
+}
@@ -0,0 +1,27 @@
+package com.ktilelis.todo.todomanagement;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled          whether this instance polls for expired todos at all
+ * @param interval         pause between two polling runs
+ * @param batchSize        todos claimed per transaction
+ * @param maxBatchesPerRun upper bound of batches per run, so one run cannot monopolise the scheduler thread
+ * @param dispatchTimeout  how long a run waits for the notifications of one batch before claiming the next
+ * @param mailFrom         sender address of notification mails
+ * @param mailTo           recipient of notification mails; notifications are only logged when unset
+ */
+@ConfigurationProperties("todo.expiry")
+public record TodoExpiryProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("30s") Duration interval,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("50") int maxBatchesPerRun,
+        @DefaultValue("30s") Duration dispatchTimeout,
+        String mailFrom,
+        String mailTo
+) {
+}
@@ -0,0 +1,21 @@
+package com.ktilelis.todo.todomanagement;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(prefix = "todo.expiry", name = "enabled", matchIfMissing = true)
+public class TodoExpiryScheduler {
+
+    private final TodoExpiryService todoExpiryService;
+
+    public TodoExpiryScheduler(TodoExpiryService todoExpiryService) {
+        this.todoExpiryService = todoExpiryService;
+    }
+
+    @Scheduled(initialDelayString = "${todo.expiry.interval:30s}", fixedDelayString = "${todo.expiry.interval:30s}")
+    public void processDueTodos() {
+        this.todoExpiryService.processDueTodos();
+    }
+}
@@ -0,0 +1,151 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.ktilelis.todo.todomanagement.model.TodoEntry;
+import com.ktilelis.todo.todomanagement.model.TodoMapper;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Claims todos whose deadline has passed and hands them to the {@link TodoExpiryNotifier}. Claiming marks a batch as
+ * notified in one short transaction using {@code FOR UPDATE SKIP LOCKED}, so any number of instances can run this
+ * concurrently without announcing a todo twice. Notifications that fail are re-armed and retried on the next run; a
+ * crash between claim and delivery loses that batch's notifications.
+ */
+@Service
+public class TodoExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoExpiryService.class);
+
+    private final TodoRepository todoRepository;
+    private final TodoMapper mapper;
+    private final TodoExpiryNotifier notifier;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor taskExecutor;
+    private final TodoExpiryProperties properties;
+
+    private final Timer lagTimer;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+    private final Counter delivered;
+    private final Counter failed;
+
+    public TodoExpiryService(TodoRepository todoRepository,
+                             TodoMapper mapper,
+                             TodoExpiryNotifier notifier,
+                             TransactionTemplate transactionTemplate,
+                             @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor taskExecutor,
+                             MeterRegistry meterRegistry,
+                             TodoExpiryProperties properties) {
+        this.todoRepository = todoRepository;
+        this.mapper = mapper;
+        this.notifier = notifier;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+        this.properties = properties;
+
+        this.lagTimer = Timer.builder("todo.expiry.lag")
+                .description("Time between a todo's deadline and its notification being dispatched")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("todo.expiry.batch.duration")
+                .description("Time to claim a batch of expired todos and dispatch its notifications")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("todo.expiry.batch.size")
+                .description("Expired todos claimed per batch")
+                .register(meterRegistry);
+        this.delivered = Counter.builder("todo.expiry.notifications").tag("outcome", "delivered").register(meterRegistry);
+        this.failed = Counter.builder("todo.expiry.notifications").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    /**
+     * Processes due todos batch by batch until none are left or {@code maxBatchesPerRun} is reached.
+     *
+     * @return the number of todos claimed by this call
+     */
+    public int processDueTodos() {
+        // due todos are claimed across all owners
+        return TodoOwnerContext.callAs(TodoOwnerContext.ROOT, this::processDueTodosOfAllOwners);
+    }
+
+    private int processDueTodosOfAllOwners() {
+        var processed = 0;
+        for (var batch = 0; batch < this.properties.maxBatchesPerRun(); batch++) {
+            var claimed = this.batchTimer.record(this::processBatch);
+            processed += claimed;
+            if (claimed < this.properties.batchSize()) {
+                break;
+            }
+        }
+        if (processed > 0) {
+            logger.info("Processed {} expired todos", processed);
+        }
+        return processed;
+    }
+
+    private int processBatch() {
+        // TIMESTAMP columns keep microseconds, so the claim marker must not carry more precision than is stored
+        var claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        var due = this.claim(claimedAt);
+        if (due.isEmpty()) {
+            return 0;
+        }
+        this.batchSize.record(due.size());
+
+        var dispatches = due.stream()
+                .map(todo -> CompletableFuture.runAsync(() -> this.notify(todo, claimedAt), this.taskExecutor))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(dispatches).get(this.properties.dispatchTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            logger.warn("Notifications for {} expired todos still pending after {}", due.size(), this.properties.dispatchTimeout());
+        } catch (ExecutionException ex) {
+            // failures are handled per todo in notify
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return due.size();
+    }
+
+    private List<TodoResponseDto> claim(LocalDateTime claimedAt) {
+        return this.transactionTemplate.execute(status -> {
+            var rows = this.todoRepository.findDueForExpiryNotification(claimedAt, this.properties.batchSize());
+            if (rows.isEmpty()) {
+                return List.of();
+            }
+            this.todoRepository.markExpiryNotified(rows.stream().map(TodoEntry::getId).toList(), claimedAt);
+            return rows.stream().map(this.mapper::toDto).toList();
+        });
+    }
+
+    private void notify(TodoResponseDto todo, LocalDateTime claimedAt) {
+        this.lagTimer.record(Duration.between(todo.expiresAt(), LocalDateTime.now()));
+        try {
+            this.notifier.notifyExpired(todo);
+            this.delivered.increment();
+        } catch (RuntimeException ex) {
+            this.failed.increment();
+            logger.warn("Expiry notification for todo {} failed, retrying on the next run", todo.id(), ex);
+            TodoOwnerContext.runAs(TodoOwnerContext.ROOT, () ->
+                    this.transactionTemplate.executeWithoutResult(status -> this.todoRepository.releaseExpiryClaim(todo.id(), claimedAt)));
+        }
+    }
+}
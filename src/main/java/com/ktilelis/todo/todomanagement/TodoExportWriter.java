@@ -0,0 +1,66 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktilelis.todo.todomanagement.model.TodoFileFormat;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+@Component
+public class TodoExportWriter {
+
+    private final TodoService todoService;
+    private final ObjectMapper objectMapper;
+
+    public TodoExportWriter(TodoService todoService, ObjectMapper objectMapper) {
+        this.todoService = todoService;
+        this.objectMapper = objectMapper;
+    }
+
+    public void write(String owner, TodoFileFormat format, OutputStream outputStream) throws IOException {
+        TodoOwnerContext.bind(owner);
+        try {
+            switch (format) {
+                case NDJSON -> this.writeNdjson(outputStream);
+                case CSV -> this.writeCsv(outputStream);
+            }
+        } finally {
+            TodoOwnerContext.clear();
+        }
+    }
+
+    private void writeNdjson(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = this.objectMapper.createGenerator(outputStream);
+        generator.setRootValueSeparator(null);
+        this.todoService.exportTodos(todo -> {
+            try {
+                generator.writeObject(todo);
+                generator.writeRaw('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        generator.flush();
+    }
+
+    private void writeCsv(OutputStream outputStream) throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(TodoCsv.EXPORT_HEADER);
+        writer.write('\n');
+        this.todoService.exportTodos(todo -> {
+            try {
+                writer.write(TodoCsv.toRow(todo));
+                writer.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        writer.flush();
+    }
+}
@@ -0,0 +1,86 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.ktilelis.todo.todomanagement.model.TodoField;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Writes only the fields a client selected with {@code fields=} of every {@link TodoResponseDto} in a response,
+ * whether the todo is returned on its own or inside a page or slice. Only applies to handlers that declare the
+ * parameter, which has then already been bound, and so validated; elsewhere, e.g. on writes that already committed,
+ * it is ignored.
+ */
+@ControllerAdvice(assignableTypes = TodoController.class)
+public class TodoFieldsResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String FIELDS_PARAMETER = "fields";
+    public static final String FILTER_ID = "todoFields";
+
+    private final Map<Method, Boolean> selectingHandlers = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType)
+                && returnType.getMethod() != null
+                && this.selectingHandlers.computeIfAbsent(returnType.getMethod(), TodoFieldsResponseBodyAdvice::declaresFields);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        var values = servletRequest.getServletRequest().getParameterValues(FIELDS_PARAMETER);
+        if (values == null) {
+            return body;
+        }
+        var properties = Arrays.stream(values)
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::strip)
+                .filter(property -> !property.isEmpty())
+                .map(property -> TodoField.fromProperty(property).getProperty())
+                .collect(Collectors.toSet());
+        if (properties.isEmpty()) {
+            return body;
+        }
+        var container = body instanceof MappingJacksonValue value ? value : new MappingJacksonValue(body);
+        container.setFilters(new SimpleFilterProvider()
+                .addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(properties))
+                .setFailOnUnknownId(false));
+        return container;
+    }
+
+    private static boolean declaresFields(Method handler) {
+        return Arrays.stream(handler.getParameters())
+                .anyMatch(parameter -> parameter.isAnnotationPresent(RequestParam.class) && FIELDS_PARAMETER.equals(parameter.getName()));
+    }
+
+    /**
+     * Mixed into {@link TodoResponseDto} on the application's object mapper; where no filter is registered for a
+     * write, all fields are written.
+     */
+    @JsonFilter(FILTER_ID)
+    public interface FilteredTodo {
+    }
+}
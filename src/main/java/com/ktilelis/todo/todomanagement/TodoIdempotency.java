@@ -0,0 +1,152 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ktilelis.todo.exception.TodoIdempotencyKeyReusedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Executes writes sent with an {@code Idempotency-Key} at most once per owner and key. The key is claimed in the
+ * {@code TODO_IDEMPOTENCY_KEYS} table in the transaction of the write and the response stored next to it, so both
+ * commit or roll back together. A concurrent duplicate blocks on the claim until the first one finished and then
+ * answers with its response; responses of recent keys are kept in memory in front of the table.
+ */
+@Component
+public class TodoIdempotency {
+
+    // an expired key is claimed afresh; a live one, committed or still being written, is left alone
+    private static final String CLAIM_SQL = """
+            INSERT INTO TODO_IDEMPOTENCY_KEYS (OWNER, IDEMPOTENCY_KEY, REQUEST_HASH, EXPIRES_AT)
+            VALUES (?, ?, ?, LOCALTIMESTAMP + make_interval(secs => ?))
+            ON CONFLICT (OWNER, IDEMPOTENCY_KEY) DO UPDATE
+                SET REQUEST_HASH = EXCLUDED.REQUEST_HASH, RESPONSE = NULL, CREATED_AT = LOCALTIMESTAMP, EXPIRES_AT = EXCLUDED.EXPIRES_AT
+                WHERE TODO_IDEMPOTENCY_KEYS.EXPIRES_AT <= LOCALTIMESTAMP""";
+    private static final String COMPLETE_SQL = """
+            UPDATE TODO_IDEMPOTENCY_KEYS SET RESPONSE = CAST(? AS JSONB) WHERE OWNER = ? AND IDEMPOTENCY_KEY = ?""";
+    private static final String SELECT_SQL = """
+            SELECT REQUEST_HASH, RESPONSE FROM TODO_IDEMPOTENCY_KEYS WHERE OWNER = ? AND IDEMPOTENCY_KEY = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TodoIdempotencyProperties properties;
+    // filled only once the write commits, so a rolled back write is never replayed
+    private final Cache responses;
+
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter cached;
+
+    public TodoIdempotency(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                           TodoIdempotencyProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        var cacheTtl = properties.cacheTtl().compareTo(properties.ttl()) < 0 ? properties.cacheTtl() : properties.ttl();
+        this.responses = new TransactionAwareCacheDecorator(new CaffeineCache("idempotency", Caffeine.newBuilder()
+                .maximumSize(properties.cacheSize())
+                .expireAfterWrite(cacheTtl)
+                .build(), false));
+
+        this.executed = Counter.builder("todo.idempotency.requests").tag("outcome", "executed").register(meterRegistry);
+        this.replayed = Counter.builder("todo.idempotency.requests").tag("outcome", "replayed").register(meterRegistry);
+        this.cached = Counter.builder("todo.idempotency.requests").tag("outcome", "cached").register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code write} unless the current owner already sent {@code request} with {@code key}, in which case the
+     * response of that first execution is returned. Without a key, {@code write} just runs.
+     *
+     * @throws TodoIdempotencyKeyReusedException when the key was first used with a different request
+     */
+    @Transactional
+    public <T> T execute(String key, Object request, TypeReference<T> responseType, Supplier<T> write) {
+        if (key == null) {
+            return write.get();
+        }
+        var owner = TodoOwnerContext.current();
+        var requestHash = this.hash(request);
+        var cacheKey = owner + ":" + key;
+
+        var stored = this.responses.get(cacheKey, Stored.class);
+        if (stored != null) {
+            this.cached.increment();
+            return stored.responseFor(key, requestHash);
+        }
+
+        if (this.jdbcTemplate.update(CLAIM_SQL, owner, key, requestHash, this.properties.ttl().toSeconds()) == 1) {
+            var response = write.get();
+            this.jdbcTemplate.update(COMPLETE_SQL, this.write(response), owner, key);
+            this.responses.put(cacheKey, new Stored(requestHash, response));
+            this.executed.increment();
+            return response;
+        }
+
+        // the claim returns only once a concurrent first execution committed, so its response is there
+        stored = this.jdbcTemplate.queryForObject(SELECT_SQL, (rs, rowNum) -> new Stored(rs.getString("REQUEST_HASH"),
+                this.read(rs.getString("RESPONSE"), responseType)), owner, key);
+        this.responses.put(cacheKey, stored);
+        this.replayed.increment();
+        return stored.responseFor(key, requestHash);
+    }
+
+    /**
+     * Ages are measured on the database clock, which also stamped the keys.
+     */
+    public int deleteExpired() {
+        return this.jdbcTemplate.update("DELETE FROM TODO_IDEMPOTENCY_KEYS WHERE EXPIRES_AT <= LOCALTIMESTAMP");
+    }
+
+    private String hash(Object request) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(this.objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return this.objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private <T> T read(String response, TypeReference<T> responseType) {
+        try {
+            return this.objectMapper.readValue(response, responseType);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private record Stored(String requestHash, Object response) {
+
+        @SuppressWarnings("unchecked")
+        <T> T responseFor(String key, String requestHash) {
+            if (!this.requestHash.equals(requestHash)) {
+                throw new TodoIdempotencyKeyReusedException(key);
+            }
+            return (T) this.response;
+        }
+    }
+}
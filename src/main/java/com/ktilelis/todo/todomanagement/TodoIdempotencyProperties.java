@@ -0,0 +1,21 @@
+package com.ktilelis.todo.todomanagement;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param ttl           how long a key is remembered; a retry after that is executed again
+ * @param pruneInterval pause between two deletions of expired keys
+ * @param cacheSize     keys whose responses are kept in memory in front of the table
+ * @param cacheTtl      how long a response is kept in memory, at most {@code ttl}
+ */
+@ConfigurationProperties("todo.idempotency")
+public record TodoIdempotencyProperties(
+        @DefaultValue("24h") Duration ttl,
+        @DefaultValue("10m") Duration pruneInterval,
+        @DefaultValue("10000") long cacheSize,
+        @DefaultValue("1m") Duration cacheTtl
+) {
+}
@@ -0,0 +1,19 @@
+package com.ktilelis.todo.todomanagement;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TodoIdempotencyScheduler {
+
+    private final TodoIdempotency todoIdempotency;
+
+    public TodoIdempotencyScheduler(TodoIdempotency todoIdempotency) {
+        this.todoIdempotency = todoIdempotency;
+    }
+
+    @Scheduled(initialDelayString = "${todo.idempotency.prune-interval:10m}", fixedDelayString = "${todo.idempotency.prune-interval:10m}")
+    public void pruneExpiredKeys() {
+        this.todoIdempotency.deleteExpired();
+    }
+}
@@ -0,0 +1,213 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktilelis.todo.exception.ValidationError;
+import com.ktilelis.todo.todomanagement.model.TodoEntry;
+import com.ktilelis.todo.todomanagement.model.TodoFileFormat;
+import com.ktilelis.todo.todomanagement.model.TodoImportRejectionDto;
+import com.ktilelis.todo.todomanagement.model.TodoImportResultDto;
+import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
+import jakarta.validation.Validator;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.MessageSource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Loads large amounts of todos through PostgreSQL's {@code COPY FROM STDIN}. The input is parsed and validated
+ * line by line and written in chunks, each chunk committing on its own, so memory use does not depend on the
+ * size of the upload. A chunk's todos are recorded in {@link TodoChangeLog}, and queued in {@link TodoOutbox} when a
+ * sink is configured, in the same transaction as the {@code COPY}.
+ */
+@Service
+public class TodoImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoImportService.class);
+
+    private static final int CHUNK_SIZE = 5_000;
+    private static final int MAX_REPORTED_REJECTIONS = 100;
+    private static final String COPY_SQL = "COPY TODO_ENTRIES (ID, OWNER, TITLE, DESCRIPTION, EXPIRES_AT) FROM STDIN WITH (FORMAT csv)";
+    private static final String ALLOCATE_IDS_SQL = "SELECT nextval('" + TodoEntry.ID_SEQUENCE + "') FROM generate_series(1, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TodoChangeLog changeLog;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final MessageSource messageSource;
+
+    public TodoImportService(JdbcTemplate jdbcTemplate, TodoChangeLog changeLog, TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper, Validator validator, MessageSource messageSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeLog = changeLog;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.messageSource = messageSource;
+    }
+
+    public TodoImportResultDto importTodos(TodoFileFormat format, InputStream inputStream) throws IOException {
+        var started = System.nanoTime();
+        var run = new ImportRun();
+        var reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        switch (format) {
+            case NDJSON -> this.readNdjson(reader, run);
+            case CSV -> this.readCsv(reader, run);
+        }
+        run.flush();
+
+        var durationMillis = (System.nanoTime() - started) / 1_000_000;
+        var rowsPerSecond = durationMillis == 0 ? run.imported : run.imported * 1000.0 / durationMillis;
+        logger.info("Imported {} todos ({} rejected) in {} ms", run.imported, run.rejected, durationMillis);
+        return new TodoImportResultDto(run.imported, run.rejected, run.rejections, durationMillis, rowsPerSecond);
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                run.accept(lineNumber, this.objectMapper.readValue(line, TodoRequestDto.class));
+            } catch (JsonProcessingException ex) {
+                run.reject(lineNumber, this.getMessage("exception.import_malformed_line"), null);
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        var records = new TodoCsv.RecordReader(reader);
+        List<String> fields;
+        while ((fields = records.next()) != null) {
+            var lineNumber = records.recordLine();
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            if (lineNumber == 1 && fields.stream().map(String::trim).toList().equals(TodoCsv.IMPORT_HEADER)) {
+                continue;
+            }
+            if (fields.size() > TodoCsv.IMPORT_HEADER.size()) {
+                run.reject(lineNumber, this.getMessage("exception.import_malformed_line"), null);
+                continue;
+            }
+            try {
+                var title = fields.get(0);
+                var description = fields.size() > 1 && !fields.get(1).isEmpty() ? fields.get(1) : null;
+                var expiresAt = fields.size() > 2 && !fields.get(2).isBlank() ? LocalDateTime.parse(fields.get(2).trim()) : null;
+                run.accept(lineNumber, new TodoRequestDto(title, description, expiresAt, null));
+            } catch (DateTimeParseException ex) {
+                run.reject(lineNumber, this.getMessage("exception.import_malformed_line"), List.of(new ValidationError("expiresAt", ex.getMessage())));
+            }
+        }
+    }
+
+    private void copy(List<TodoRequestDto> chunk) {
+        var ids = this.allocateIds(chunk.size());
+        // COPY bypasses Hibernate, which would otherwise fill in the owner
+        var owner = TodoCsv.escapeForCopy(TodoOwnerContext.current());
+        var csv = new StringBuilder(chunk.size() * 128);
+        for (int i = 0; i < chunk.size(); i++) {
+            var todo = chunk.get(i);
+            csv.append(ids.get(i)).append(',')
+                    .append(owner).append(',')
+                    .append(TodoCsv.escapeForCopy(todo.title())).append(',')
+                    .append(TodoCsv.escapeForCopy(todo.description())).append(',')
+                    .append(todo.expiresAt() == null ? "" : todo.expiresAt().toString())
+                    .append('\n');
+        }
+
+        this.transactionTemplate.executeWithoutResult(status -> {
+            this.jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                try {
+                    return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL, new StringReader(csv.toString()));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            this.changeLog.recordCreated(ids);
+        });
+    }
+
+    /**
+     * Takes ids from the same sequence and in the same blocks as Hibernate's pooled optimizer, so imported rows
+     * never collide with ids the application has already reserved and consume one sequence call per block.
+     */
+    private List<Long> allocateIds(int count) {
+        var ids = new ArrayList<Long>(count);
+        while (ids.size() < count) {
+            var blocks = (count - ids.size() + TodoEntry.ID_ALLOCATION_SIZE - 1) / TodoEntry.ID_ALLOCATION_SIZE;
+            for (Long hi : this.jdbcTemplate.queryForList(ALLOCATE_IDS_SQL, Long.class, blocks)) {
+                for (long id = Math.max(1, hi - TodoEntry.ID_ALLOCATION_SIZE + 1); id <= hi && ids.size() < count; id++) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private String getMessage(String code, Object... args) {
+        return this.messageSource.getMessage(code, args, Locale.getDefault());
+    }
+
+    private final class ImportRun {
+        private final List<TodoRequestDto> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final List<TodoImportRejectionDto> rejections = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        void accept(long lineNumber, TodoRequestDto todo) {
+            if (todo == null) {
+                this.reject(lineNumber, getMessage("exception.import_malformed_line"), null);
+                return;
+            }
+            var validationErrors = validator.validate(todo).stream()
+                    .map(violation -> new ValidationError(violation.getPropertyPath().toString(), violation.getMessage()))
+                    .toList();
+            if (!validationErrors.isEmpty()) {
+                this.reject(lineNumber, getMessage("exception.validation_error"), validationErrors);
+                return;
+            }
+            this.chunk.add(todo);
+            if (this.chunk.size() == CHUNK_SIZE) {
+                this.flush();
+            }
+        }
+
+        void reject(long lineNumber, String message, List<ValidationError> validationErrors) {
+            this.rejected++;
+            if (this.rejections.size() < MAX_REPORTED_REJECTIONS) {
+                this.rejections.add(new TodoImportRejectionDto(lineNumber, message, validationErrors));
+            }
+        }
+
+        void flush() {
+            if (this.chunk.isEmpty()) {
+                return;
+            }
+            copy(this.chunk);
+            this.imported += this.chunk.size();
+            this.chunk.clear();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktilelis.todo.todomanagement.model.TodoChangeDto;
+import com.ktilelis.todo.todomanagement.model.TodoChangeType;
+import com.ktilelis.todo.todomanagement.model.TodoOutboxEvent;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The {@code TODO_OUTBOX} table; {@link TodoChangeLog} fills it. The relay's side of it: claiming, completing and
+ * rescheduling events.
+ */
+@Component
+public class TodoOutbox {
+
+    // only the oldest pending event of a todo can be claimed on its own; locked ones belong to another relay
+    private static final String CLAIM_HEADS_SQL = """
+            SELECT SEQ FROM TODO_OUTBOX o
+            WHERE NEXT_ATTEMPT_AT <= LOCALTIMESTAMP
+              AND NOT EXISTS (SELECT 1 FROM TODO_OUTBOX e WHERE e.OWNER = o.OWNER AND e.TODO_ID = o.TODO_ID AND e.SEQ < o.SEQ)
+            ORDER BY SEQ
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED""";
+    // holding the oldest event of a todo, the relay may take the ones after it as well
+    private static final String LEASE_SQL = """
+            WITH CLAIMED AS (
+                SELECT o.SEQ FROM TODO_OUTBOX o
+                JOIN TODO_OUTBOX h ON h.OWNER = o.OWNER AND h.TODO_ID = o.TODO_ID AND o.SEQ >= h.SEQ
+                WHERE h.SEQ = ANY (?)
+                ORDER BY o.SEQ
+                LIMIT ?)
+            UPDATE TODO_OUTBOX o SET NEXT_ATTEMPT_AT = LOCALTIMESTAMP + make_interval(secs => ?)
+            FROM CLAIMED c
+            WHERE o.SEQ = c.SEQ
+            RETURNING o.SEQ, o.OWNER, o.TODO_ID, o.TYPE, o.PAYLOAD, o.CREATED_AT, o.ATTEMPTS""";
+    private static final String RETRY_SQL = """
+            UPDATE TODO_OUTBOX SET ATTEMPTS = ATTEMPTS + 1, NEXT_ATTEMPT_AT = LOCALTIMESTAMP + make_interval(secs => ?), LAST_ERROR = ?
+            WHERE SEQ = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final RowMapper<TodoOutboxEvent> rowMapper = (rs, rowNum) -> new TodoOutboxEvent(
+            rs.getString("OWNER"),
+            new TodoChangeDto(rs.getLong("SEQ"), TodoChangeType.valueOf(rs.getString("TYPE")), rs.getLong("TODO_ID"),
+                    this.readPayload(rs.getString("PAYLOAD"))),
+            rs.getTimestamp("CREATED_AT").toLocalDateTime(),
+            rs.getInt("ATTEMPTS"));
+
+    public TodoOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Claims up to {@code limit} due events for {@code lease}, in sequence order. For every todo the claimed events
+     * start at its oldest pending one and have no gaps. Must run in a transaction.
+     */
+    public List<TodoOutboxEvent> claim(int limit, Duration lease) {
+        var heads = this.jdbcTemplate.queryForList(CLAIM_HEADS_SQL, Long.class, limit);
+        if (heads.isEmpty()) {
+            return List.of();
+        }
+        return this.jdbcTemplate.query(LEASE_SQL, this.rowMapper, heads.toArray(Long[]::new), limit, seconds(lease)).stream()
+                .sorted(Comparator.comparingLong(event -> event.change().sequence()))
+                .toList();
+    }
+
+    public void delete(List<Long> sequences) {
+        if (!sequences.isEmpty()) {
+            this.jdbcTemplate.update("DELETE FROM TODO_OUTBOX WHERE SEQ = ANY (?)", (Object) sequences.toArray(Long[]::new));
+        }
+    }
+
+    public void retryLater(long sequence, Duration backoff, String error) {
+        this.jdbcTemplate.update(RETRY_SQL, seconds(backoff), error, sequence);
+    }
+
+    public long pending() {
+        return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TODO_OUTBOX", Long.class);
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+
+    private TodoResponseDto readPayload(String payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return this.objectMapper.readValue(payload, TodoResponseDto.class);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
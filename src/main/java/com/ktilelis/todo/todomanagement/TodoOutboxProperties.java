@@ -0,0 +1,32 @@
+package com.ktilelis.todo.todomanagement;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * @param enabled          whether this instance relays the outbox at all
+ * @param interval         pause between two relay runs
+ * @param batchSize        events claimed per transaction
+ * @param maxBatchesPerRun upper bound of batches per run, so one run cannot monopolise the scheduler thread
+ * @param lease            how long claimed events are hidden from other relays; a batch still being delivered after
+ *                         that may be delivered twice
+ * @param initialBackoff   pause before the first retry of a failed event; doubles with every further failure
+ * @param maxBackoff       upper bound of the pause between retries
+ * @param file             file the events are appended to as NDJSON; when unset no sink is configured and changes
+ *                         are not queued
+ */
+@ConfigurationProperties("todo.outbox")
+public record TodoOutboxProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1s") Duration interval,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("50") int maxBatchesPerRun,
+        @DefaultValue("1m") Duration lease,
+        @DefaultValue("1s") Duration initialBackoff,
+        @DefaultValue("5m") Duration maxBackoff,
+        Path file
+) {
+}
@@ -0,0 +1,137 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.ktilelis.todo.todomanagement.model.TodoOutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Drains the outbox into the {@link TodoOutboxSink}. A batch is claimed in one short transaction with
+ * {@code FOR UPDATE SKIP LOCKED} and leased, so any number of instances can relay concurrently; events are delivered
+ * outside the transaction and deleted once the sink accepted them.
+ * <p>
+ * Events of one todo are delivered in sequence order: a relay only claims a todo's events starting at its oldest
+ * pending one, and when one of them fails, the rest of that todo's batch waits for its retry. Delivery is at least
+ * once: a relay that dies, or takes longer than the lease, leaves its batch to be delivered again.
+ */
+@Service
+public class TodoOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoOutboxRelay.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final TodoOutbox outbox;
+    private final TodoOutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final TodoOutboxProperties properties;
+
+    private final Timer lagTimer;
+    private final DistributionSummary batchSize;
+    private final Counter delivered;
+    private final Counter failed;
+
+    public TodoOutboxRelay(TodoOutbox outbox,
+                           TodoOutboxSink sink,
+                           TransactionTemplate transactionTemplate,
+                           MeterRegistry meterRegistry,
+                           TodoOutboxProperties properties) {
+        this.outbox = outbox;
+        this.sink = sink;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+
+        Gauge.builder("todo.outbox.pending", outbox, TodoOutbox::pending)
+                .description("Events in the outbox that were not delivered yet")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("todo.outbox.lag")
+                .description("Time between a change and its delivery to the sink")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("todo.outbox.batch.size")
+                .description("Events claimed per batch")
+                .register(meterRegistry);
+        this.delivered = Counter.builder("todo.outbox.events").tag("outcome", "delivered").register(meterRegistry);
+        this.failed = Counter.builder("todo.outbox.events").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    /**
+     * Relays batch by batch until no full batch is left or {@code maxBatchesPerRun} is reached.
+     *
+     * @return the number of events delivered by this call
+     */
+    public int relay() {
+        var relayed = 0;
+        for (var batch = 0; batch < this.properties.maxBatchesPerRun(); batch++) {
+            var events = this.transactionTemplate.execute(status -> this.outbox.claim(this.properties.batchSize(), this.properties.lease()));
+            if (events.isEmpty()) {
+                break;
+            }
+            this.batchSize.record(events.size());
+            relayed += this.deliver(events);
+            if (events.size() < this.properties.batchSize()) {
+                break;
+            }
+        }
+        return relayed;
+    }
+
+    private int deliver(List<TodoOutboxEvent> events) {
+        var sent = new ArrayList<Long>();
+        var blocked = new HashSet<TodoKey>();
+        var failures = new ArrayList<Failure>();
+        for (var event : events) {
+            var todo = new TodoKey(event.owner(), event.change().id());
+            if (blocked.contains(todo)) {
+                continue;
+            }
+            try {
+                this.sink.send(event);
+                sent.add(event.change().sequence());
+                this.delivered.increment();
+                this.lagTimer.record(Duration.between(event.queuedAt(), LocalDateTime.now()));
+            } catch (RuntimeException ex) {
+                this.failed.increment();
+                blocked.add(todo);
+                failures.add(new Failure(event, ex));
+                logger.warn("Delivering change {} of todo {} failed (attempt {}), retrying later",
+                        event.change().sequence(), event.change().id(), event.attempts() + 1, ex);
+            }
+        }
+        this.transactionTemplate.executeWithoutResult(status -> {
+            this.outbox.delete(sent);
+            failures.forEach(failure -> this.outbox.retryLater(failure.event().change().sequence(),
+                    this.backoff(failure.event().attempts()), abbreviate(String.valueOf(failure.error()))));
+        });
+        return sent.size();
+    }
+
+    /**
+     * The pause after the {@code attempts + 1}th failure: the initial backoff, doubled for every earlier one.
+     */
+    private Duration backoff(int attempts) {
+        var backoff = this.properties.initialBackoff().multipliedBy(1L << Math.min(attempts, 20));
+        return backoff.compareTo(this.properties.maxBackoff()) > 0 ? this.properties.maxBackoff() : backoff;
+    }
+
+    private static String abbreviate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private record TodoKey(String owner, Long id) {
+    }
+
+    private record Failure(TodoOutboxEvent event, RuntimeException error) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.ktilelis.todo.todomanagement;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(prefix = "todo.outbox", name = "enabled", matchIfMissing = true)
+public class TodoOutboxScheduler {
+
+    private final TodoOutboxRelay todoOutboxRelay;
+
+    public TodoOutboxScheduler(TodoOutboxRelay todoOutboxRelay) {
+        this.todoOutboxRelay = todoOutboxRelay;
+    }
+
+    @Scheduled(initialDelayString = "${todo.outbox.interval:1s}", fixedDelayString = "${todo.outbox.interval:1s}")
+    public void relay() {
+        this.todoOutboxRelay.relay();
+    }
+}
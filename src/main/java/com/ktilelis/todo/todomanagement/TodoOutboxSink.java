@@ -0,0 +1,20 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.ktilelis.todo.todomanagement.model.TodoOutboxEvent;
+
+/**
+ * Where {@link TodoOutboxRelay} delivers changes to. Implementations throw when an event was not accepted; it is then
+ * retried with backoff, and later events of the same todo wait for it.
+ */
+@FunctionalInterface
+public interface TodoOutboxSink {
+
+    void send(TodoOutboxEvent event);
+
+    /**
+     * Whether events reach a consumer. When they do not, {@link TodoChangeLog} does not queue them at all.
+     */
+    default boolean isDelivering() {
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ktilelis.todo.todomanagement;
+
+import java.util.function.Supplier;
+
+/**
+ * The owner whose todos the current thread works on. Requests to {@code /v1/owners/{owner}/todo} bind it for their
+ * duration; everything else, including the unscoped {@code /v1/todo} routes, works on {@link #DEFAULT_OWNER}'s todos.
+ * <p>
+ * Hibernate reads it as the tenant of every session it opens, which scopes all entity queries and sets the owner of
+ * new rows. Native queries have to pass {@link #current()} themselves.
+ */
+public final class TodoOwnerContext {
+
+    public static final String DEFAULT_OWNER = "default";
+    public static final String OWNER_PATTERN = "[A-Za-z0-9_-]{1,64}";
+
+    // cannot match OWNER_PATTERN; sessions opened as root see every owner's rows
+    public static final String ROOT = "*";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TodoOwnerContext() {
+    }
+
+    public static String current() {
+        var owner = CURRENT.get();
+        return owner != null ? owner : DEFAULT_OWNER;
+    }
+
+    public static void bind(String owner) {
+        CURRENT.set(owner);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Runs {@code action} on behalf of {@code owner} and restores the previous binding afterwards.
+     */
+    public static <T> T callAs(String owner, Supplier<T> action) {
+        var previous = CURRENT.get();
+        CURRENT.set(owner);
+        try {
+            return action.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static void runAs(String owner, Runnable action) {
+        callAs(owner, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Ids are unique across owners, but the cache must not answer one owner's lookup with another owner's todo.
+     */
+    public static String cacheKey(Long id) {
+        return current() + ':' + id;
+    }
+}
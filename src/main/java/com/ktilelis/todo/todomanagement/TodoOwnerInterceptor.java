@@ -0,0 +1,36 @@
+package com.ktilelis.todo.todomanagement;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Binds the {@code {owner}} path variable of the owner-scoped routes to {@link TodoOwnerContext} while the handler
+ * runs.
+ */
+public class TodoOwnerInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String OWNER_VARIABLE = "owner";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        @SuppressWarnings("unchecked")
+        var variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        var owner = variables != null ? variables.get(OWNER_VARIABLE) : null;
+        TodoOwnerContext.bind(owner != null ? owner : TodoOwnerContext.DEFAULT_OWNER);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        TodoOwnerContext.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        TodoOwnerContext.clear();
+    }
+}
@@ -0,0 +1,20 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.ktilelis.todo.todomanagement.model.TodoEntry;
+import com.ktilelis.todo.todomanagement.model.TodoField;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Set;
+
+public interface TodoProjectionRepository {
+
+    /**
+     * Selects the matching rows straight into {@link TodoResponseDto}s, without loading entities into the persistence
+     * context. Only the columns of {@code fields} and {@link TodoField#ALWAYS_READ} are read; the other components are
+     * {@code null}.
+     */
+    List<TodoResponseDto> findProjected(Specification<TodoEntry> spec, Set<TodoField> fields, Sort sort, long offset, int limit);
+}
@@ -0,0 +1,52 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.ktilelis.todo.todomanagement.model.TodoEntry;
+import com.ktilelis.todo.todomanagement.model.TodoField;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+import java.util.Set;
+
+class TodoProjectionRepositoryImpl implements TodoProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    TodoProjectionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<TodoResponseDto> findProjected(Specification<TodoEntry> spec, Set<TodoField> fields, Sort sort, long offset, int limit) {
+        var cb = this.entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(TodoResponseDto.class);
+        var root = query.from(TodoEntry.class);
+        query.select(cb.construct(TodoResponseDto.class, selections(cb, root, fields)));
+        var predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return this.entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static Selection<?>[] selections(CriteriaBuilder cb, Root<TodoEntry> root, Set<TodoField> fields) {
+        var values = TodoField.values();
+        var selections = new Selection<?>[values.length];
+        for (int i = 0; i < values.length; i++) {
+            var path = root.get(values[i].getAttribute());
+            var read = fields.contains(values[i]) || TodoField.ALWAYS_READ.contains(values[i]);
+            selections[i] = read ? path : cb.nullLiteral(path.getJavaType());
+        }
+        return selections;
+    }
+}
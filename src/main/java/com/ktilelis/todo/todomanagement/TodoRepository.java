@@ -1,9 +1,108 @@
 package com.ktilelis.todo.todomanagement;
 
 import com.ktilelis.todo.todomanagement.model.TodoEntry;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface TodoRepository extends JpaRepository<TodoEntry, Long> {
+public interface TodoRepository extends JpaRepository<TodoEntry, Long>, JpaSpecificationExecutor<TodoEntry>, TodoProjectionRepository {
+
+    @Query(value = "SELECT * FROM TODO_ENTRIES WHERE OWNER = :owner ORDER BY UPDATED_AT DESC, ID DESC LIMIT :limit", nativeQuery = true)
+    List<TodoEntry> findFirstKeysetPageDesc(@Param("owner") String owner, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM TODO_ENTRIES WHERE OWNER = :owner AND (UPDATED_AT, ID) < (:updatedAt, :id) ORDER BY UPDATED_AT DESC, ID DESC LIMIT :limit", nativeQuery = true)
+    List<TodoEntry> findKeysetPageDesc(@Param("owner") String owner, @Param("updatedAt") LocalDateTime updatedAt, @Param("id") Long id, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM TODO_ENTRIES WHERE OWNER = :owner ORDER BY UPDATED_AT ASC, ID ASC LIMIT :limit", nativeQuery = true)
+    List<TodoEntry> findFirstKeysetPageAsc(@Param("owner") String owner, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM TODO_ENTRIES WHERE OWNER = :owner AND (UPDATED_AT, ID) > (:updatedAt, :id) ORDER BY UPDATED_AT ASC, ID ASC LIMIT :limit", nativeQuery = true)
+    List<TodoEntry> findKeysetPageAsc(@Param("owner") String owner, @Param("updatedAt") LocalDateTime updatedAt, @Param("id") Long id, @Param("limit") int limit);
+
+    /**
+     * The planner's estimate of the owner's rows: the row count of the owner's partition times the owner's share of it
+     * in the column statistics, both kept current by autovacuum's ANALYZE. {@code -1} when the statistics do not single
+     * the owner out, which leaves owners too small to matter to an exact count.
+     */
+    @Query(value = """
+            SELECT COALESCE((
+                SELECT CAST(c.reltuples * f.freq AS BIGINT)
+                FROM pg_class c
+                JOIN pg_namespace n ON n.oid = c.relnamespace
+                JOIN pg_stats s ON s.schemaname = n.nspname AND s.tablename = c.relname AND s.attname = 'owner' AND NOT s.inherited
+                CROSS JOIN LATERAL unnest(CAST(CAST(s.most_common_vals AS TEXT) AS TEXT[]), s.most_common_freqs) AS f(val, freq)
+                WHERE c.oid = (SELECT tableoid FROM TODO_ENTRIES WHERE OWNER = :owner LIMIT 1) AND f.val = :owner
+            ), -1)""", nativeQuery = true)
+    long estimateRowCount(@Param("owner") String owner);
+
+    @Query("select new com.ktilelis.todo.todomanagement.model.TodoResponseDto(t.id, t.title, t.description, t.isDone, t.expiresAt, t.createdAt, t.updatedAt, t.version) from TodoEntry t where t.id = :id")
+    Optional<TodoResponseDto> findDtoById(@Param("id") Long id);
+
+    @Query("select t.id from TodoEntry t where t.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select t.version from TodoEntry t where t.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update TodoEntry t set t.title = :title, t.description = :description, t.expiresAt = :expiresAt, t.updatedAt = :updatedAt,
+                t.expiryNotifiedAt = case when t.expiresAt = :expiresAt then t.expiryNotifiedAt else null end,
+                t.version = t.version + 1
+            where t.id = :id and t.version = coalesce(:expectedVersion, t.version)""")
+    int updateTodo(@Param("id") Long id,
+                   @Param("title") String title,
+                   @Param("description") String description,
+                   @Param("expiresAt") LocalDateTime expiresAt,
+                   @Param("updatedAt") LocalDateTime updatedAt,
+                   @Param("expectedVersion") Long expectedVersion);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from TodoEntry t where t.id = :id")
+    int deleteTodoById(@Param("id") Long id);
+
+    /**
+     * Locks the next open todos whose deadline has passed and that were not announced yet, across all owners. Rows
+     * locked by another instance are skipped rather than waited on, so concurrent callers always claim disjoint batches.
+     */
+    @Query(value = """
+            SELECT * FROM TODO_ENTRIES
+            WHERE EXPIRY_NOTIFIED_AT IS NULL AND NOT IS_DONE AND EXPIRES_AT <= :now
+            ORDER BY EXPIRES_AT, ID
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED""", nativeQuery = true)
+    List<TodoEntry> findDueForExpiryNotification(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update TodoEntry t set t.expiryNotifiedAt = :claimedAt where t.id in :ids")
+    int markExpiryNotified(@Param("ids") Collection<Long> ids, @Param("claimedAt") LocalDateTime claimedAt);
+
+    /**
+     * Re-arms a claim after a failed notification, unless the row was changed or claimed again in the meantime.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update TodoEntry t set t.expiryNotifiedAt = null where t.id = :id and t.expiryNotifiedAt = :claimedAt")
+    int releaseExpiryClaim(@Param("id") Long id, @Param("claimedAt") LocalDateTime claimedAt);
+
+    /**
+     * Streams every row straight into DTOs through a server-side cursor, so nothing accumulates in the
+     * persistence context. Must be consumed inside a transaction for the fetch size to take effect.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.ktilelis.todo.todomanagement.model.TodoResponseDto(t.id, t.title, t.description, t.isDone, t.expiresAt, t.createdAt, t.updatedAt, t.version) from TodoEntry t order by t.id")
+    Stream<TodoResponseDto> streamAllForExport();
 }
@@ -1,73 +1,364 @@
 package com.ktilelis.todo.todomanagement;
 
+import com.ktilelis.todo.exception.TodoNotFoundException;
+import com.ktilelis.todo.exception.TodoPreconditionFailedException;
+import com.ktilelis.todo.exception.ValidationError;
+import com.ktilelis.todo.todomanagement.model.TodoBatchResultDto;
+import com.ktilelis.todo.todomanagement.model.TodoBatchUpdateRequestDto;
+import com.ktilelis.todo.todomanagement.model.TodoChangeDto;
+import com.ktilelis.todo.todomanagement.model.TodoCursor;
 import com.ktilelis.todo.todomanagement.model.TodoEntry;
+import com.ktilelis.todo.todomanagement.model.TodoField;
+import com.ktilelis.todo.todomanagement.model.TodoFilter;
 import com.ktilelis.todo.todomanagement.model.TodoMapper;
 import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
 import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import com.ktilelis.todo.todomanagement.model.TodoSliceResponseDto;
+import com.ktilelis.todo.configuration.CachingConfiguration;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.MessageSource;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
+// cache hits are answered by the caching proxy in front of this timer, so it measures the work behind the cache
+@Timed(value = "todo.service", histogram = true)
 public class TodoService {
+    // cached todos are keyed by owner and id, see TodoOwnerContext.cacheKey
+    private static final String CACHE_KEY = "T(com.ktilelis.todo.todomanagement.TodoOwnerContext).cacheKey(#id)";
+    private static final String CREATED_CACHE_KEY = "T(com.ktilelis.todo.todomanagement.TodoOwnerContext).cacheKey(#result.id())";
+
     private final TodoRepository todoRepository;
     private final TodoMapper mapper;
     private final MessageSource messageSource;
+    private final Validator validator;
+    private final CacheManager cacheManager;
+    private final TodoChangeLog changeLog;
 
-    public TodoService(TodoRepository todoRepository, TodoMapper mapper, MessageSource messageSource) {
+    public TodoService(TodoRepository todoRepository, TodoMapper mapper, MessageSource messageSource, Validator validator, CacheManager cacheManager,
+                       TodoChangeLog changeLog) {
         this.todoRepository = todoRepository;
         this.mapper = mapper;
         this.messageSource = messageSource;
+        this.validator = validator;
+        this.cacheManager = cacheManager;
+        this.changeLog = changeLog;
+    }
+
+    /**
+     * Lists todos as DTOs selected straight from the table, reading only the columns of {@code fields} (all when
+     * {@code null}) plus those the ETag needs.
+     */
+    @Transactional(readOnly = true)
+    public Page<TodoResponseDto> getTodos(TodoFilter filter, Set<TodoField> fields, Pageable pageable) {
+        var spec = TodoSpecifications.matching(filter);
+        var content = this.todoRepository.findProjected(spec, TodoField.selectedOrAll(fields), pageable.getSort(), pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> this.todoRepository.count(spec));
+    }
+
+    /**
+     * Like {@link #getTodos(TodoFilter, Set, Pageable)}, but the total of an unfiltered list is the planner's estimate
+     * instead of a full count. Totals are exact on the last page, where they can be derived from the page itself.
+     */
+    @Transactional(readOnly = true)
+    public Page<TodoResponseDto> getTodosWithEstimatedCount(TodoFilter filter, Set<TodoField> fields, Pageable pageable) {
+        var slice = this.readSlice(filter, fields, pageable);
+        var seen = pageable.getOffset() + slice.getNumberOfElements();
+        // past the end an empty page says nothing about the total
+        if (!slice.hasNext() && (slice.hasContent() || pageable.getOffset() == 0)) {
+            return new PageImpl<>(slice.getContent(), pageable, seen);
+        }
+        var estimate = filter.isEmpty() ? this.todoRepository.estimateRowCount(TodoOwnerContext.current()) : -1;
+        var total = estimate >= 0 ? Math.max(estimate, seen + 1) : this.todoRepository.count(TodoSpecifications.matching(filter));
+        return new PageImpl<>(slice.getContent(), pageable, total);
     }
 
+    /**
+     * One page of the list without any total; a single extra row tells whether another page exists.
+     */
     @Transactional(readOnly = true)
-    public Page<TodoResponseDto> getTodos(Pageable pageable) {
-        return this.todoRepository.findAll(pageable).map(mapper::toDto);
+    public TodoSliceResponseDto getTodoSlice(TodoFilter filter, Set<TodoField> fields, Pageable pageable) {
+        var slice = this.readSlice(filter, fields, pageable);
+        return new TodoSliceResponseDto(slice.getContent(), slice.getNumberOfElements(), slice.hasNext(), null);
+    }
+
+    private Slice<TodoResponseDto> readSlice(TodoFilter filter, Set<TodoField> fields, Pageable pageable) {
+        // one extra row tells whether another page exists
+        var rows = this.todoRepository.findProjected(TodoSpecifications.matching(filter), TodoField.selectedOrAll(fields),
+                pageable.getSort(), pageable.getOffset(), pageable.getPageSize() + 1);
+        var hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
     }
 
+    /**
+     * One keyset page in (updatedAt, id) order. Unfiltered pages come from the native row-value seek queries; filtered
+     * ones add the seek predicate to the filter's specification.
+     */
+    @Transactional(readOnly = true)
+    public TodoSliceResponseDto getTodosAfter(TodoFilter filter, TodoCursor after, int pageSize, Sort.Direction direction) {
+        // one extra row tells us whether another page exists without issuing a count query
+        var limit = pageSize + 1;
+        if (!filter.isEmpty()) {
+            var spec = TodoSpecifications.matching(filter).and(TodoSpecifications.after(after, direction));
+            var rows = this.todoRepository.findProjected(spec, TodoField.selectedOrAll(null), Sort.by(direction, "updatedAt", "id"), 0, limit);
+            var hasNext = rows.size() > pageSize;
+            var page = hasNext ? rows.subList(0, pageSize) : rows;
+            var nextCursor = hasNext ? TodoCursor.of(page.get(page.size() - 1)).encode() : null;
+            return new TodoSliceResponseDto(page, page.size(), hasNext, nextCursor);
+        }
+        var owner = TodoOwnerContext.current();
+        List<TodoEntry> rows;
+        if (direction.isAscending()) {
+            rows = after == null
+                    ? this.todoRepository.findFirstKeysetPageAsc(owner, limit)
+                    : this.todoRepository.findKeysetPageAsc(owner, after.updatedAt(), after.id(), limit);
+        } else {
+            rows = after == null
+                    ? this.todoRepository.findFirstKeysetPageDesc(owner, limit)
+                    : this.todoRepository.findKeysetPageDesc(owner, after.updatedAt(), after.id(), limit);
+        }
+
+        var hasNext = rows.size() > pageSize;
+        var page = hasNext ? rows.subList(0, pageSize) : rows;
+        var nextCursor = hasNext ? TodoCursor.of(page.get(page.size() - 1)).encode() : null;
+
+        return new TodoSliceResponseDto(page.stream().map(mapper::toDto).toList(), page.size(), hasNext, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportTodos(Consumer<TodoResponseDto> consumer) {
+        try (var todos = this.todoRepository.streamAllForExport()) {
+            todos.forEach(consumer);
+        }
+    }
+
+    @CachePut(cacheNames = CachingConfiguration.TODO_CACHE, key = CREATED_CACHE_KEY)
     public TodoResponseDto createTodo(TodoRequestDto teReq) {
         var todoEntry = this.mapper.toEntity(teReq);
         var todoEntity = this.todoRepository.save(todoEntry);
-        return this.mapper.toDto(todoEntity);
+        var created = this.mapper.toDto(todoEntity);
+        this.changeLog.record(TodoChangeDto.created(created));
+        return created;
     }
 
-    public TodoResponseDto updateTodo(Long id, TodoRequestDto teReq) {
-        var existing = this.getTodo(id);
+    public List<TodoBatchResultDto> createTodos(List<TodoRequestDto> requests) {
+        var results = new TodoBatchResultDto[requests.size()];
+        var indexes = new ArrayList<Integer>(requests.size());
+        var entries = new ArrayList<TodoEntry>(requests.size());
 
-        existing.setTitle(teReq.title());
-        existing.setDescription(teReq.description());
-        existing.setExpiresAt(teReq.expiresAt());
+        for (int i = 0; i < requests.size(); i++) {
+            var request = requests.get(i);
+            var validationErrors = this.validate(request);
+            if (!validationErrors.isEmpty()) {
+                results[i] = TodoBatchResultDto.invalid(i, null, this.getMessage("exception.validation_error"), validationErrors);
+                continue;
+            }
+            indexes.add(i);
+            entries.add(this.mapper.toEntity(request));
+        }
 
-        var todoEntity = this.todoRepository.save(existing);
-        return this.mapper.toDto(todoEntity);
+        // ids come from the pooled sequence, so Hibernate can send all inserts as JDBC batches
+        var saved = this.todoRepository.saveAll(entries);
+        var cache = this.todoCache();
+        var changes = new ArrayList<TodoChangeDto>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            int index = indexes.get(i);
+            var created = this.mapper.toDto(saved.get(i));
+            cache.put(TodoOwnerContext.cacheKey(created.id()), created);
+            changes.add(TodoChangeDto.created(created));
+            results[index] = TodoBatchResultDto.success(index, HttpStatus.CREATED, created);
+        }
+        this.changeLog.record(changes);
+        return Arrays.asList(results);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Updates the todo in a single statement that also bumps its version. The write is conditional on
+     * {@code ifMatchVersions} (from an {@code If-Match} header) or else on the version in the request body; without
+     * either it is unconditional.
+     */
+    @CacheEvict(cacheNames = CachingConfiguration.TODO_CACHE, key = CACHE_KEY)
+    public void updateTodo(Long id, TodoRequestDto teReq, Set<Long> ifMatchVersions) {
+        var expectedVersion = ifMatchVersions != null ? this.matchingVersion(id, ifMatchVersions) : teReq.version();
+        // bulk update bypasses auditing, so updatedAt is set here
+        var updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        var updated = this.todoRepository.updateTodo(id, teReq.title(), teReq.description(), teReq.expiresAt(), updatedAt, expectedVersion);
+        if (updated == 0) {
+            if (expectedVersion != null && this.todoRepository.existsById(id)) {
+                throw ifMatchVersions != null
+                        ? new TodoPreconditionFailedException(id)
+                        : new ObjectOptimisticLockingFailureException(TodoEntry.class, id);
+            }
+            throw this.notFound(id);
+        }
+        this.changeLog.recordUpdate(id);
+    }
+
+    /**
+     * The version an {@code If-Match} update is conditional on. When several are listed, it is the current one if it is
+     * among them; the update still checks it, so a concurrent change fails the precondition rather than being lost.
+     */
+    private Long matchingVersion(Long id, Set<Long> versions) {
+        if (versions.size() == 1) {
+            return versions.iterator().next();
+        }
+        var current = this.todoRepository.findVersionById(id).orElseThrow(() -> this.notFound(id));
+        if (!versions.contains(current)) {
+            throw new TodoPreconditionFailedException(id);
+        }
+        return current;
+    }
+
+    // read from the primary: a lagging replica would put the todo back into the cache as it was before the update or
+    // delete that just evicted it, and answer it, and its stale ETag, until the entry expires
+    @Cacheable(cacheNames = CachingConfiguration.TODO_CACHE, key = CACHE_KEY)
     public TodoResponseDto getTodoById(Long id) {
-        var todo = this.getTodo(id);
-        var mapped = this.mapper.toDto(todo);
-        return mapped;
+        return this.todoRepository.findDtoById(id).orElseThrow(() -> this.notFound(id));
     }
 
+    @CacheEvict(cacheNames = CachingConfiguration.TODO_CACHE, key = CACHE_KEY)
     public void deleteTodo(Long id) {
-        if (!this.todoRepository.existsById(id)) {
-            throw new NoSuchElementException(this.messageSource.getMessage("exception.not_found", new Object[]{id}, Locale.getDefault()));
+        if (this.todoRepository.deleteTodoById(id) == 0) {
+            throw this.notFound(id);
+        }
+        this.changeLog.record(TodoChangeDto.deleted(id));
+    }
+
+    public List<TodoBatchResultDto> updateTodos(List<TodoBatchUpdateRequestDto> requests) {
+        var results = new TodoBatchResultDto[requests.size()];
+        var validRequests = new ArrayList<Integer>(requests.size());
+        var ids = new HashSet<Long>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            var request = requests.get(i);
+            var validationErrors = this.validate(request);
+            if (!validationErrors.isEmpty()) {
+                var id = request != null ? request.id() : null;
+                results[i] = TodoBatchResultDto.invalid(i, id, this.getMessage("exception.validation_error"), validationErrors);
+                continue;
+            }
+            // both would apply to the same entity and only the last one would be kept
+            if (!ids.add(request.id())) {
+                results[i] = TodoBatchResultDto.invalid(i, request.id(), this.getMessage("exception.duplicate_batch_id", request.id()), null);
+                continue;
+            }
+            validRequests.add(i);
+        }
+
+        var existing = this.todoRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(TodoEntry::getId, Function.identity()));
+
+        for (int index : validRequests) {
+            var request = requests.get(index);
+            var entry = existing.get(request.id());
+            if (entry == null) {
+                results[index] = TodoBatchResultDto.notFound(index, request.id(), this.getMessage("exception.not_found", request.id()));
+                continue;
+            }
+            var expectedVersion = request.todo().version();
+            if (expectedVersion != null && !expectedVersion.equals(entry.getVersion())) {
+                results[index] = TodoBatchResultDto.conflict(index, request.id(), this.getMessage("exception.conflict", request.id()));
+                continue;
+            }
+            entry.setTitle(request.todo().title());
+            entry.setDescription(request.todo().description());
+            entry.setExpiresAt(request.todo().expiresAt());
+        }
+
+        // dirty entities are flushed as batched updates; auditing sets updatedAt during the flush
+        this.todoRepository.flush();
+        this.evictFromCache(existing.keySet());
+        var changes = new ArrayList<TodoChangeDto>(validRequests.size());
+        for (int index : validRequests) {
+            if (results[index] == null) {
+                var updated = this.mapper.toDto(existing.get(requests.get(index).id()));
+                changes.add(TodoChangeDto.updated(updated));
+                results[index] = TodoBatchResultDto.success(index, HttpStatus.OK, updated);
+            }
         }
-        this.todoRepository.delete(this.getTodo(id));
+        this.changeLog.record(changes);
+        return Arrays.asList(results);
+    }
+
+    public List<TodoBatchResultDto> deleteTodos(List<Long> ids) {
+        Set<Long> existing = new HashSet<>(this.todoRepository.findExistingIds(ids));
+        this.todoRepository.deleteAllByIdInBatch(existing);
+        this.evictFromCache(existing);
+        this.changeLog.record(existing.stream().sorted().map(TodoChangeDto::deleted).toList());
+
+        var results = new ArrayList<TodoBatchResultDto>(ids.size());
+        var seen = new HashSet<Long>();
+        for (int i = 0; i < ids.size(); i++) {
+            var id = ids.get(i);
+            // the todo is deleted once, so only its first occurrence reports it, as in updateTodos
+            if (!seen.add(id)) {
+                results.add(TodoBatchResultDto.invalid(i, id, this.getMessage("exception.duplicate_batch_id", id), null));
+                continue;
+            }
+            results.add(existing.contains(id)
+                    ? TodoBatchResultDto.deleted(i, id)
+                    : TodoBatchResultDto.notFound(i, id, this.getMessage("exception.not_found", id)));
+        }
+        return results;
+    }
+
+    private void evictFromCache(Collection<Long> ids) {
+        var cache = this.todoCache();
+        ids.forEach(id -> cache.evict(TodoOwnerContext.cacheKey(id)));
+    }
+
+    private Cache todoCache() {
+        return this.cacheManager.getCache(CachingConfiguration.TODO_CACHE);
+    }
+
+    private List<ValidationError> validate(Object request) {
+        if (request == null) {
+            return List.of(new ValidationError("", this.getMessage("exception.validation_error")));
+        }
+        return this.validator.validate(request).stream()
+                .map(this::toValidationError)
+                .toList();
+    }
+
+    private ValidationError toValidationError(ConstraintViolation<?> violation) {
+        return new ValidationError(violation.getPropertyPath().toString(), violation.getMessage());
     }
 
-    public void deleteTodos(List<Long> ids) {
-        this.todoRepository.deleteAllById(ids);
+    private String getMessage(String code, Object... args) {
+        return this.messageSource.getMessage(code, args, Locale.getDefault());
     }
 
-    private TodoEntry getTodo(Long id) {
-        return this.todoRepository.findById(id).orElseThrow(() -> new NoSuchElementException(this.messageSource.getMessage("exception.not_found", new Object[]{id}, Locale.getDefault())));
+    private TodoNotFoundException notFound(Long id) {
+        return new TodoNotFoundException(id);
     }
 }
@@ -0,0 +1,106 @@
+package com.ktilelis.todo.todomanagement;
+
+import com.ktilelis.todo.todomanagement.model.TodoCursor;
+import com.ktilelis.todo.todomanagement.model.TodoEntry;
+import com.ktilelis.todo.todomanagement.model.TodoFilter;
+import jakarta.persistence.criteria.Path;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Predicates behind the list filters. Each one is shaped to match an index from V8__TODO_ENTRIES_PARTITIONED_BY_OWNER:
+ * the range filters follow the owner-led (OWNER, column, ID) indexes, where the owner comes from the partition
+ * filter, and the text search follows the trigram indexes.
+ */
+final class TodoSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private TodoSpecifications() {
+    }
+
+    static Specification<TodoEntry> matching(TodoFilter filter) {
+        return Specification.allOf(List.of(
+                isDone(filter.done()),
+                expiresAtOrAfter(filter.expiresAfter()),
+                expiresBefore(filter.expiresBefore()),
+                createdAtOrAfter(filter.createdFrom()),
+                createdBefore(filter.createdTo()),
+                containsText(filter.query())
+        ));
+    }
+
+    static Specification<TodoEntry> isDone(Boolean done) {
+        // rendered as a literal rather than a bind parameter so the planner can match the partial indexes
+        return (root, query, cb) -> done == null ? null
+                : done ? cb.isTrue(root.get("isDone")) : cb.isFalse(root.get("isDone"));
+    }
+
+    static Specification<TodoEntry> expiresAtOrAfter(LocalDateTime from) {
+        return (root, query, cb) -> from == null ? null : cb.greaterThanOrEqualTo(root.get("expiresAt"), from);
+    }
+
+    static Specification<TodoEntry> expiresBefore(LocalDateTime to) {
+        return (root, query, cb) -> to == null ? null : cb.lessThan(root.get("expiresAt"), to);
+    }
+
+    static Specification<TodoEntry> createdAtOrAfter(LocalDateTime from) {
+        return (root, query, cb) -> from == null ? null : cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    static Specification<TodoEntry> createdBefore(LocalDateTime to) {
+        return (root, query, cb) -> to == null ? null : cb.lessThan(root.get("createdAt"), to);
+    }
+
+    /**
+     * Rows past the cursor in (updatedAt, id) order. The leading {@code updatedAt} bound lets the (OWNER, UPDATED_AT, ID)
+     * index start at the cursor; the disjunction then skips the rows of the cursor's timestamp it already returned.
+     */
+    static Specification<TodoEntry> after(TodoCursor cursor, Sort.Direction direction) {
+        return (root, query, cb) -> {
+            if (cursor == null) {
+                return null;
+            }
+            Path<LocalDateTime> updatedAt = root.get("updatedAt");
+            Path<Long> id = root.get("id");
+            return direction.isAscending()
+                    ? cb.and(cb.greaterThanOrEqualTo(updatedAt, cursor.updatedAt()),
+                    cb.or(cb.greaterThan(updatedAt, cursor.updatedAt()), cb.greaterThan(id, cursor.id())))
+                    : cb.and(cb.lessThanOrEqualTo(updatedAt, cursor.updatedAt()),
+                    cb.or(cb.lessThan(updatedAt, cursor.updatedAt()), cb.lessThan(id, cursor.id())));
+        };
+    }
+
+    /**
+     * Case-insensitive substring match on title or description, served by the trigram indexes.
+     */
+    static Specification<TodoEntry> containsText(String text) {
+        return (root, query, cb) -> {
+            if (!StringUtils.hasText(text)) {
+                return null;
+            }
+            var hcb = (HibernateCriteriaBuilder) cb;
+            var pattern = "%" + escapeLike(text.strip()) + "%";
+            return hcb.or(
+                    hcb.ilike(root.get("title"), pattern, LIKE_ESCAPE),
+                    hcb.ilike(root.get("description"), pattern, LIKE_ESCAPE)
+            );
+        };
+    }
+
+    private static String escapeLike(String text) {
+        var escaped = new StringBuilder(text.length());
+        for (var c : text.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,36 @@
+package com.ktilelis.todo.todomanagement.model;
+
+import com.ktilelis.todo.exception.ValidationError;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+public record TodoBatchResultDto(
+        int index,
+        Long id,
+        HttpStatus httpStatus,
+        TodoResponseDto todo,
+        String message,
+        List<ValidationError> validationErrors
+) {
+
+    public static TodoBatchResultDto success(int index, HttpStatus httpStatus, TodoResponseDto todo) {
+        return new TodoBatchResultDto(index, todo.id(), httpStatus, todo, null, null);
+    }
+
+    public static TodoBatchResultDto deleted(int index, Long id) {
+        return new TodoBatchResultDto(index, id, HttpStatus.NO_CONTENT, null, null, null);
+    }
+
+    public static TodoBatchResultDto notFound(int index, Long id, String message) {
+        return new TodoBatchResultDto(index, id, HttpStatus.NOT_FOUND, null, message, null);
+    }
+
+    public static TodoBatchResultDto conflict(int index, Long id, String message) {
+        return new TodoBatchResultDto(index, id, HttpStatus.CONFLICT, null, message, null);
+    }
+
+    public static TodoBatchResultDto invalid(int index, Long id, String message, List<ValidationError> validationErrors) {
+        return new TodoBatchResultDto(index, id, HttpStatus.BAD_REQUEST, null, message, validationErrors);
+    }
+}
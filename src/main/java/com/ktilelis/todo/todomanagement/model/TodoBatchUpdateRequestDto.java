@@ -0,0 +1,15 @@
+package com.ktilelis.todo.todomanagement.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record TodoBatchUpdateRequestDto(
+        @NotNull(message = "Id must not be null")
+        @Min(0)
+        Long id,
+
+        @NotNull(message = "Todo must not be null")
+        @Valid
+        TodoRequestDto todo
+) {}
@@ -0,0 +1,27 @@
+package com.ktilelis.todo.todomanagement.model;
+
+/**
+ * One entry of the change log.
+ *
+ * @param sequence position in the log, sent as the event id
+ * @param todo     the todo after the change; {@code null} for deletes
+ */
+public record TodoChangeDto(
+        long sequence,
+        TodoChangeType type,
+        Long id,
+        TodoResponseDto todo
+) {
+
+    public static TodoChangeDto created(TodoResponseDto todo) {
+        return new TodoChangeDto(0, TodoChangeType.CREATED, todo.id(), todo);
+    }
+
+    public static TodoChangeDto updated(TodoResponseDto todo) {
+        return new TodoChangeDto(0, TodoChangeType.UPDATED, todo.id(), todo);
+    }
+
+    public static TodoChangeDto deleted(Long id) {
+        return new TodoChangeDto(0, TodoChangeType.DELETED, id, null);
+    }
+}
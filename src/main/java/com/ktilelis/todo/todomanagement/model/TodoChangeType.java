@@ -0,0 +1,20 @@
+package com.ktilelis.todo.todomanagement.model;
+
+/**
+ * What happened to a todo; also the event name on the {@code /changes} stream.
+ */
+public enum TodoChangeType {
+    CREATED("created"),
+    UPDATED("updated"),
+    DELETED("deleted");
+
+    private final String eventName;
+
+    TodoChangeType(String eventName) {
+        this.eventName = eventName;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ktilelis.todo.todomanagement.model;
+
+/**
+ * How the total of a todo list page is obtained. Counting every matching row is the most expensive part of
+ * listing a large table, so clients that do not need an exact total can opt out of it.
+ */
+public enum TodoCountMode {
+    /**
+     * {@code count(*)} over all matching rows.
+     */
+    EXACT("exact"),
+    /**
+     * The planner's row estimate for unfiltered lists; filtered lists, which are index-backed, are still counted.
+     */
+    ESTIMATED("estimated"),
+    /**
+     * No total at all; the response is a slice that only says whether another page exists.
+     */
+    NONE("none");
+
+    private final String value;
+
+    TodoCountMode(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Used by the web conversion service to bind the {@code count} request parameter.
+     */
+    public static TodoCountMode fromValue(String value) {
+        for (var mode : values()) {
+            if (mode.value.equals(value)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported count mode: " + value);
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,51 @@
+package com.ktilelis.todo.todomanagement.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Opaque keyset position pointing at the last row of a page, ordered by (updatedAt, id).
+ */
+public record TodoCursor(LocalDateTime updatedAt, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public TodoCursor {
+        Objects.requireNonNull(updatedAt, "updatedAt");
+        Objects.requireNonNull(id, "id");
+    }
+
+    public static TodoCursor of(TodoEntry entry) {
+        return new TodoCursor(entry.getUpdatedAt(), entry.getId());
+    }
+
+    public static TodoCursor of(TodoResponseDto todo) {
+        return new TodoCursor(todo.updatedAt(), todo.id());
+    }
+
+    /**
+     * Used by Spring's conversion service to bind the {@code after} request parameter.
+     */
+    public static TodoCursor from(String token) {
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            var separatorIndex = decoded.indexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new IllegalArgumentException("Malformed cursor: " + token);
+            }
+            var updatedAt = LocalDateTime.parse(decoded.substring(0, separatorIndex));
+            var id = Long.parseLong(decoded.substring(separatorIndex + 1));
+            return new TodoCursor(updatedAt, id);
+        } catch (DateTimeParseException | NumberFormatException ex) {
+            throw new IllegalArgumentException("Malformed cursor: " + token, ex);
+        }
+    }
+
+    public String encode() {
+        var raw = this.updatedAt.toString() + SEPARATOR + this.id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
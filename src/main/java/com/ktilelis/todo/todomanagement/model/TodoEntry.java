@@ -1,6 +1,7 @@
 package com.ktilelis.todo.todomanagement.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.TenantId;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -14,10 +15,19 @@ import java.util.Objects;
 @EntityListeners(AuditingEntityListener.class)
 public class TodoEntry {
 
+    public static final String ID_SEQUENCE = "todo_entries_id_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
+    // the partition key; set from the session's tenant on insert and added to every entity query
+    @TenantId
+    @Column(name = "OWNER", nullable = false, updatable = false, length = 64)
+    private String owner;
+
     @Column(name = "TITLE", nullable = false, length = 100)
     private String title;
 
@@ -38,6 +48,13 @@ public class TodoEntry {
     @Column(name = "UPDATED_AT", nullable = false)
     private LocalDateTime updatedAt;
 
+    @Column(name = "EXPIRY_NOTIFIED_AT")
+    private LocalDateTime expiryNotifiedAt;
+
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private Long version;
+
     public TodoEntry() {
 
     }
@@ -50,6 +67,14 @@ public class TodoEntry {
         this.id = id;
     }
 
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -79,6 +104,10 @@ public class TodoEntry {
     }
 
     public void setExpiresAt(LocalDateTime expiresAt) {
+        // a moved deadline has to be announced again
+        if (!Objects.equals(this.expiresAt, expiresAt)) {
+            this.expiryNotifiedAt = null;
+        }
         this.expiresAt = expiresAt;
     }
 
@@ -98,30 +127,50 @@ public class TodoEntry {
         this.updatedAt = updatedAt;
     }
 
+    public LocalDateTime getExpiryNotifiedAt() {
+        return expiryNotifiedAt;
+    }
+
+    public void setExpiryNotifiedAt(LocalDateTime expiryNotifiedAt) {
+        this.expiryNotifiedAt = expiryNotifiedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof TodoEntry todoEntry)) return false;
 
         if (getId() != null ? !getId().equals(todoEntry.getId()) : todoEntry.getId() != null) return false;
+        if (!Objects.equals(owner, todoEntry.owner)) return false;
         if (!Objects.equals(title, todoEntry.title)) return false;
         if (!Objects.equals(description, todoEntry.description))
             return false;
         if (!Objects.equals(isDone, todoEntry.isDone)) return false;
         if (!Objects.equals(expiresAt, todoEntry.expiresAt)) return false;
         if (!Objects.equals(createdAt, todoEntry.createdAt)) return false;
-        return Objects.equals(updatedAt, todoEntry.updatedAt);
+        if (!Objects.equals(updatedAt, todoEntry.updatedAt)) return false;
+        return Objects.equals(version, todoEntry.version);
     }
 
     @Override
     public int hashCode() {
         int result = getId() != null ? getId().hashCode() : 0;
+        result = 31 * result + (owner != null ? owner.hashCode() : 0);
         result = 31 * result + (title != null ? title.hashCode() : 0);
         result = 31 * result + (description != null ? description.hashCode() : 0);
         result = 31 * result + (isDone != null ? isDone.hashCode() : 0);
         result = 31 * result + (expiresAt != null ? expiresAt.hashCode() : 0);
         result = 31 * result + (createdAt != null ? createdAt.hashCode() : 0);
         result = 31 * result + (updatedAt != null ? updatedAt.hashCode() : 0);
+        result = 31 * result + (version != null ? version.hashCode() : 0);
         return result;
     }
 }
@@ -0,0 +1,73 @@
+package com.ktilelis.todo.todomanagement.model;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Fields of a todo that a client can select with {@code fields=}, in the order of {@link TodoResponseDto}'s
+ * components.
+ */
+public enum TodoField {
+    ID("id", "id"),
+    TITLE("title", "title"),
+    DESCRIPTION("description", "description"),
+    DONE("done", "isDone"),
+    EXPIRES_AT("expiresAt", "expiresAt"),
+    CREATED_AT("createdAt", "createdAt"),
+    UPDATED_AT("updatedAt", "updatedAt"),
+    VERSION("version", "version");
+
+    /**
+     * Read even when not selected, because ETags are computed from them; they are only rendered when selected.
+     */
+    public static final Set<TodoField> ALWAYS_READ = Collections.unmodifiableSet(EnumSet.of(ID, VERSION));
+
+    private static final Set<TodoField> ALL = Collections.unmodifiableSet(EnumSet.allOf(TodoField.class));
+
+    private final String property;
+    private final String attribute;
+
+    TodoField(String property, String attribute) {
+        this.property = property;
+        this.attribute = attribute;
+    }
+
+    /**
+     * Used by the web conversion service to bind the {@code fields} request parameter.
+     */
+    public static TodoField fromProperty(String property) {
+        for (var field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported field: " + property);
+    }
+
+    /**
+     * The fields to read for a {@code fields} parameter; all of them when it is absent.
+     */
+    public static Set<TodoField> selectedOrAll(Set<TodoField> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return ALL;
+        }
+        var read = EnumSet.copyOf(fields);
+        read.addAll(ALWAYS_READ);
+        return read;
+    }
+
+    /**
+     * The name of the field in the API.
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * The name of the field in {@link TodoEntry}.
+     */
+    public String getAttribute() {
+        return attribute;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ktilelis.todo.todomanagement.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional list filters; {@code null} components are not applied. Date ranges are half-open: lower bounds are
+ * inclusive, upper bounds exclusive.
+ */
+public record TodoFilter(
+        Boolean done,
+        LocalDateTime expiresAfter,
+        LocalDateTime expiresBefore,
+        LocalDateTime createdFrom,
+        LocalDateTime createdTo,
+        String query
+) {
+
+    public boolean isEmpty() {
+        return done == null && expiresAfter == null && expiresBefore == null && createdFrom == null && createdTo == null
+                && (query == null || query.isBlank());
+    }
+}
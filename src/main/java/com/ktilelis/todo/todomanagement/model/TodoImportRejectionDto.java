@@ -0,0 +1,12 @@
+package com.ktilelis.todo.todomanagement.model;
+
+import com.ktilelis.todo.exception.ValidationError;
+
+import java.util.List;
+
+public record TodoImportRejectionDto(
+        long line,
+        String message,
+        List<ValidationError> validationErrors
+) {
+}
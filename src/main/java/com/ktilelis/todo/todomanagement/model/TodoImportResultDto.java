@@ -0,0 +1,12 @@
+package com.ktilelis.todo.todomanagement.model;
+
+import java.util.List;
+
+public record TodoImportResultDto(
+        long imported,
+        long rejected,
+        List<TodoImportRejectionDto> rejections,
+        long durationMillis,
+        double rowsPerSecond
+) {
+}
@@ -0,0 +1,43 @@
+package com.ktilelis.todo.todomanagement.model;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * The parameters of the keyset-paged todo list, bound from the query string. It takes the same filters as
+ * {@link TodoListQuery}, but the cursor fixes the order to (updatedAt, id), so no other {@code sortField} is accepted.
+ */
+public record TodoKeysetQuery(
+        TodoCursor after,
+        @Min(1) @Max(1000) Integer pageSize,
+        TodoSortField sortField,
+        Sort.Direction sortDirection,
+        Boolean done,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime expiresAfter,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime expiresBefore,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+        @Size(max = 100) String q
+) {
+
+    public TodoKeysetQuery {
+        pageSize = pageSize != null ? pageSize : 20;
+        sortField = sortField != null ? sortField : TodoSortField.UPDATED_AT;
+        sortDirection = sortDirection != null ? sortDirection : Sort.Direction.DESC;
+    }
+
+    @AssertTrue(message = "keyset pages can only be sorted by updatedAt")
+    public boolean isSortFieldSupported() {
+        return sortField == TodoSortField.UPDATED_AT;
+    }
+
+    public TodoFilter filter() {
+        return new TodoFilter(done, expiresAfter, expiresBefore, createdFrom, createdTo, q);
+    }
+}
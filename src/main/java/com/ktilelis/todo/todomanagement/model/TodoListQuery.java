@@ -0,0 +1,41 @@
+package com.ktilelis.todo.todomanagement.model;
+
+import jakarta.validation.constraints.Size;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * The paging, sorting and filter parameters of the offset-paged todo list, bound from the query string; parameters
+ * that are left out take their defaults.
+ */
+public record TodoListQuery(
+        Integer page,
+        Integer pageSize,
+        TodoSortField sortField,
+        Sort.Direction sortDirection,
+        Boolean done,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime expiresAfter,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime expiresBefore,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+        @Size(max = 100) String q
+) {
+
+    public TodoListQuery {
+        page = page != null ? page : 0;
+        pageSize = pageSize != null ? pageSize : 20;
+        sortField = sortField != null ? sortField : TodoSortField.UPDATED_AT;
+        sortDirection = sortDirection != null ? sortDirection : Sort.Direction.DESC;
+    }
+
+    public PageRequest pageRequest() {
+        return PageRequest.of(page, pageSize, sortField.toSort(sortDirection));
+    }
+
+    public TodoFilter filter() {
+        return new TodoFilter(done, expiresAfter, expiresBefore, createdFrom, createdTo, q);
+    }
+}
@@ -9,5 +9,6 @@ public interface TodoMapper {
 
     TodoResponseDto toDto(TodoEntry entity);
 
+    @Mapping(target = "version", ignore = true)
     TodoEntry toEntity(TodoRequestDto dto);
 }
\ No newline at end of file
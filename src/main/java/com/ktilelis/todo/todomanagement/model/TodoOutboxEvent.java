@@ -0,0 +1,20 @@
+package com.ktilelis.todo.todomanagement.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change of a todo as handed to downstream systems. Events may be delivered more than once; the sequence identifies
+ * them, and events of one todo arrive in sequence order.
+ *
+ * @param owner    owner of the todo
+ * @param change   the change, with the same sequence as in the change log
+ * @param queuedAt when the change was made
+ * @param attempts deliveries of this event that failed so far
+ */
+public record TodoOutboxEvent(
+        String owner,
+        TodoChangeDto change,
+        LocalDateTime queuedAt,
+        int attempts
+) {
+}
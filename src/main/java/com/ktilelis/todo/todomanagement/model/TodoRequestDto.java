@@ -1,6 +1,7 @@
 package com.ktilelis.todo.todomanagement.model;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 
 import java.time.LocalDateTime;
@@ -14,5 +15,9 @@ public record TodoRequestDto(
         @Size(max = 500, message = "Description must be at most 500 characters")
         String description,
 
-        LocalDateTime expiresAt
+        LocalDateTime expiresAt,
+
+        // version the client last read; updates are rejected with 409 when the todo has moved on since
+        @PositiveOrZero(message = "Version must not be negative")
+        Long version
 ) {}
@@ -9,6 +9,7 @@ public record TodoResponseDto(
         Boolean done,
         LocalDateTime expiresAt,
         LocalDateTime createdAt,
-        LocalDateTime updatedAt
+        LocalDateTime updatedAt,
+        Long version
 ) {
 }
@@ -0,0 +1,11 @@
+package com.ktilelis.todo.todomanagement.model;
+
+import java.util.List;
+
+public record TodoSliceResponseDto(
+        List<TodoResponseDto> content,
+        int size,
+        boolean hasNext,
+        String nextCursor
+) {
+}
@@ -0,0 +1,49 @@
+package com.ktilelis.todo.todomanagement.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Fields the todo list may be sorted by. Only columns backed by an (column, ID) index are listed, so every
+ * ordering can be served by an index scan instead of sorting the whole table.
+ */
+public enum TodoSortField {
+    UPDATED_AT("updatedAt"),
+    CREATED_AT("createdAt"),
+    EXPIRES_AT("expiresAt"),
+    TITLE("title"),
+    ID("id");
+
+    private final String property;
+
+    TodoSortField(String property) {
+        this.property = property;
+    }
+
+    /**
+     * Used by the web conversion service to bind the {@code sortField} request parameter.
+     */
+    public static TodoSortField fromProperty(String property) {
+        for (var field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort field: " + property);
+    }
+
+    /**
+     * Sorts by this field with {@code id} as a tiebreaker, so pages stay stable when values repeat.
+     */
+    public Sort toSort(Sort.Direction direction) {
+        if (this == ID) {
+            return Sort.by(direction, ID.property);
+        }
+        return Sort.by(direction, this.property, ID.property);
+    }
+
+    @JsonValue
+    public String getProperty() {
+        return property;
+    }
+}
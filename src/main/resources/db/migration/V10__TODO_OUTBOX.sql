@@ -0,0 +1,19 @@
+-- Changes still to be delivered to downstream systems, queued in the transaction that makes the change together with
+-- its TODO_CHANGES row, whose sequence it shares. The relay deletes an event once its sink has accepted it.
+CREATE TABLE TODO_OUTBOX
+(
+    SEQ             BIGINT PRIMARY KEY,
+    OWNER           VARCHAR(64) NOT NULL,
+    TODO_ID         BIGINT      NOT NULL,
+    TYPE            VARCHAR(16) NOT NULL,
+    PAYLOAD         JSONB,
+    CREATED_AT      TIMESTAMP   NOT NULL DEFAULT LOCALTIMESTAMP,
+    -- failed deliveries so far
+    ATTEMPTS        INT         NOT NULL DEFAULT 0,
+    -- pushed into the future while a relay holds the event and after a failed delivery
+    NEXT_ATTEMPT_AT TIMESTAMP   NOT NULL DEFAULT LOCALTIMESTAMP,
+    LAST_ERROR      TEXT
+);
+
+-- finding the oldest pending event of a todo; events of one todo are delivered in sequence order
+CREATE INDEX IDX_TODO_OUTBOX_TODO ON TODO_OUTBOX (OWNER, TODO_ID, SEQ);
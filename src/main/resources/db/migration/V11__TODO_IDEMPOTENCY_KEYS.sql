@@ -0,0 +1,18 @@
+-- Responses of writes sent with an Idempotency-Key header, written in the transaction of the write itself. A retry with
+-- the same key is answered from here instead of writing again; the primary key makes concurrent duplicates wait for the
+-- first one and then read its response.
+CREATE TABLE TODO_IDEMPOTENCY_KEYS
+(
+    OWNER           VARCHAR(64)  NOT NULL,
+    IDEMPOTENCY_KEY VARCHAR(255) NOT NULL,
+    -- SHA-256 of the request body; a key is only ever answered for the request it was first used with
+    REQUEST_HASH    CHAR(64)     NOT NULL,
+    -- the response as served by the API; NULL only until the write that claimed the key commits
+    RESPONSE        JSONB,
+    CREATED_AT      TIMESTAMP    NOT NULL DEFAULT LOCALTIMESTAMP,
+    EXPIRES_AT      TIMESTAMP    NOT NULL,
+    PRIMARY KEY (OWNER, IDEMPOTENCY_KEY)
+);
+
+-- pruning expired keys
+CREATE INDEX IDX_TODO_IDEMPOTENCY_KEYS_EXPIRES_AT ON TODO_IDEMPOTENCY_KEYS (EXPIRES_AT);
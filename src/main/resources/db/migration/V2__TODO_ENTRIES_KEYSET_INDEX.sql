@@ -0,0 +1,8 @@
+UPDATE TODO_ENTRIES
+SET UPDATED_AT = COALESCE(CREATED_AT, NOW())
+WHERE UPDATED_AT IS NULL;
+
+ALTER TABLE TODO_ENTRIES
+    ALTER COLUMN UPDATED_AT SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS IDX_TODO_ENTRIES_UPDATED_AT_ID ON TODO_ENTRIES (UPDATED_AT, ID);
@@ -0,0 +1,4 @@
+-- Hibernate allocates ids from this sequence in blocks of 50 (pooled optimizer) so inserts can be JDBC batched.
+-- BY DEFAULT keeps plain SQL inserts working while allowing the application to supply pre-allocated ids.
+ALTER TABLE TODO_ENTRIES
+    ALTER COLUMN ID SET GENERATED BY DEFAULT SET INCREMENT BY 50;
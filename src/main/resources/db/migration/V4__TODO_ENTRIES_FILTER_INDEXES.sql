@@ -0,0 +1,18 @@
+UPDATE TODO_ENTRIES
+SET IS_DONE = FALSE
+WHERE IS_DONE IS NULL;
+
+ALTER TABLE TODO_ENTRIES
+    ALTER COLUMN IS_DONE SET NOT NULL;
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- open todos are what clients list and filter by expiry almost exclusively
+CREATE INDEX IF NOT EXISTS IDX_TODO_ENTRIES_OPEN_UPDATED_AT_ID ON TODO_ENTRIES (UPDATED_AT, ID) WHERE NOT IS_DONE;
+CREATE INDEX IF NOT EXISTS IDX_TODO_ENTRIES_OPEN_EXPIRES_AT ON TODO_ENTRIES (EXPIRES_AT) WHERE NOT IS_DONE;
+CREATE INDEX IF NOT EXISTS IDX_TODO_ENTRIES_EXPIRES_AT ON TODO_ENTRIES (EXPIRES_AT);
+CREATE INDEX IF NOT EXISTS IDX_TODO_ENTRIES_CREATED_AT ON TODO_ENTRIES (CREATED_AT);
+
+-- trigram indexes serve the ILIKE '%q%' text query, which a btree cannot
+CREATE INDEX IF NOT EXISTS IDX_TODO_ENTRIES_TITLE_TRGM ON TODO_ENTRIES USING GIN (TITLE gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS IDX_TODO_ENTRIES_DESCRIPTION_TRGM ON TODO_ENTRIES USING GIN (DESCRIPTION gin_trgm_ops);
@@ -0,0 +1,7 @@
+-- every sortable field gets a (column, ID) index so the ID tiebreaker is served by the same index scan
+DROP INDEX IF EXISTS IDX_TODO_ENTRIES_EXPIRES_AT;
+DROP INDEX IF EXISTS IDX_TODO_ENTRIES_CREATED_AT;
+
+CREATE INDEX IF NOT EXISTS IDX_TODO_ENTRIES_EXPIRES_AT_ID ON TODO_ENTRIES (EXPIRES_AT, ID);
+CREATE INDEX IF NOT EXISTS IDX_TODO_ENTRIES_CREATED_AT_ID ON TODO_ENTRIES (CREATED_AT, ID);
+CREATE INDEX IF NOT EXISTS IDX_TODO_ENTRIES_TITLE_ID ON TODO_ENTRIES (TITLE, ID);
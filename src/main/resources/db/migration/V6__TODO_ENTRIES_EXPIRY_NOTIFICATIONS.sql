@@ -0,0 +1,11 @@
+ALTER TABLE TODO_ENTRIES
+    ADD COLUMN IF NOT EXISTS EXPIRY_NOTIFIED_AT TIMESTAMP;
+
+-- todos that expired before notifications existed are not announced retroactively
+UPDATE TODO_ENTRIES
+SET EXPIRY_NOTIFIED_AT = NOW()
+WHERE EXPIRES_AT <= NOW();
+
+-- only rows still waiting for a notification are indexed, so the index stays small as todos are processed
+CREATE INDEX IF NOT EXISTS IDX_TODO_ENTRIES_EXPIRY_DUE ON TODO_ENTRIES (EXPIRES_AT, ID)
+    WHERE EXPIRY_NOTIFIED_AT IS NULL AND NOT IS_DONE;
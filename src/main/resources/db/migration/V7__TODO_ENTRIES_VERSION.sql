@@ -0,0 +1,2 @@
+ALTER TABLE TODO_ENTRIES
+    ADD COLUMN IF NOT EXISTS VERSION BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,59 @@
+-- A table cannot be turned into a partitioned one in place, so the rows are moved into a new table hash-partitioned
+-- by OWNER. Existing todos belong to the 'default' owner, which is what the unscoped /v1/todo routes work on.
+ALTER TABLE TODO_ENTRIES RENAME TO TODO_ENTRIES_UNPARTITIONED;
+ALTER SEQUENCE todo_entries_id_seq RENAME TO todo_entries_unpartitioned_id_seq;
+
+-- ids stay globally unique and keep coming from a sequence of the same name, step and position
+CREATE SEQUENCE todo_entries_id_seq INCREMENT BY 50;
+SELECT setval('todo_entries_id_seq', last_value, is_called)
+FROM todo_entries_unpartitioned_id_seq;
+
+CREATE TABLE TODO_ENTRIES
+(
+    ID                 BIGINT       NOT NULL DEFAULT nextval('todo_entries_id_seq'),
+    OWNER              VARCHAR(64)  NOT NULL DEFAULT 'default',
+    TITLE              VARCHAR(100) NOT NULL,
+    DESCRIPTION        VARCHAR(500),
+    IS_DONE            BOOLEAN      NOT NULL DEFAULT FALSE,
+    EXPIRES_AT         TIMESTAMP,
+    CREATED_AT         TIMESTAMP             DEFAULT NOW(),
+    UPDATED_AT         TIMESTAMP    NOT NULL DEFAULT NOW(),
+    EXPIRY_NOTIFIED_AT TIMESTAMP,
+    VERSION            BIGINT       NOT NULL DEFAULT 0,
+    -- the partition key has to be part of the key; ID first keeps lookups by id alone (the expiry job) on the index
+    PRIMARY KEY (ID, OWNER)
+) PARTITION BY HASH (OWNER);
+
+ALTER SEQUENCE todo_entries_id_seq OWNED BY TODO_ENTRIES.ID;
+
+-- every owner lives in exactly one partition; changing the count later means rewriting the table
+DO
+$$
+    BEGIN
+        FOR remainder IN 0..15
+            LOOP
+                EXECUTE format('CREATE TABLE TODO_ENTRIES_P%s PARTITION OF TODO_ENTRIES FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+                               remainder, remainder);
+            END LOOP;
+    END
+$$;
+
+INSERT INTO TODO_ENTRIES (ID, OWNER, TITLE, DESCRIPTION, IS_DONE, EXPIRES_AT, CREATED_AT, UPDATED_AT, EXPIRY_NOTIFIED_AT, VERSION)
+SELECT ID, 'default', TITLE, DESCRIPTION, IS_DONE, EXPIRES_AT, CREATED_AT, UPDATED_AT, EXPIRY_NOTIFIED_AT, VERSION
+FROM TODO_ENTRIES_UNPARTITIONED;
+
+DROP TABLE TODO_ENTRIES_UNPARTITIONED;
+
+-- the earlier indexes again, led by OWNER so a per-owner list is one range scan in one partition
+CREATE INDEX IDX_TODO_ENTRIES_OWNER_UPDATED_AT_ID ON TODO_ENTRIES (OWNER, UPDATED_AT, ID);
+CREATE INDEX IDX_TODO_ENTRIES_OWNER_OPEN_UPDATED_AT_ID ON TODO_ENTRIES (OWNER, UPDATED_AT, ID) WHERE NOT IS_DONE;
+CREATE INDEX IDX_TODO_ENTRIES_OWNER_OPEN_EXPIRES_AT ON TODO_ENTRIES (OWNER, EXPIRES_AT) WHERE NOT IS_DONE;
+CREATE INDEX IDX_TODO_ENTRIES_OWNER_EXPIRES_AT_ID ON TODO_ENTRIES (OWNER, EXPIRES_AT, ID);
+CREATE INDEX IDX_TODO_ENTRIES_OWNER_CREATED_AT_ID ON TODO_ENTRIES (OWNER, CREATED_AT, ID);
+CREATE INDEX IDX_TODO_ENTRIES_OWNER_TITLE_ID ON TODO_ENTRIES (OWNER, TITLE, ID);
+CREATE INDEX IDX_TODO_ENTRIES_TITLE_TRGM ON TODO_ENTRIES USING GIN (TITLE gin_trgm_ops);
+CREATE INDEX IDX_TODO_ENTRIES_DESCRIPTION_TRGM ON TODO_ENTRIES USING GIN (DESCRIPTION gin_trgm_ops);
+
+-- the expiry job works across owners
+CREATE INDEX IDX_TODO_ENTRIES_EXPIRY_DUE ON TODO_ENTRIES (EXPIRES_AT, ID)
+    WHERE EXPIRY_NOTIFIED_AT IS NULL AND NOT IS_DONE;
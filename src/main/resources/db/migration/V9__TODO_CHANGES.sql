@@ -0,0 +1,17 @@
+-- Every create, update and delete of a todo, written in the transaction that makes the change. SEQ is the event id of
+-- the /changes stream; a client that reconnects with Last-Event-ID is replayed everything after it from here.
+CREATE TABLE TODO_CHANGES
+(
+    SEQ        BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    OWNER      VARCHAR(64) NOT NULL,
+    TODO_ID    BIGINT      NOT NULL,
+    TYPE       VARCHAR(16) NOT NULL,
+    -- the todo after the change, as served by the API; NULL for deletes
+    PAYLOAD    JSONB,
+    CHANGED_AT TIMESTAMP   NOT NULL DEFAULT NOW()
+);
+
+-- replaying one owner's changes after a given sequence
+CREATE INDEX IDX_TODO_CHANGES_OWNER_SEQ ON TODO_CHANGES (OWNER, SEQ);
+-- pruning by age
+CREATE INDEX IDX_TODO_CHANGES_CHANGED_AT ON TODO_CHANGES (CHANGED_AT);
@@ -0,0 +1,90 @@
+package com.ktilelis.todo;
+
+import com.ktilelis.todo.configuration.AdaptiveConcurrencyLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MAX_LATENCY = Duration.ofMillis(100).toNanos();
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+
+    private long now;
+
+    @Test
+    void tryAcquire_shouldRejectOnceTheLimitIsReached() {
+        var limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.5, MAX_LATENCY);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+
+        limiter.releaseIgnored();
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void release_shouldShrinkTheLimitOnSlowOrFailedRequestsDownToTheMinimum() {
+        var limiter = new AdaptiveConcurrencyLimiter(8, 3, 10, 0.5, MAX_LATENCY);
+
+        this.complete(limiter, MAX_LATENCY + 1, false);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+
+        this.complete(limiter, FAST, true);
+        assertThat(limiter.getLimit()).isEqualTo(3);
+
+        this.complete(limiter, MAX_LATENCY + 1, false);
+        assertThat(limiter.getLimit()).isEqualTo(3);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void release_shouldShrinkTheLimitOncePerWindow() {
+        var limiter = new AdaptiveConcurrencyLimiter(8, 1, 10, 0.5, MAX_LATENCY);
+
+        // one stall slows down every request in flight; it is a single signal, not eight
+        var admittedAt = this.now;
+        for (var i = 0; i < 8; i++) {
+            limiter.tryAcquire();
+        }
+        this.now += MAX_LATENCY * 2;
+        for (var i = 0; i < 8; i++) {
+            limiter.release(admittedAt, this.now, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(4);
+
+        // a request admitted after the cut that is still slow cuts again
+        this.complete(limiter, MAX_LATENCY + 1, false);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void release_shouldGrowTheLimitOnlyWhileItIsUsed() {
+        var limiter = new AdaptiveConcurrencyLimiter(2, 1, 3, 0.5, MAX_LATENCY);
+
+        // a single request in flight uses only half of the limit; growing would not be backed by evidence
+        this.complete(limiter, FAST, false);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+
+        for (var i = 0; i < 10; i++) {
+            var admittedAt = this.now;
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            this.now += FAST;
+            limiter.release(admittedAt, this.now, false);
+            limiter.release(admittedAt, this.now, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(3);
+    }
+
+    private void complete(AdaptiveConcurrencyLimiter limiter, long latency, boolean failed) {
+        var admittedAt = ++this.now;
+        assertThat(limiter.tryAcquire()).isTrue();
+        this.now += latency;
+        limiter.release(admittedAt, this.now, failed);
+    }
+}
@@ -0,0 +1,89 @@
+package com.ktilelis.todo;
+
+import com.ktilelis.todo.configuration.AdaptiveConcurrencyLimiter;
+import com.ktilelis.todo.configuration.AdmissionControlInterceptor;
+import com.ktilelis.todo.configuration.TokenBucketRateLimiter;
+import com.ktilelis.todo.exception.TodoOverloadedException;
+import com.ktilelis.todo.exception.TodoRateLimitedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControlInterceptorTest {
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimiter reads;
+    private AdaptiveConcurrencyLimiter writes;
+    private AdmissionControlInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.reads = new AdaptiveConcurrencyLimiter(1, 1, 10, 0.5, Duration.ofSeconds(1).toNanos());
+        this.writes = new AdaptiveConcurrencyLimiter(1, 1, 10, 0.5, Duration.ofSeconds(1).toNanos());
+        this.interceptor = new AdmissionControlInterceptor(new TokenBucketRateLimiter(1, 2, 100, System::nanoTime),
+                this.reads, this.writes, Duration.ofSeconds(2), this.meterRegistry);
+    }
+
+    @Test
+    void preHandle_shouldKeepSeparateBudgetsForReadsAndWrites() {
+        var read = request("GET", "10.0.0.1");
+        assertThat(this.interceptor.preHandle(read, this.response, null)).isTrue();
+
+        assertThatThrownBy(() -> this.interceptor.preHandle(request("HEAD", "10.0.0.2"), this.response, null))
+                .isInstanceOf(TodoOverloadedException.class)
+                .extracting("retryAfter").isEqualTo(Duration.ofSeconds(2));
+        assertThat(this.interceptor.preHandle(request("POST", "10.0.0.3"), this.response, null)).isTrue();
+        assertThat(this.meterRegistry.get("todo.admission.rejected").tag("reason", "reads").counter().count()).isEqualTo(1);
+
+        this.interceptor.afterCompletion(read, this.response, null, null);
+        assertThat(this.reads.getInFlight()).isZero();
+        assertThat(this.writes.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void preHandle_shouldRateLimitEachClient() {
+        var first = request("GET", "10.0.0.1");
+        this.interceptor.preHandle(first, this.response, null);
+        this.interceptor.afterCompletion(first, this.response, null, null);
+        var second = request("GET", "10.0.0.1");
+        this.interceptor.preHandle(second, this.response, null);
+        this.interceptor.afterCompletion(second, this.response, null, null);
+
+        assertThatThrownBy(() -> this.interceptor.preHandle(request("GET", "10.0.0.1"), this.response, null))
+                .isInstanceOf(TodoRateLimitedException.class);
+        assertThat(this.reads.getInFlight()).isZero();
+    }
+
+    @Test
+    void afterConcurrentHandlingStarted_shouldFreeTheSlotOfAStreamOnce() {
+        var stream = request("GET", "10.0.0.1");
+        this.interceptor.preHandle(stream, this.response, null);
+
+        this.interceptor.afterConcurrentHandlingStarted(stream, this.response, null);
+        assertThat(this.reads.getInFlight()).isZero();
+
+        // the dispatch that completes the stream is neither admitted nor sampled again
+        stream.setDispatcherType(DispatcherType.ASYNC);
+        assertThat(this.interceptor.preHandle(stream, this.response, null)).isTrue();
+        this.interceptor.afterCompletion(stream, this.response, null, null);
+        assertThat(this.reads.getInFlight()).isZero();
+        assertThat(this.reads.getLimit()).isEqualTo(1);
+    }
+
+    private static MockHttpServletRequest request(String method, String client) {
+        var request = new MockHttpServletRequest(method, "/v1/todo");
+        request.setRemoteAddr(client);
+        return request;
+    }
+}
@@ -0,0 +1,80 @@
+package com.ktilelis.todo;
+
+import com.ktilelis.todo.configuration.ConnectionLimitingDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionLimitingDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    @Test
+    void getConnection_shouldFailFastOnceAllPermitsAreTaken() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        var dataSource = new ConnectionLimitingDataSource(target, 1, Duration.ofMillis(50));
+
+        var first = dataSource.getConnection();
+        assertThat(dataSource.getAvailablePermits()).isZero();
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        verify(target, times(1)).getConnection();
+
+        first.close();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+        assertThat(dataSource.getConnection()).isNotNull();
+    }
+
+    @Test
+    void close_shouldReleaseThePermitOnlyOnce() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        var dataSource = new ConnectionLimitingDataSource(target, 2, Duration.ofMillis(50));
+
+        var borrowed = dataSource.getConnection();
+        borrowed.close();
+        borrowed.close();
+
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(2);
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void getConnection_shouldReturnThePermitWhenThePoolFails() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        var dataSource = new ConnectionLimitingDataSource(target, 1, Duration.ofMillis(50));
+
+        assertThatThrownBy(dataSource::getConnection).hasMessage("pool exhausted");
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void connection_shouldDelegateEverythingButClose() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(false);
+        when(connection.unwrap(Connection.class)).thenReturn(connection);
+        var dataSource = new ConnectionLimitingDataSource(target, 1, Duration.ofMillis(50));
+
+        var borrowed = dataSource.getConnection();
+
+        assertThat(borrowed.getAutoCommit()).isFalse();
+        assertThat(borrowed.unwrap(Connection.class)).isSameAs(connection);
+        doThrow(new SQLException("broken")).when(connection).commit();
+        assertThatThrownBy(borrowed::commit).isInstanceOf(SQLException.class).hasMessage("broken");
+    }
+}
@@ -0,0 +1,82 @@
+package com.ktilelis.todo;
+
+import com.ktilelis.todo.configuration.QueryCountingDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QueryCountingDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement preparedStatement;
+
+    @Mock
+    private Statement statement;
+
+    @Test
+    void stop_shouldCountEveryExecutedStatementOnceAndBatchesAsOne() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("UPDATE TODO_ENTRIES SET TITLE = ?")).thenReturn(preparedStatement);
+        when(connection.createStatement()).thenReturn(statement);
+        var dataSource = new QueryCountingDataSource(target);
+
+        dataSource.start();
+        try (var counted = dataSource.getConnection()) {
+            var update = counted.prepareStatement("UPDATE TODO_ENTRIES SET TITLE = ?");
+            update.setString(1, "first");
+            update.addBatch();
+            update.setString(1, "second");
+            update.addBatch();
+            update.executeBatch();
+            update.executeUpdate();
+            counted.createStatement().execute("SELECT 1");
+        }
+
+        assertThat(dataSource.stop()).isEqualTo(3);
+        verify(preparedStatement, times(2)).addBatch();
+        verify(connection).close();
+    }
+
+    @Test
+    void stop_shouldCountCopyThroughTheDriverApi() throws SQLException {
+        var pgConnection = mock(PGConnection.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        var dataSource = new QueryCountingDataSource(target);
+
+        dataSource.start();
+        dataSource.getConnection().unwrap(PGConnection.class).getCopyAPI();
+
+        assertThat(dataSource.stop()).isEqualTo(1);
+    }
+
+    @Test
+    void stop_shouldNotCountStatementsOutsideARequest() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        var dataSource = new QueryCountingDataSource(target);
+
+        dataSource.getConnection().createStatement().execute("SELECT 1");
+        dataSource.start();
+
+        assertThat(dataSource.stop()).isZero();
+    }
+}
@@ -0,0 +1,96 @@
+package com.ktilelis.todo;
+
+import com.ktilelis.todo.configuration.ReplicaRoutingDataSource;
+import com.ktilelis.todo.configuration.ReplicaRoutingDataSource.Replica;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+
+    @Test
+    void getConnection_shouldUseThePrimaryUntilAReplicaPassedAProbe() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        var replica = replicaLagging("replica-0", 0);
+        var dataSource = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofSeconds(5));
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+
+        dataSource.checkReplicas();
+        assertThat(dataSource.getConnection()).isNotSameAs(primaryConnection);
+    }
+
+    @Test
+    void getConnection_shouldRoundRobinAcrossUsableReplicas() throws SQLException {
+        var first = replicaLagging("replica-0", 0);
+        var second = replicaLagging("replica-1", 0.5);
+        var dataSource = new ReplicaRoutingDataSource(primary, List.of(first, second), Duration.ofSeconds(5));
+        dataSource.checkReplicas();
+
+        dataSource.getConnection();
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        // one probe each plus the routed connections
+        verify(first.getDataSource(), times(3)).getConnection();
+        verify(second.getDataSource(), times(2)).getConnection();
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void getConnection_shouldSkipReplicasBehindTheLagBound() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        var replica = replicaLagging("replica-0", 12.5);
+        var dataSource = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofSeconds(5));
+
+        dataSource.checkReplicas();
+
+        assertThat(replica.isUp()).isTrue();
+        assertThat(replica.getLag()).isEqualTo(Duration.ofMillis(12_500));
+        assertThat(dataSource.isUsable(replica)).isFalse();
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void getConnection_shouldFallBackToThePrimaryAndMarkTheReplicaDownWhenItFails() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        var replica = replicaLagging("replica-0", 0);
+        var dataSource = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofSeconds(5));
+        dataSource.checkReplicas();
+        when(replica.getDataSource().getConnection()).thenThrow(new SQLException("connection refused"));
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(replica.isUp()).isFalse();
+
+        // the failed probe keeps it down; no further connection attempts until a probe succeeds
+        dataSource.checkReplicas();
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        verify(replica.getDataSource(), times(3)).getConnection();
+    }
+
+    private static Replica replicaLagging(String name, double lagSeconds) throws SQLException {
+        var dataSource = mock(DataSource.class);
+        var connection = mock(Connection.class);
+        var statement = mock(Statement.class);
+        var resultSet = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getDouble(1)).thenReturn(lagSeconds);
+        return new Replica(name, dataSource);
+    }
+}
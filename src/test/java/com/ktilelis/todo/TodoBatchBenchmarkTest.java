@@ -0,0 +1,88 @@
+package com.ktilelis.todo;
+
+import com.ktilelis.todo.todomanagement.TodoRepository;
+import com.ktilelis.todo.todomanagement.TodoService;
+import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares insert throughput of the single-item path with the JDBC batched path.
+ * Run with {@code mvn test -Dtest=TodoBatchBenchmarkTest -Dbenchmark=true}.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class TodoBatchBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoBatchBenchmarkTest.class);
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 5_000);
+    private static final int BATCH_SIZE = 500;
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> DB_CONTAINER = new PostgreSQLContainer<>("postgres:17.5-alpine");
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @AfterEach
+    public void cleanUp() {
+        this.todoRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("batched inserts should outperform single-item inserts")
+    public void batchedInsertsShouldOutperformSingleItemInserts() {
+        var requests = IntStream.range(0, ROWS)
+                .mapToObj(i -> new TodoRequestDto("title " + i, "description " + i, null, null))
+                .toList();
+
+        // warm up both paths so the comparison does not measure class loading and JIT
+        requests.subList(0, BATCH_SIZE).forEach(this.todoService::createTodo);
+        this.todoService.createTodos(requests.subList(0, BATCH_SIZE));
+        this.todoRepository.deleteAllInBatch();
+
+        long singleStart = System.nanoTime();
+        requests.forEach(this.todoService::createTodo);
+        double singleRowsPerSecond = rowsPerSecond(ROWS, System.nanoTime() - singleStart);
+        this.todoRepository.deleteAllInBatch();
+
+        long batchStart = System.nanoTime();
+        for (int from = 0; from < ROWS; from += BATCH_SIZE) {
+            List<TodoRequestDto> chunk = requests.subList(from, Math.min(from + BATCH_SIZE, ROWS));
+            this.todoService.createTodos(chunk);
+        }
+        double batchRowsPerSecond = rowsPerSecond(ROWS, System.nanoTime() - batchStart);
+
+        logger.info("Inserted {} rows: single-item {} rows/s, batched {} rows/s ({}x)",
+                ROWS, Math.round(singleRowsPerSecond), Math.round(batchRowsPerSecond),
+                String.format("%.1f", batchRowsPerSecond / singleRowsPerSecond));
+
+        assertThat(this.todoRepository.count()).isEqualTo(ROWS);
+        assertThat(batchRowsPerSecond).isGreaterThan(singleRowsPerSecond);
+    }
+
+    private static double rowsPerSecond(int rows, long elapsedNanos) {
+        return rows / (elapsedNanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,177 @@
+package com.ktilelis.todo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktilelis.todo.todomanagement.TodoChangeFeed;
+import com.ktilelis.todo.todomanagement.model.TodoChangeDto;
+import com.ktilelis.todo.todomanagement.model.TodoChangeType;
+import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "todo.expiry.enabled=false",
+        "todo.changes.poll-interval=50ms"
+})
+@Testcontainers
+public class TodoChangeFeedIntegrationTest {
+
+    private final static String ALICE_URL = "/v1/owners/alice/todo";
+    private final static String BOB_URL = "/v1/owners/bob/todo";
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> DB_CONTAINER = new PostgreSQLContainer<>("postgres:17.5-alpine");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @AfterEach
+    void cleanUp() {
+        this.jdbcTemplate.update("DELETE FROM TODO_ENTRIES");
+    }
+
+    @Test
+    @DisplayName("should push creates, updates and deletes of the owner's todos only")
+    public void shouldStreamTheOwnersChanges() throws Exception {
+        try (var stream = this.open(ALICE_URL, null)) {
+            assertThat(stream.next().name()).isEqualTo(TodoChangeFeed.RESET_EVENT);
+
+            this.restTemplate.postForEntity(BOB_URL, new TodoRequestDto("bob's", null, null, null), TodoResponseDto.class);
+            final var id = this.restTemplate.postForEntity(ALICE_URL, new TodoRequestDto("alice's", null, null, null), TodoResponseDto.class).getBody().id();
+            this.restTemplate.exchange(ALICE_URL + "/" + id, HttpMethod.PUT, new HttpEntity<>(new TodoRequestDto("renamed", null, null, null)), Void.class);
+            this.restTemplate.delete(ALICE_URL + "/" + id);
+
+            final var created = this.change(stream.next());
+            assertThat(created.type()).isEqualTo(TodoChangeType.CREATED);
+            assertThat(created.todo().title()).isEqualTo("alice's");
+            final var updated = this.change(stream.next());
+            assertThat(updated.type()).isEqualTo(TodoChangeType.UPDATED);
+            assertThat(updated.todo().title()).isEqualTo("renamed");
+            assertThat(updated.todo().version()).isEqualTo(1L);
+            final var deleted = this.change(stream.next());
+            assertThat(deleted.type()).isEqualTo(TodoChangeType.DELETED);
+            assertThat(deleted.id()).isEqualTo(id);
+            assertThat(deleted.todo()).isNull();
+            assertThat(stream.poll()).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("should replay the changes after Last-Event-ID to a reconnecting client")
+    public void shouldResumeAfterTheLastEventId() throws Exception {
+        long lastEventId;
+        try (var stream = this.open(ALICE_URL, null)) {
+            this.restTemplate.postForEntity(ALICE_URL, new TodoRequestDto("seen", null, null, null), TodoResponseDto.class);
+            stream.next();
+            lastEventId = Long.parseLong(stream.next().id());
+        }
+        this.restTemplate.postForEntity(ALICE_URL, new TodoRequestDto("missed 1", null, null, null), TodoResponseDto.class);
+        this.restTemplate.postForEntity(ALICE_URL, new TodoRequestDto("missed 2", null, null, null), TodoResponseDto.class);
+
+        try (var stream = this.open(ALICE_URL, lastEventId)) {
+            assertThat(this.change(stream.next()).todo().title()).isEqualTo("missed 1");
+            assertThat(this.change(stream.next()).todo().title()).isEqualTo("missed 2");
+
+            this.restTemplate.postForEntity(ALICE_URL, new TodoRequestDto("live", null, null, null), TodoResponseDto.class);
+            assertThat(this.change(stream.next()).todo().title()).isEqualTo("live");
+        }
+    }
+
+    private TodoChangeDto change(Event event) throws Exception {
+        final var change = this.objectMapper.readValue(event.data(), TodoChangeDto.class);
+        assertThat(event.id()).isEqualTo(Long.toString(change.sequence()));
+        assertThat(event.name()).isEqualTo(change.type().getEventName());
+        return change;
+    }
+
+    private EventStream open(String path, Long lastEventId) {
+        final var request = HttpRequest.newBuilder(URI.create("http://localhost:" + this.port + path + "/changes")).header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", Long.toString(lastEventId));
+        }
+        final var events = new LinkedBlockingQueue<Event>();
+        final var body = this.httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofLines()).thenApply(HttpResponse::body);
+        body.thenAcceptAsync(lines -> readEvents(lines, events));
+        return new EventStream(events, body);
+    }
+
+    private static void readEvents(Stream<String> lines, BlockingQueue<Event> events) {
+        String id = null;
+        String name = null;
+        var data = new StringBuilder();
+        for (var line : (Iterable<String>) lines::iterator) {
+            if (line.isEmpty()) {
+                if (!data.isEmpty()) {
+                    events.add(new Event(id, name, data.toString()));
+                }
+                id = null;
+                name = null;
+                data.setLength(0);
+            } else if (line.startsWith("id:")) {
+                id = line.substring(3);
+            } else if (line.startsWith("event:")) {
+                name = line.substring(6);
+            } else if (line.startsWith("data:")) {
+                data.append(line.substring(5));
+            }
+        }
+    }
+
+    private record Event(String id, String name, String data) {
+    }
+
+    private record EventStream(BlockingQueue<Event> events, CompletableFuture<Stream<String>> body) implements AutoCloseable {
+
+        Event next() throws InterruptedException {
+            final var event = this.events.poll(10, TimeUnit.SECONDS);
+            assertThat(event).as("next event").isNotNull();
+            return event;
+        }
+
+        Event poll() throws InterruptedException {
+            return this.events.poll(500, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void close() {
+            // disconnects; the server notices with its next write to the stream
+            this.body.thenAccept(Stream::close);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.ktilelis.todo;
+
+import com.ktilelis.todo.todomanagement.TodoChangeFeed;
+import com.ktilelis.todo.todomanagement.TodoChangeLog;
+import com.ktilelis.todo.todomanagement.TodoChangeProperties;
+import com.ktilelis.todo.todomanagement.model.TodoChangeDto;
+import com.ktilelis.todo.todomanagement.model.TodoChangeType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TodoChangeFeedTest {
+
+    @Mock
+    private TodoChangeLog changeLog;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void poll_shouldWaitForAMissingSequenceBeforeSkippingIt() {
+        var feed = this.feed(Duration.ofHours(1), 10);
+        when(changeLog.latestSequence()).thenReturn(0L);
+        when(changeLog.findAfter(0L, 1000)).thenReturn(List.of(row(1), row(3)));
+        when(changeLog.findAfter(1L, 1000)).thenReturn(List.of(row(3)));
+
+        feed.poll();
+        feed.poll();
+
+        // 2 may still commit, so 3 is held back
+        assertThat(this.published()).isEqualTo(1);
+        verify(changeLog).findAfter(1L, 1000);
+    }
+
+    @Test
+    void poll_shouldSkipAMissingSequenceAfterTheGapTimeout() {
+        var feed = this.feed(Duration.ZERO, 10);
+        when(changeLog.latestSequence()).thenReturn(0L);
+        when(changeLog.findAfter(0L, 1000)).thenReturn(List.of(row(1), row(3)));
+
+        feed.poll();
+
+        assertThat(this.published()).isEqualTo(2);
+    }
+
+    @Test
+    void poll_shouldDisconnectSubscribersWhoseBufferOverflows() {
+        var feed = this.feed(Duration.ZERO, 2);
+        when(changeLog.latestSequence()).thenReturn(0L);
+        when(changeLog.findAfter(eq(0L), anyInt())).thenReturn(List.of(row(1), row(2)));
+
+        // the reset event and the first change fill the buffer; the second change overflows it
+        feed.subscribe("alice", null);
+        feed.poll();
+
+        assertThat(this.meterRegistry.get("todo.changes.dropped").counter().count()).isEqualTo(1);
+        assertThat(this.meterRegistry.get("todo.changes.subscribers").gauge().value()).isZero();
+    }
+
+    private TodoChangeFeed feed(Duration gapTimeout, int bufferSize) {
+        var properties = new TodoChangeProperties(Duration.ofMillis(500), 1000, bufferSize, 1000, gapTimeout,
+                Duration.ofSeconds(15), Duration.ofMinutes(30), Duration.ofHours(24), Duration.ofMinutes(10));
+        // buffers are never drained
+        return new TodoChangeFeed(changeLog, new TaskExecutorAdapter(task -> {
+        }), meterRegistry, properties);
+    }
+
+    private double published() {
+        return this.meterRegistry.get("todo.changes.published").counter().count();
+    }
+
+    private static TodoChangeLog.Row row(long sequence) {
+        return new TodoChangeLog.Row("alice", new TodoChangeDto(sequence, TodoChangeType.DELETED, sequence, null));
+    }
+}
@@ -1,40 +1,89 @@
 package com.ktilelis.todo;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.ktilelis.todo.configuration.AuditingConfiguration;
 import com.ktilelis.todo.todomanagement.TodoController;
+import com.ktilelis.todo.exception.TodoIdempotencyKeyReusedException;
+import com.ktilelis.todo.exception.TodoNotFoundException;
+import com.ktilelis.todo.exception.TodoOverloadedException;
+import com.ktilelis.todo.exception.TodoPreconditionFailedException;
+import com.ktilelis.todo.exception.TodoRateLimitedException;
+import com.ktilelis.todo.todomanagement.TodoChangeFeed;
+import com.ktilelis.todo.todomanagement.TodoExportWriter;
+import com.ktilelis.todo.todomanagement.TodoIdempotency;
+import com.ktilelis.todo.todomanagement.TodoImportService;
+import com.ktilelis.todo.todomanagement.TodoOwnerContext;
 import com.ktilelis.todo.todomanagement.TodoService;
+import com.ktilelis.todo.todomanagement.model.TodoBatchResultDto;
+import com.ktilelis.todo.todomanagement.model.TodoCursor;
+import com.ktilelis.todo.todomanagement.model.TodoEntry;
+import com.ktilelis.todo.todomanagement.model.TodoFileFormat;
+import com.ktilelis.todo.todomanagement.model.TodoField;
+import com.ktilelis.todo.todomanagement.model.TodoFilter;
+import com.ktilelis.todo.todomanagement.model.TodoImportResultDto;
 import com.ktilelis.todo.todomanagement.model.TodoMapper;
 import com.ktilelis.todo.todomanagement.model.TodoMapperImpl;
 import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
 import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import com.ktilelis.todo.todomanagement.model.TodoSliceResponseDto;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.json.JsonCompareMode;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = TodoController.class, excludeAutoConfiguration = AuditingConfiguration.class)
+@Import(TodoExportWriter.class)
 class TodoControllerTest {
 
     private static final String BASE_URL = "/v1/todo";
+    private static final TodoFilter NO_FILTER = new TodoFilter(null, null, null, null, null, null);
 
     @Autowired
     private MockMvc mockMvc;
@@ -42,29 +91,250 @@ class TodoControllerTest {
     @MockitoBean
     private TodoService todoService;
 
+    @MockitoBean
+    private TodoImportService todoImportService;
+
+    @MockitoBean
+    private TodoChangeFeed todoChangeFeed;
+
+    @MockitoBean
+    private TodoIdempotency todoIdempotency;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     @InjectMocks
     TodoMapper todoMapper = new TodoMapperImpl();
 
+    @BeforeEach
+    void executeWrites() {
+        when(this.todoIdempotency.execute(any(), any(), any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
+    }
+
     @Test
     @DisplayName("Should return OK when performing GET Todos")
     void getTodos_shouldReturnPageOfTodos() throws Exception {
-        TodoResponseDto dto = new TodoResponseDto(1L, "Test", "Description", false, LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now());
+        TodoResponseDto dto = new TodoResponseDto(1L, "Test", "Description", false, LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now(), 0L);
         Page<TodoResponseDto> page = new PageImpl<>(List.of(dto));
 
-        Mockito.when(this.todoService.getTodos(any(PageRequest.class))).thenReturn(page);
+        Mockito.when(this.todoService.getTodos(any(TodoFilter.class), isNull(), any(PageRequest.class))).thenReturn(page);
 
         mockMvc.perform(get(BASE_URL))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content[0].id").value(1));
     }
 
+    @Test
+    @DisplayName("Should pass filter parameters through when performing GET Todos")
+    void getTodos_shouldBindFilterParameters() throws Exception {
+        var filter = new TodoFilter(false, null, LocalDateTime.of(2025, 2, 1, 0, 0),
+                LocalDateTime.of(2025, 1, 1, 0, 0), null, "milk");
+        when(this.todoService.getTodos(eq(filter), isNull(), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of()));
+
+        mockMvc.perform(get(BASE_URL)
+                        .param("done", "false")
+                        .param("expiresBefore", "2025-02-01T00:00:00")
+                        .param("createdFrom", "2025-01-01T00:00:00")
+                        .param("q", "milk"))
+                .andExpect(status().isOk());
+
+        verify(this.todoService).getTodos(eq(filter), isNull(), any(PageRequest.class));
+    }
+
+    @Test
+    @DisplayName("Should sort by the requested field with id as a tiebreaker")
+    void getTodos_shouldAppendIdTiebreakerToSort() throws Exception {
+        var expectedPage = PageRequest.of(0, 20, Sort.by(Sort.Direction.ASC, "title", "id"));
+        when(this.todoService.getTodos(any(TodoFilter.class), isNull(), eq(expectedPage))).thenReturn(new PageImpl<>(List.of()));
+
+        mockMvc.perform(get(BASE_URL)
+                        .param("sortField", "title")
+                        .param("sortDirection", "ASC"))
+                .andExpect(status().isOk());
+
+        verify(this.todoService).getTodos(any(TodoFilter.class), isNull(), eq(expectedPage));
+    }
+
+    @Test
+    @DisplayName("Should use the estimated total when count=estimated")
+    void getTodos_shouldUseEstimatedCountWhenRequested() throws Exception {
+        when(this.todoService.getTodosWithEstimatedCount(any(TodoFilter.class), isNull(), any(PageRequest.class)))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 20), 5000));
+
+        mockMvc.perform(get(BASE_URL).param("count", "estimated"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.page.totalElements").value(5000));
+
+        verify(this.todoService, Mockito.never()).getTodos(any(TodoFilter.class), isNull(), any(PageRequest.class));
+    }
+
+    @Test
+    @DisplayName("Should return a slice without totals when count=none")
+    void getTodos_shouldReturnSliceWhenCountIsNone() throws Exception {
+        var dto = new TodoResponseDto(3L, "Test", "Description", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
+        var filter = new TodoFilter(true, null, null, null, null, null);
+        when(this.todoService.getTodoSlice(eq(filter), isNull(), eq(PageRequest.of(2, 1, Sort.by(Sort.Direction.DESC, "updatedAt", "id")))))
+                .thenReturn(new TodoSliceResponseDto(List.of(dto), 1, true, null));
+
+        mockMvc.perform(get(BASE_URL)
+                        .param("count", "none")
+                        .param("done", "true")
+                        .param("page", "2")
+                        .param("pageSize", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(3))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.page").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should page by keyset when count=none is combined with keyset pagination")
+    void getTodos_shouldPreferKeysetPaginationOverCountNone() throws Exception {
+        when(this.todoService.getTodosAfter(NO_FILTER, null, 20, Sort.Direction.DESC)).thenReturn(new TodoSliceResponseDto(List.of(), 0, false, null));
+
+        mockMvc.perform(get(BASE_URL)
+                        .param("count", "none")
+                        .param("pagination", "keyset"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        verify(this.todoService, Mockito.never()).getTodoSlice(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should skip the count when count=none is combined with offset pagination")
+    void getTodos_shouldNotCountWithOffsetPagination() throws Exception {
+        when(this.todoService.getTodoSlice(any(TodoFilter.class), isNull(), any(PageRequest.class))).thenReturn(new TodoSliceResponseDto(List.of(), 0, false, null));
+
+        mockMvc.perform(get(BASE_URL)
+                        .param("count", "none")
+                        .param("pagination", "offset"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        verify(this.todoService, Mockito.never()).getTodos(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should return BAD_REQUEST for an unknown count mode")
+    void getTodos_shouldRejectUnknownCountMode() throws Exception {
+        mockMvc.perform(get(BASE_URL).param("count", "approximate"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors[0].fieldName").value("count"));
+
+        Mockito.verifyNoInteractions(this.todoService);
+    }
+
+    @Test
+    @DisplayName("Should return BAD_REQUEST when sorting by a field without a supporting index")
+    void getTodos_shouldRejectUnsortableField() throws Exception {
+        mockMvc.perform(get(BASE_URL).param("sortField", "description"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors[0].fieldName").value("sortField"));
+
+        Mockito.verifyNoInteractions(this.todoService);
+    }
+
+    @Test
+    @DisplayName("Should return BAD_REQUEST when a date filter is not ISO formatted")
+    void getTodos_shouldRejectMalformedDateFilter() throws Exception {
+        mockMvc.perform(get(BASE_URL).param("expiresBefore", "tomorrow"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors[0].fieldName").value("expiresBefore"))
+                .andExpect(jsonPath("$.validationErrors[0].errorMessage").value("Invalid value for parameter expiresBefore"));
+    }
+
+    @Test
+    @DisplayName("Should return a slice without totals when performing GET Todos in keyset mode")
+    void getTodosKeyset_shouldReturnSliceOfTodos() throws Exception {
+        var cursor = new TodoCursor(LocalDateTime.of(2025, 1, 1, 10, 0), 7L);
+        var dto = new TodoResponseDto(6L, "Test", "Description", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
+        var slice = new TodoSliceResponseDto(List.of(dto), 1, true, "next");
+
+        when(this.todoService.getTodosAfter(NO_FILTER, cursor, 1, Sort.Direction.DESC)).thenReturn(slice);
+
+        mockMvc.perform(get(BASE_URL)
+                        .param("pagination", "keyset")
+                        .param("after", cursor.encode())
+                        .param("pageSize", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(6))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should return BAD_REQUEST when performing GET Todos in keyset mode with a malformed cursor")
+    void getTodosKeyset_shouldReturnBadRequestForMalformedCursor() throws Exception {
+        mockMvc.perform(get(BASE_URL)
+                        .param("pagination", "keyset")
+                        .param("after", "%%%"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors[0].fieldName").value("after"));
+
+        Mockito.verify(this.todoService, Mockito.never()).getTodosAfter(any(), any(), eq(20), any());
+    }
+
+    @Test
+    @DisplayName("Should apply the filters when performing GET Todos in keyset mode")
+    void getTodosKeyset_shouldApplyFilters() throws Exception {
+        var filter = new TodoFilter(false, null, null, null, null, "foo");
+        var dto = new TodoResponseDto(6L, "foo", "Description", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
+        when(this.todoService.getTodosAfter(filter, null, 20, Sort.Direction.DESC)).thenReturn(new TodoSliceResponseDto(List.of(dto), 1, false, null));
+
+        mockMvc.perform(get(BASE_URL)
+                        .param("count", "none")
+                        .param("pagination", "keyset")
+                        .param("done", "false")
+                        .param("q", "foo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(6));
+    }
+
+    @Test
+    @DisplayName("Should return BAD_REQUEST when performing GET Todos in keyset mode sorted by another field than updatedAt")
+    void getTodosKeyset_shouldRejectOtherSortFields() throws Exception {
+        mockMvc.perform(get(BASE_URL)
+                        .param("pagination", "keyset")
+                        .param("sortField", "title"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors[0].fieldName").value("sortFieldSupported"));
+
+        Mockito.verifyNoInteractions(this.todoService);
+    }
+
+    @Test
+    @DisplayName("Should read and render only the requested fields of a list")
+    void getTodos_shouldRenderOnlyTheRequestedFields() throws Exception {
+        var dto = new TodoResponseDto(1L, "Test", null, null, null, null, null, 0L);
+        when(this.todoService.getTodos(any(TodoFilter.class), eq(EnumSet.of(TodoField.ID, TodoField.TITLE)), any(PageRequest.class)))
+                .thenReturn(new PageImpl<>(List.of(dto)));
+
+        mockMvc.perform(get(BASE_URL).param("fields", "id,title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.content[0].title").value("Test"))
+                .andExpect(jsonPath("$.content[0].version").doesNotExist())
+                .andExpect(jsonPath("$.content[0].done").doesNotExist())
+                .andExpect(jsonPath("$.page.totalElements").value(1));
+    }
+
+    @Test
+    @DisplayName("Should return BAD REQUEST for an unknown field")
+    void getTodos_shouldRejectUnknownField() throws Exception {
+        mockMvc.perform(get(BASE_URL).param("fields", "id,owner"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(this.todoService);
+    }
+
     @Test
     @DisplayName("Should return OK when performing GET Todo by Id")
     void getTodo_shouldReturnTodoById() throws Exception {
-        var dto = new TodoResponseDto(1L, "Test", "Description", false, LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now());
+        var dto = new TodoResponseDto(1L, "Test", "Description", false, LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now(), 0L);
 
         Mockito.when(this.todoService.getTodoById(1L)).thenReturn(dto);
 
@@ -73,6 +343,110 @@ class TodoControllerTest {
                 .andExpect(jsonPath("$.id").value(1));
     }
 
+    @Test
+    @DisplayName("Should render only the requested fields of a single todo")
+    void getTodo_shouldRenderOnlyTheRequestedFields() throws Exception {
+        var dto = new TodoResponseDto(1L, "Test", "Description", false, null, LocalDateTime.now(), LocalDateTime.now(), 3L);
+        when(this.todoService.getTodoById(1L)).thenReturn(dto);
+
+        mockMvc.perform(get(BASE_URL + "/1").param("fields", "done"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().json("{\"done\":false}", JsonCompareMode.STRICT));
+    }
+
+    @Test
+    @DisplayName("Should work on the owner in the route and on the default owner without one")
+    void getTodo_shouldBindTheOwnerFromTheRoute() throws Exception {
+        var dto = new TodoResponseDto(1L, "Test", "Description", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
+        var owners = new ArrayList<String>();
+        when(this.todoService.getTodoById(1L)).thenAnswer(invocation -> {
+            owners.add(TodoOwnerContext.current());
+            return dto;
+        });
+
+        mockMvc.perform(get("/v1/owners/alice/todo/1")).andExpect(status().isOk());
+        mockMvc.perform(get(BASE_URL + "/1")).andExpect(status().isOk());
+
+        assertThat(owners).containsExactly("alice", TodoOwnerContext.DEFAULT_OWNER);
+    }
+
+    @Test
+    @DisplayName("Should open a change stream for the route's owner, resuming after Last-Event-ID")
+    void streamChanges_shouldSubscribeTheOwnerAfterTheLastEventId() throws Exception {
+        when(this.todoChangeFeed.subscribe(any(), any())).thenAnswer(invocation -> new SseEmitter());
+
+        mockMvc.perform(get("/v1/owners/alice/todo/changes").header("Last-Event-ID", "42").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+        mockMvc.perform(get(BASE_URL + "/changes").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(this.todoChangeFeed).subscribe("alice", 42L);
+        verify(this.todoChangeFeed).subscribe(TodoOwnerContext.DEFAULT_OWNER, null);
+    }
+
+    @Test
+    @DisplayName("Should return NOT_MODIFIED without a body when the Todo's ETag still matches")
+    void getTodo_shouldReturnNotModifiedForMatchingETag() throws Exception {
+        var dto = new TodoResponseDto(1L, "Test", "Description", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
+        Mockito.when(this.todoService.getTodoById(1L)).thenReturn(dto);
+
+        var response = mockMvc.perform(get(BASE_URL + "/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse();
+        var etag = response.getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"");
+
+        mockMvc.perform(get(BASE_URL + "/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("Should return NOT_MODIFIED when a page of Todos did not change")
+    void getTodos_shouldReturnNotModifiedForMatchingETag() throws Exception {
+        var dto = new TodoResponseDto(1L, "Test", "Description", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
+        when(this.todoService.getTodos(any(TodoFilter.class), isNull(), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(dto)));
+
+        var etag = mockMvc.perform(get(BASE_URL)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        // weak, so Tomcat may compress the page
+        assertThat(etag).startsWith("W/\"");
+
+        mockMvc.perform(get(BASE_URL).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        var changed = new TodoResponseDto(1L, "Test", "Description", false, null, dto.createdAt(), dto.updatedAt().plusSeconds(1), 1L);
+        when(this.todoService.getTodos(any(TodoFilter.class), isNull(), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(changed)));
+
+        mockMvc.perform(get(BASE_URL).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Should write pages as CBOR or Smile when the client accepts them")
+    void getTodos_shouldNegotiateBinaryEncodings() throws Exception {
+        var dto = new TodoResponseDto(1L, "Test", null, false, null, LocalDateTime.of(2025, 1, 1, 10, 0), LocalDateTime.of(2025, 1, 1, 10, 0), 2L);
+        when(this.todoService.getTodos(any(TodoFilter.class), any(), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(dto)));
+
+        var cbor = mockMvc.perform(get(BASE_URL).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        var page = new CBORMapper().readTree(cbor);
+        assertThat(page.at("/content/0/title").asText()).isEqualTo("Test");
+        assertThat(page.at("/content/0/createdAt").asText()).isEqualTo("2025-01-01T10:00:00");
+        assertThat(page.at("/page/totalElements").asLong()).isEqualTo(1L);
+
+        var smile = mockMvc.perform(get(BASE_URL).param("fields", "version").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(new SmileMapper().readTree(smile).at("/content/0").toString()).isEqualTo("{\"version\":2}");
+
+        mockMvc.perform(get(BASE_URL))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
     @Test
     @DisplayName("Should return NOT_FOUND when requesting non existing TODO by ID")
     void getTodo_shouldReturnNotFoundWhenRequestingNonExistingId() throws Exception {
@@ -80,10 +454,19 @@ class TodoControllerTest {
         mockMvc.perform(get(BASE_URL + "/{id}", 1L)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Should resolve the NOT_FOUND message for a missing TODO from the message template")
+    void getTodo_shouldResolveNotFoundMessageFromTemplate() throws Exception {
+        when(todoService.getTodoById(12345L)).thenThrow(new TodoNotFoundException(12345L));
+        mockMvc.perform(get(BASE_URL + "/{id}", 12345L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("TODO with id 12345 not found"));
+    }
+
     @Test
     @DisplayName("Should return BAD_REQUEST when sending an invalid request")
     void getTodo_shouldReturnBadRequestWhenSendingInvalidRequest() throws Exception {
-        var todoRequest = new TodoRequestDto(null, "description", LocalDateTime.now());
+        var todoRequest = new TodoRequestDto(null, "description", LocalDateTime.now(), null);
         mockMvc.perform(put(BASE_URL + "/{id}", 1L)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(todoRequest)))
@@ -93,8 +476,8 @@ class TodoControllerTest {
     @Test
     @DisplayName("Should return CREATED and the created Todo when creating a todo")
     void createTodo_shouldReturnCreatedTodo() throws Exception {
-        TodoRequestDto requestDto = new TodoRequestDto("Test", "Description", null);
-        TodoResponseDto responseDto = new TodoResponseDto(1L, "Test", "Description", false, LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now());
+        TodoRequestDto requestDto = new TodoRequestDto("Test", "Description", null, null);
+        TodoResponseDto responseDto = new TodoResponseDto(1L, "Test", "Description", false, LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now(), 0L);
 
         Mockito.when(this.todoService.createTodo(any(TodoRequestDto.class))).thenReturn(responseDto);
 
@@ -105,18 +488,180 @@ class TodoControllerTest {
                 .andExpect(jsonPath("$.id").value(1));
     }
 
+    @Test
+    @DisplayName("Should ignore fields on routes that do not select fields, such as creating a todo")
+    void createTodo_shouldIgnoreFieldsParameter() throws Exception {
+        var requestDto = new TodoRequestDto("Test", "Description", null, null);
+        var responseDto = new TodoResponseDto(1L, "Test", "Description", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
+        when(this.todoService.createTodo(any(TodoRequestDto.class))).thenReturn(responseDto);
+
+        mockMvc.perform(post(BASE_URL)
+                        .param("fields", "bogus")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.title").value("Test"));
+    }
+
+    @Test
+    @DisplayName("Should pass the Idempotency-Key through when creating a todo")
+    void createTodo_shouldPassIdempotencyKey() throws Exception {
+        var requestDto = new TodoRequestDto("Test", "Description", null, null);
+
+        mockMvc.perform(post(BASE_URL)
+                        .header("Idempotency-Key", "order-42")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isCreated());
+
+        verify(this.todoIdempotency).execute(eq("order-42"), eq(requestDto), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should return UNPROCESSABLE_ENTITY when an Idempotency-Key is reused for a different todo")
+    void createTodo_shouldRejectReusedIdempotencyKey() throws Exception {
+        doThrow(new TodoIdempotencyKeyReusedException("order-42")).when(this.todoIdempotency).execute(eq("order-42"), any(), any(), any());
+
+        mockMvc.perform(post(BASE_URL)
+                        .header("Idempotency-Key", "order-42")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TodoRequestDto("Other", null, null, null))))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("Idempotency key order-42 was already used for a different request"));
+        verifyNoInteractions(this.todoService);
+    }
+
+    @Test
+    @DisplayName("Should return BAD_REQUEST when the Idempotency-Key is too long")
+    void createTodo_shouldRejectOverlongIdempotencyKey() throws Exception {
+        mockMvc.perform(post(BASE_URL)
+                        .header("Idempotency-Key", "k".repeat(256))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TodoRequestDto("Test", null, null, null))))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(this.todoIdempotency);
+    }
+
+    @Test
+    @DisplayName("Should return TOO_MANY_REQUESTS with Retry-After rounded up to whole seconds when rate limited")
+    void getTodo_shouldAnswerRateLimitedRequestsWithRetryAfter() throws Exception {
+        when(this.todoService.getTodoById(1L)).thenThrow(new TodoRateLimitedException(Duration.ofMillis(1200)));
+
+        mockMvc.perform(get(BASE_URL + "/1"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.message").value("Too many requests, retry later"));
+    }
+
+    @Test
+    @DisplayName("Should return SERVICE_UNAVAILABLE with Retry-After when overloaded")
+    void getTodo_shouldAnswerShedRequestsWithRetryAfter() throws Exception {
+        when(this.todoService.getTodoById(1L)).thenThrow(new TodoOverloadedException("reads", Duration.ofSeconds(1)));
+
+        mockMvc.perform(get(BASE_URL + "/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.message").value("The service is at capacity, retry later"));
+    }
+
+    @Test
+    @DisplayName("Should return SERVICE_UNAVAILABLE with Retry-After when no database connection is available in time")
+    void getTodo_shouldAnswerConnectionTimeoutsWithRetryAfter() throws Exception {
+        when(this.todoService.getTodoById(1L)).thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction",
+                new SQLTransientConnectionException("No database permit available within PT5S (12 callers waiting)")));
+
+        mockMvc.perform(get(BASE_URL + "/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.message").value("The service is at capacity, retry later"));
+    }
+
+    @Test
+    @DisplayName("Should return INTERNAL_SERVER_ERROR for other data access failures")
+    void getTodo_shouldAnswerOtherDataAccessFailuresAsServerErrors() throws Exception {
+        when(this.todoService.getTodoById(1L)).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        mockMvc.perform(get(BASE_URL + "/1"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(header().doesNotExist(HttpHeaders.RETRY_AFTER));
+    }
+
     @Test
     @DisplayName("Should return NO_CONTENT when updating a Todo")
     void updateTodo_shouldReturnNoContent() throws Exception {
-        var requestDto = new TodoRequestDto("Updated", "Updated desc", null);
-        var responseDto = new TodoResponseDto(1L, requestDto.title(), requestDto.description(), false, LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now());
+        var requestDto = new TodoRequestDto("Updated", "Updated desc", null, null);
+
+        mockMvc.perform(put(BASE_URL + "/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isNoContent());
+
+        Mockito.verify(this.todoService).updateTodo(1L, requestDto, null);
+    }
+
+    @Test
+    @DisplayName("Should pass the version named by If-Match on to the update")
+    void updateTodo_shouldUseIfMatchAsExpectedVersion() throws Exception {
+        var updatedAt = LocalDateTime.of(2025, 1, 1, 10, 0, 0, 123456000);
+        var current = new TodoResponseDto(1L, "Test", null, false, null, updatedAt, updatedAt, 3L);
+        when(this.todoService.getTodoById(1L)).thenReturn(current);
+        var etag = mockMvc.perform(get(BASE_URL + "/1")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        var requestDto = new TodoRequestDto("Updated", null, null, null);
+
+        mockMvc.perform(put(BASE_URL + "/1")
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isNoContent());
+
+        Mockito.verify(this.todoService).updateTodo(1L, requestDto, Set.of(3L));
+    }
 
-        when(todoService.updateTodo(1L, requestDto)).thenReturn(responseDto);
+    @Test
+    @DisplayName("Should pass every strong version listed by If-Match on to the update")
+    void updateTodo_shouldAcceptAnyOfSeveralIfMatchVersions() throws Exception {
+        var requestDto = new TodoRequestDto("Updated", null, null, null);
 
         mockMvc.perform(put(BASE_URL + "/1")
+                        .header(HttpHeaders.IF_MATCH, "\"3\", W/\"5\", \"4\"")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(requestDto)))
                 .andExpect(status().isNoContent());
+
+        Mockito.verify(this.todoService).updateTodo(1L, requestDto, Set.of(3L, 4L));
+    }
+
+    @Test
+    @DisplayName("Should return CONFLICT when the version in the body is stale")
+    void updateTodo_shouldReturnConflictForStaleVersion() throws Exception {
+        var requestDto = new TodoRequestDto("Updated", null, null, 2L);
+        Mockito.doThrow(new ObjectOptimisticLockingFailureException(TodoEntry.class, 1L)).when(this.todoService).updateTodo(1L, requestDto, null);
+
+        mockMvc.perform(put(BASE_URL + "/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.httpStatus").value("CONFLICT"));
+    }
+
+    @Test
+    @DisplayName("Should return PRECONDITION_FAILED when If-Match names a stale or malformed version")
+    void updateTodo_shouldReturnPreconditionFailed() throws Exception {
+        var requestDto = new TodoRequestDto("Updated", null, null, null);
+        Mockito.doThrow(new TodoPreconditionFailedException(1L)).when(this.todoService).updateTodo(eq(1L), eq(requestDto), any());
+
+        mockMvc.perform(put(BASE_URL + "/1")
+                        .header(HttpHeaders.IF_MATCH, "\"5\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(put(BASE_URL + "/1")
+                        .header(HttpHeaders.IF_MATCH, "W/\"5\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isPreconditionFailed());
     }
 
     @Test
@@ -127,5 +672,107 @@ class TodoControllerTest {
         Mockito.verify(this.todoService).deleteTodo(1L);
     }
 
+    @Test
+    @DisplayName("Should return per item results when creating todos in batch")
+    void createTodos_shouldReturnPerItemResults() throws Exception {
+        var requests = List.of(new TodoRequestDto("Test", "Description", null, null));
+        var responseDto = new TodoResponseDto(1L, "Test", "Description", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
+
+        when(this.todoService.createTodos(requests)).thenReturn(List.of(TodoBatchResultDto.success(0, HttpStatus.CREATED, responseDto)));
+
+        mockMvc.perform(post(BASE_URL + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].httpStatus").value("CREATED"))
+                .andExpect(jsonPath("$[0].todo.id").value(1));
+    }
+
+    @Test
+    @DisplayName("Should return BAD_REQUEST when sending an empty batch")
+    void createTodos_shouldReturnBadRequestForEmptyBatch() throws Exception {
+        mockMvc.perform(post(BASE_URL + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should return per item results when deleting todos in batch")
+    void deleteTodos_shouldReturnPerItemResults() throws Exception {
+        when(this.todoService.deleteTodos(List.of(1L, 2L))).thenReturn(List.of(
+                TodoBatchResultDto.deleted(0, 1L),
+                TodoBatchResultDto.notFound(1, 2L, "TODO with id 2 not found")));
+
+        mockMvc.perform(delete(BASE_URL + "/batch").param("ids", "1", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].httpStatus").value("NO_CONTENT"))
+                .andExpect(jsonPath("$[1].httpStatus").value("NOT_FOUND"));
+    }
+
+    @Test
+    @DisplayName("Should stream every todo as NDJSON when exporting")
+    void exportTodos_shouldStreamNdjson() throws Exception {
+        var first = new TodoResponseDto(1L, "first", "Description", false, null, null, null, 0L);
+        var second = new TodoResponseDto(2L, "second", null, true, null, null, null, 0L);
+        doAnswer(invocation -> {
+            Consumer<TodoResponseDto> consumer = invocation.getArgument(0);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(this.todoService).exportTodos(any());
+
+        var result = mockMvc.perform(get(BASE_URL + "/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(content().string(objectMapper.writeValueAsString(first) + "\n" + objectMapper.writeValueAsString(second) + "\n"));
+    }
+
+    @Test
+    @DisplayName("Should stream every todo as CSV when exporting with format CSV")
+    void exportTodos_shouldStreamCsv() throws Exception {
+        var todo = new TodoResponseDto(1L, "title, with comma", "say \"hi\"", false, null, LocalDateTime.of(2025, 1, 1, 10, 0), null, 0L);
+        doAnswer(invocation -> {
+            Consumer<TodoResponseDto> consumer = invocation.getArgument(0);
+            consumer.accept(todo);
+            return null;
+        }).when(this.todoService).exportTodos(any());
+
+        var result = mockMvc.perform(get(BASE_URL + "/export").param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"todos.csv\""))
+                .andExpect(content().string("id,title,description,done,expiresAt,createdAt,updatedAt\n"
+                        + "1,\"title, with comma\",\"say \"\"hi\"\"\",false,,2025-01-01T10:00,\n"));
+    }
 
+    @Test
+    @DisplayName("Should import a CSV upload and return the import report")
+    void importTodos_shouldDelegateCsvUploads() throws Exception {
+        var report = new TodoImportResultDto(2, 0, List.of(), 5, 400.0);
+        when(this.todoImportService.importTodos(eq(TodoFileFormat.CSV), any())).thenReturn(report);
+
+        mockMvc.perform(post(BASE_URL + "/import")
+                        .contentType("text/csv")
+                        .content("title,description,expiresAt\nfirst,,\nsecond,,\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(0));
+    }
+
+    @Test
+    @DisplayName("Should return UNSUPPORTED_MEDIA_TYPE when importing an unsupported format")
+    void importTodos_shouldRejectUnsupportedFormats() throws Exception {
+        mockMvc.perform(post(BASE_URL + "/import")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .content("<todos/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
 }
@@ -0,0 +1,96 @@
+package com.ktilelis.todo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "todo.expiry.enabled=false")
+@Testcontainers
+@Sql(statements = "INSERT INTO TODO_ENTRIES(title, description, is_done) SELECT 'todo ' || g, 'description of todo ' || g, false FROM generate_series(1, 100) g")
+@Sql(statements = "DELETE FROM TODO_ENTRIES", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class TodoEncodingIntegrationTest {
+
+    private final static String BASE_URL = "/v1/todo?pageSize=100";
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> DB_CONTAINER = new PostgreSQLContainer<>("postgres:17.5-alpine");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    @DisplayName("should gzip large pages for clients that accept it and keep their ETag usable")
+    public void shouldCompressLargePages() throws Exception {
+        final var plain = this.get(BASE_URL, "application/json", null);
+        assertThat(plain.headers().firstValue("Content-Encoding")).isEmpty();
+
+        final var compressed = this.get(BASE_URL, "application/json", "gzip");
+        assertThat(compressed.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(compressed.headers().allValues("Vary")).anyMatch(vary -> vary.contains("accept-encoding"));
+        assertThat(compressed.body().length).isLessThan(plain.body().length / 4);
+        try (var body = new GZIPInputStream(new ByteArrayInputStream(compressed.body()))) {
+            assertThat(body.readAllBytes()).isEqualTo(plain.body());
+        }
+
+        final var etag = compressed.headers().firstValue("ETag").orElseThrow();
+        assertThat(etag).startsWith("W/");
+        final var conditional = this.httpClient.send(HttpRequest.newBuilder(this.uri(BASE_URL))
+                .header("Accept-Encoding", "gzip")
+                .header("If-None-Match", etag)
+                .build(), HttpResponse.BodyHandlers.discarding());
+        assertThat(conditional.statusCode()).isEqualTo(304);
+    }
+
+    @Test
+    @DisplayName("should encode the same page as CBOR in fewer bytes")
+    public void shouldEncodePagesAsCbor() throws Exception {
+        final var json = this.get(BASE_URL, "application/json", null);
+        final var cbor = this.get(BASE_URL, "application/cbor", null);
+        assertThat(cbor.headers().firstValue("Content-Type")).hasValue("application/cbor");
+        assertThat(cbor.body().length).isLessThan(json.body().length);
+
+        final var fromJson = this.objectMapper.readTree(json.body());
+        final var fromCbor = new CBORMapper().readTree(cbor.body());
+        assertThat(fromCbor).isEqualTo(fromJson);
+        assertThat(this.objectMapper.treeToValue(fromCbor.at("/content/0"), TodoResponseDto.class).title()).startsWith("todo ");
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding) throws Exception {
+        final var request = HttpRequest.newBuilder(this.uri(path)).header("Accept", accept);
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        final var response = this.httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return response;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + this.port + path);
+    }
+}
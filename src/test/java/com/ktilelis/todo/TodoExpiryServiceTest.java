@@ -0,0 +1,113 @@
+package com.ktilelis.todo;
+
+import com.ktilelis.todo.todomanagement.TodoExpiryNotifier;
+import com.ktilelis.todo.todomanagement.TodoExpiryProperties;
+import com.ktilelis.todo.todomanagement.TodoExpiryService;
+import com.ktilelis.todo.todomanagement.TodoRepository;
+import com.ktilelis.todo.todomanagement.model.TodoEntry;
+import com.ktilelis.todo.todomanagement.model.TodoMapper;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.mail.MailSendException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TodoExpiryServiceTest {
+
+    @Mock
+    private TodoRepository todoRepository;
+
+    @Mock
+    private TodoMapper todoMapper;
+
+    @Mock
+    private TodoExpiryNotifier notifier;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TodoExpiryService todoExpiryService;
+
+    @BeforeEach
+    void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        var properties = new TodoExpiryProperties(true, Duration.ofSeconds(30), 2, 10, Duration.ofSeconds(5), null, null);
+        this.todoExpiryService = new TodoExpiryService(todoRepository, todoMapper, notifier,
+                new TransactionTemplate(transactionManager), new TaskExecutorAdapter(new SyncTaskExecutor()), meterRegistry, properties);
+    }
+
+    @Test
+    void processDueTodos_shouldClaimBatchesUntilOneIsNotFull() {
+        var first = entry(1L);
+        var second = entry(2L);
+        var third = entry(3L);
+        when(todoRepository.findDueForExpiryNotification(any(LocalDateTime.class), eq(2)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+        when(todoMapper.toDto(any(TodoEntry.class))).thenAnswer(invocation -> dto(invocation.getArgument(0)));
+
+        var processed = todoExpiryService.processDueTodos();
+
+        assertThat(processed).isEqualTo(3);
+        verify(todoRepository).markExpiryNotified(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(todoRepository).markExpiryNotified(eq(List.of(3L)), any(LocalDateTime.class));
+        verify(notifier, times(3)).notifyExpired(any(TodoResponseDto.class));
+        assertThat(meterRegistry.get("todo.expiry.notifications").tag("outcome", "delivered").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("todo.expiry.batch.size").summary().totalAmount()).isEqualTo(3);
+        assertThat(meterRegistry.get("todo.expiry.lag").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void processDueTodos_shouldDoNothingWhenNothingIsDue() {
+        when(todoRepository.findDueForExpiryNotification(any(LocalDateTime.class), anyInt())).thenReturn(List.of());
+
+        assertThat(todoExpiryService.processDueTodos()).isZero();
+
+        verify(todoRepository, never()).markExpiryNotified(any(), any());
+        verifyNoInteractions(notifier);
+    }
+
+    @Test
+    void processDueTodos_shouldReleaseClaimWhenNotificationFails() {
+        var due = entry(1L);
+        when(todoRepository.findDueForExpiryNotification(any(LocalDateTime.class), anyInt())).thenReturn(List.of(due));
+        when(todoMapper.toDto(due)).thenReturn(dto(due));
+        doThrow(new MailSendException("smtp down")).when(notifier).notifyExpired(any(TodoResponseDto.class));
+
+        todoExpiryService.processDueTodos();
+
+        verify(todoRepository).releaseExpiryClaim(eq(1L), any(LocalDateTime.class));
+        assertThat(meterRegistry.get("todo.expiry.notifications").tag("outcome", "failed").counter().count()).isEqualTo(1);
+    }
+
+    private static TodoEntry entry(Long id) {
+        var entry = new TodoEntry();
+        entry.setId(id);
+        entry.setTitle("title " + id);
+        entry.setExpiresAt(LocalDateTime.now().minusMinutes(id));
+        return entry;
+    }
+
+    private static TodoResponseDto dto(TodoEntry entry) {
+        return new TodoResponseDto(entry.getId(), entry.getTitle(), null, false, entry.getExpiresAt(), null, null, 0L);
+    }
+}
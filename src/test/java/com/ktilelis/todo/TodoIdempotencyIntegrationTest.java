@@ -0,0 +1,139 @@
+package com.ktilelis.todo;
+
+import com.ktilelis.todo.todomanagement.TodoIdempotency;
+import com.ktilelis.todo.todomanagement.model.TodoBatchResultDto;
+import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "todo.expiry.enabled=false",
+        "todo.outbox.enabled=false"
+})
+@Testcontainers
+public class TodoIdempotencyIntegrationTest {
+
+    private final static String ALICE_URL = "/v1/owners/alice/todo";
+    private final static String BOB_URL = "/v1/owners/bob/todo";
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> DB_CONTAINER = new PostgreSQLContainer<>("postgres:17.5-alpine");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TodoIdempotency idempotency;
+
+    @AfterEach
+    void cleanUp() {
+        this.jdbcTemplate.update("DELETE FROM TODO_ENTRIES");
+        this.jdbcTemplate.update("DELETE FROM TODO_IDEMPOTENCY_KEYS");
+    }
+
+    @Test
+    @DisplayName("should answer a retried create with the first response, per owner, and reject the key for another body")
+    public void shouldReplayRetriedCreate() {
+        final var request = new TodoRequestDto("buy milk", null, null, null);
+
+        final var first = this.post(ALICE_URL, "create-1", request, TodoResponseDto.class);
+        final var retry = this.post(ALICE_URL, "create-1", request, TodoResponseDto.class);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getBody()).isEqualTo(first.getBody());
+        assertThat(this.countTodos("alice")).isEqualTo(1);
+        assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TODO_CHANGES WHERE OWNER = 'alice'", Long.class)).isEqualTo(1);
+
+        // keys are scoped by owner
+        final var bobs = this.post(BOB_URL, "create-1", request, TodoResponseDto.class);
+        assertThat(bobs.getBody().id()).isNotEqualTo(first.getBody().id());
+        assertThat(this.countTodos("bob")).isEqualTo(1);
+
+        final var reused = this.post(ALICE_URL, "create-1", new TodoRequestDto("buy bread", null, null, null), String.class);
+        assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(this.countTodos("alice")).isEqualTo(1);
+
+        // without a key every request is a new todo
+        this.restTemplate.postForEntity(ALICE_URL, request, TodoResponseDto.class);
+        assertThat(this.countTodos("alice")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should replay a retried batch and prune its key once expired")
+    public void shouldReplayRetriedBatchAndPruneExpiredKeys() {
+        final var requests = List.of(new TodoRequestDto("one", null, null, null), new TodoRequestDto("", null, null, null));
+
+        final var first = this.post(ALICE_URL + "/batch", "batch-1", requests, TodoBatchResultDto[].class);
+        final var retry = this.post(ALICE_URL + "/batch", "batch-1", requests, TodoBatchResultDto[].class);
+        assertThat(retry.getBody()).containsExactly(first.getBody());
+        assertThat(retry.getBody()[1].httpStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(this.countTodos("alice")).isEqualTo(1);
+
+        this.jdbcTemplate.update("UPDATE TODO_IDEMPOTENCY_KEYS SET EXPIRES_AT = LOCALTIMESTAMP - INTERVAL '1 second'");
+        assertThat(this.idempotency.deleteExpired()).isEqualTo(1);
+        assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TODO_IDEMPOTENCY_KEYS", Long.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("should collapse concurrent duplicates into one create")
+    public void shouldCollapseConcurrentDuplicates() throws Exception {
+        final var request = new TodoRequestDto("once", null, null, null);
+        final var start = new CountDownLatch(1);
+
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            final var posts = new ArrayList<Callable<ResponseEntity<TodoResponseDto>>>();
+            for (var i = 0; i < 8; i++) {
+                posts.add(() -> {
+                    start.await();
+                    return this.post(ALICE_URL, "concurrent-1", request, TodoResponseDto.class);
+                });
+            }
+            final var futures = posts.stream().map(executor::submit).toList();
+            start.countDown();
+            final var ids = new ArrayList<Long>();
+            for (var future : futures) {
+                final var response = future.get();
+                assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+                ids.add(response.getBody().id());
+            }
+            assertThat(ids).containsOnly(ids.getFirst());
+        }
+        assertThat(this.countTodos("alice")).isEqualTo(1);
+    }
+
+    private <T> ResponseEntity<T> post(String url, String key, Object body, Class<T> responseType) {
+        final var headers = new HttpHeaders();
+        headers.set("Idempotency-Key", key);
+        return this.restTemplate.postForEntity(url, new HttpEntity<>(body, headers), responseType);
+    }
+
+    private long countTodos(String owner) {
+        return this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TODO_ENTRIES WHERE OWNER = ?", Long.class, owner);
+    }
+}
@@ -1,11 +1,17 @@
 package com.ktilelis.todo;
 
 import com.ktilelis.todo.exception.TodoApiException;
+import com.ktilelis.todo.todomanagement.TodoExpiryService;
+import com.ktilelis.todo.todomanagement.model.TodoBatchResultDto;
+import com.ktilelis.todo.todomanagement.model.TodoBatchUpdateRequestDto;
+import com.ktilelis.todo.todomanagement.model.TodoImportResultDto;
 import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
 import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import com.ktilelis.todo.todomanagement.model.TodoSliceResponseDto;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
@@ -13,18 +19,27 @@ import org.springframework.context.MessageSource;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "todo.expiry.enabled=false")
 @Testcontainers
+// metrics export is off in tests by default; the Prometheus scrape is part of what is tested
+@AutoConfigureObservability(tracing = false)
 public class TodoIntegrationTest {
 
     private final static String BASE_URL = "/v1/todo";
@@ -39,6 +54,12 @@ public class TodoIntegrationTest {
     @Autowired
     private MessageSource messageSource;
 
+    @Autowired
+    private TodoExpiryService todoExpiryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
 
     @Test
     @DisplayName("PostgreSQL container is up and running")
@@ -61,6 +82,71 @@ public class TodoIntegrationTest {
         assertThat(response.getBody().page().totalPages()).isEqualTo(1);
         assertThat(response.getBody().page().totalElements()).isEqualTo(2);
         assertThat(response.getBody().content().size()).isEqualTo(2);
+
+        final var sparse = this.restTemplate.exchange(BASE_URL + "?fields=title,done&sortField=title&sortDirection=ASC", HttpMethod.GET, null,
+                new ParameterizedTypeReference<TestCustomPage<Map<String, Object>>>() {
+                });
+        assertThat(sparse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(sparse.getBody().content()).containsExactly(Map.of("title", "title", "done", false), Map.of("title", "title 2", "done", false));
+        assertThat(sparse.getBody().page().totalElements()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should return NOT_FOUND when updating or deleting a Todo with non-existent ID")
+    public void shouldReturnNotFoundWhenWritingNonExistentID() {
+        final var update = restTemplate.exchange(BASE_URL + "/999", HttpMethod.PUT, new HttpEntity<>(new TodoRequestDto("title", null, null, null)), TodoApiException.class);
+        assertThat(update.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+
+        final var delete = restTemplate.exchange(BASE_URL + "/999", HttpMethod.DELETE, null, TodoApiException.class);
+        assertThat(delete.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(delete.getBody()).isNotNull();
+        assertThat(delete.getBody().getMessage()).isEqualTo(messageSource.getMessage("exception.not_found", new Object[]{999}, Locale.getDefault()));
+    }
+
+    @Test
+    @DisplayName("should walk all Todo entries with keyset pagination")
+    @Sql(statements = {
+            "INSERT INTO TODO_ENTRIES(title, description, is_done, updated_at) VALUES ('title 1', 'description 1', false, '2025-01-01 10:00:00')",
+            "INSERT INTO TODO_ENTRIES(title, description, is_done, updated_at) VALUES ('title 2', 'description 2', false, '2025-01-01 10:00:00')",
+            "INSERT INTO TODO_ENTRIES(title, description, is_done, updated_at) VALUES ('title 3', 'description 3', false, '2025-01-02 10:00:00')"
+    }, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(statements = "DELETE FROM TODO_ENTRIES", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldWalkAllTodosWithKeysetPagination() {
+        var firstPage = restTemplate.getForEntity(BASE_URL + "?pagination=keyset&pageSize=2", TodoSliceResponseDto.class);
+        assertThat(firstPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(firstPage.getBody()).isNotNull();
+        assertThat(firstPage.getBody().content()).extracting(TodoResponseDto::title).containsExactly("title 3", "title 2");
+        assertThat(firstPage.getBody().hasNext()).isTrue();
+
+        var secondPage = restTemplate.getForEntity(BASE_URL + "?pagination=keyset&pageSize=2&after=" + firstPage.getBody().nextCursor(), TodoSliceResponseDto.class);
+        assertThat(secondPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(secondPage.getBody()).isNotNull();
+        assertThat(secondPage.getBody().content()).extracting(TodoResponseDto::title).containsExactly("title 1");
+        assertThat(secondPage.getBody().hasNext()).isFalse();
+        assertThat(secondPage.getBody().nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("should walk only the matching Todo entries with keyset pagination")
+    @Sql(statements = {
+            "INSERT INTO TODO_ENTRIES(title, description, is_done, updated_at) VALUES ('title 1', 'description 1', false, '2025-01-01 10:00:00')",
+            "INSERT INTO TODO_ENTRIES(title, description, is_done, updated_at) VALUES ('title 2', 'description 2', true, '2025-01-01 10:00:00')",
+            "INSERT INTO TODO_ENTRIES(title, description, is_done, updated_at) VALUES ('title 3', 'description 3', false, '2025-01-01 10:00:00')",
+            "INSERT INTO TODO_ENTRIES(title, description, is_done, updated_at) VALUES ('title 4', 'description 4', false, '2025-01-02 10:00:00')"
+    }, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(statements = "DELETE FROM TODO_ENTRIES", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldWalkMatchingTodosWithKeysetPagination() {
+        var firstPage = restTemplate.getForEntity(BASE_URL + "?pagination=keyset&pageSize=2&done=false", TodoSliceResponseDto.class);
+        assertThat(firstPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(firstPage.getBody()).isNotNull();
+        assertThat(firstPage.getBody().content()).extracting(TodoResponseDto::title).containsExactly("title 4", "title 3");
+        assertThat(firstPage.getBody().hasNext()).isTrue();
+
+        var secondPage = restTemplate.getForEntity(BASE_URL + "?pagination=keyset&pageSize=2&done=false&after=" + firstPage.getBody().nextCursor(), TodoSliceResponseDto.class);
+        assertThat(secondPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(secondPage.getBody()).isNotNull();
+        assertThat(secondPage.getBody().content()).extracting(TodoResponseDto::title).containsExactly("title 1");
+        assertThat(secondPage.getBody().hasNext()).isFalse();
     }
 
     @Test
@@ -107,7 +193,7 @@ public class TodoIntegrationTest {
     @DisplayName("should return BAD_REQUEST when creating a new Todo with invalid properties")
     @Sql(statements = "DELETE FROM TODO_ENTRIES", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
     public void shouldReturnBadRequestWhenCreatingInvalidQuote() {
-        final var quote = new TodoRequestDto(null, null, null);
+        final var quote = new TodoRequestDto(null, null, null, null);
         final var entity = new HttpEntity<>(quote);
         final var response = restTemplate.exchange(BASE_URL, HttpMethod.POST, entity, TodoApiException.class);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
@@ -125,7 +211,7 @@ public class TodoIntegrationTest {
     @DisplayName("should return CREATED when creating a new todo")
     @Sql(statements = "DELETE FROM todo_entries", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
     public void shouldReturnNoContentWhenCreatingTodo() {
-        final var todo = new TodoRequestDto("natalia", "natalia quote", null);
+        final var todo = new TodoRequestDto("natalia", "natalia quote", null, null);
         final var postResponse = restTemplate.exchange(BASE_URL, HttpMethod.POST, new HttpEntity<>(todo), Void.class);
         assertThat(postResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED);
     }
@@ -143,7 +229,7 @@ public class TodoIntegrationTest {
         var responseBody = pagedResults.getBody();
         assertThat(responseBody.page().totalElements()).isEqualTo(1);
         var todoId = responseBody.content().get(0).id();
-        final var todoForUpdate = new TodoRequestDto("natalia", "natalia quote updated", null);
+        final var todoForUpdate = new TodoRequestDto("natalia", "natalia quote updated", null, null);
 
         final var entity = new HttpEntity<>(todoForUpdate);
         final var response = restTemplate.exchange(BASE_URL + "/" + todoId.toString(), HttpMethod.PUT, entity, Void.class);
@@ -173,4 +259,299 @@ public class TodoIntegrationTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
     }
 
+    @Test
+    @DisplayName("should create and delete Todos in batch with per-item results")
+    @Sql(statements = "DELETE FROM TODO_ENTRIES", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldCreateAndDeleteTodosInBatch() {
+        var todos = List.of(
+                new TodoRequestDto("first", "first description", null, null),
+                new TodoRequestDto(null, "invalid", null, null),
+                new TodoRequestDto("second", "second description", null, null));
+        var created = restTemplate.exchange(BASE_URL + "/batch", HttpMethod.POST, new HttpEntity<>(todos), new ParameterizedTypeReference<List<TodoBatchResultDto>>() {
+        });
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(created.getBody()).extracting(TodoBatchResultDto::httpStatus)
+                .containsExactly(HttpStatus.CREATED, HttpStatus.BAD_REQUEST, HttpStatus.CREATED);
+
+        var firstId = created.getBody().get(0).id();
+        var secondId = created.getBody().get(2).id();
+        var deleted = restTemplate.exchange(BASE_URL + "/batch?ids=" + firstId + "," + secondId + ",999999", HttpMethod.DELETE, null, new ParameterizedTypeReference<List<TodoBatchResultDto>>() {
+        });
+        assertThat(deleted.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(deleted.getBody()).extracting(TodoBatchResultDto::httpStatus)
+                .containsExactly(HttpStatus.NO_CONTENT, HttpStatus.NO_CONTENT, HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("should export Todo cache hit and miss counters through actuator")
+    @Sql(statements = "INSERT INTO TODO_ENTRIES(title, description, is_done) VALUES ('cached', 'cached description', false)", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(statements = "DELETE FROM TODO_ENTRIES", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldExportCacheMetrics() {
+        var pagedResults = restTemplate.exchange(BASE_URL, HttpMethod.GET, null, new ParameterizedTypeReference<TestCustomPage<TodoResponseDto>>() {
+        });
+        var todoId = pagedResults.getBody().content().get(0).id();
+        restTemplate.getForEntity(BASE_URL + "/" + todoId, TodoResponseDto.class);
+        restTemplate.getForEntity(BASE_URL + "/" + todoId, TodoResponseDto.class);
+
+        var hits = restTemplate.getForEntity("/actuator/metrics/cache.gets?tag=cache:todos&tag=result:hit", String.class);
+        assertThat(hits.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(hits.getBody()).contains("\"statistic\":\"COUNT\"");
+
+        var evictions = restTemplate.getForEntity("/actuator/metrics/cache.evictions?tag=cache:todos", String.class);
+        assertThat(evictions.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("should export all Todo entries as NDJSON")
+    @Sql(statements = {
+            "INSERT INTO TODO_ENTRIES(title, description, is_done) VALUES ('title', 'description', false)",
+            "INSERT INTO TODO_ENTRIES(title, description, is_done) VALUES ('title 2', 'description 2', false)"
+    }, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(statements = "DELETE FROM TODO_ENTRIES", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldExportAllTodosAsNdjson() {
+        var response = restTemplate.getForEntity(BASE_URL + "/export", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().lines()).hasSize(2).allMatch(line -> line.startsWith("{\"id\":"));
+    }
+
+    @Test
+    @DisplayName("should import Todo entries from CSV with COPY and report rejected lines")
+    @Sql(statements = "DELETE FROM TODO_ENTRIES", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldImportTodosFromCsv() {
+        var csv = """
+                title,description,expiresAt
+                first,"multi
+                line",2030-01-01T10:00
+                ,missing title,
+                third,,not-a-date
+                fourth,,
+                """;
+        var headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "text/csv");
+
+        var response = restTemplate.exchange(BASE_URL + "/import", HttpMethod.POST, new HttpEntity<>(csv, headers), TodoImportResultDto.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().imported()).isEqualTo(2);
+        assertThat(response.getBody().rejected()).isEqualTo(2);
+        assertThat(response.getBody().rejections()).extracting(r -> r.line()).containsExactly(4L, 5L);
+
+        var pagedResults = restTemplate.exchange(BASE_URL + "?sortField=title&sortDirection=ASC", HttpMethod.GET, null, new ParameterizedTypeReference<TestCustomPage<TodoResponseDto>>() {
+        });
+        assertThat(pagedResults.getBody()).isNotNull();
+        assertThat(pagedResults.getBody().content()).extracting(TodoResponseDto::title).containsExactly("first", "fourth");
+        assertThat(pagedResults.getBody().content().get(0).description()).isEqualTo("multi\nline");
+        assertThat(pagedResults.getBody().content().get(1).description()).isNull();
+        assertThat(pagedResults.getBody().content()).allMatch(todo -> todo.createdAt() != null && todo.updatedAt() != null);
+    }
+
+    @Test
+    @DisplayName("should import Todo entries from NDJSON")
+    @Sql(statements = "DELETE FROM TODO_ENTRIES", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldImportTodosFromNdjson() {
+        var ndjson = "{\"title\":\"first\"}\n{not json}\n{\"title\":\"second\",\"description\":\"desc\"}\n";
+        var headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/x-ndjson");
+
+        var response = restTemplate.exchange(BASE_URL + "/import", HttpMethod.POST, new HttpEntity<>(ndjson, headers), TodoImportResultDto.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().imported()).isEqualTo(2);
+        assertThat(response.getBody().rejections()).extracting(r -> r.line()).containsExactly(2L);
+
+        var created = restTemplate.postForEntity(BASE_URL, new TodoRequestDto("after import", null, null, null), TodoResponseDto.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        // no outbox sink is configured here, so the changes are recorded but not queued
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TODO_CHANGES WHERE TODO_ID = ?", Long.class, created.getBody().id())).isEqualTo(1L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TODO_OUTBOX", Long.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("should filter Todo entries by done flag, expiry, creation date and text")
+    @Sql(statements = {
+            "INSERT INTO TODO_ENTRIES(title, description, is_done, expires_at, created_at) VALUES ('Buy milk', 'from the 100% organic shop', false, '2025-01-10 10:00:00', '2025-01-01 10:00:00')",
+            "INSERT INTO TODO_ENTRIES(title, description, is_done, expires_at, created_at) VALUES ('Pay rent', 'before the 5th', true, '2025-01-05 10:00:00', '2025-01-02 10:00:00')",
+            "INSERT INTO TODO_ENTRIES(title, description, is_done, expires_at, created_at) VALUES ('Call mom', 'ask about MILK recipe', false, '2025-02-01 10:00:00', '2025-01-03 10:00:00')"
+    })
+    @Sql(statements = "DELETE FROM TODO_ENTRIES", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldFilterTodos() {
+        assertThat(filteredTitles("done=true")).containsExactly("Pay rent");
+        assertThat(filteredTitles("done=false")).containsExactly("Buy milk", "Call mom");
+        assertThat(filteredTitles("expiresBefore=2025-01-10T10:00:00")).containsExactly("Pay rent");
+        assertThat(filteredTitles("expiresAfter=2025-01-10T10:00:00&done=false")).containsExactly("Buy milk", "Call mom");
+        assertThat(filteredTitles("createdFrom=2025-01-02T00:00:00&createdTo=2025-01-03T00:00:00")).containsExactly("Pay rent");
+        assertThat(filteredTitles("q=milk")).containsExactly("Buy milk", "Call mom");
+        assertThat(filteredTitles("q=100%")).containsExactly("Buy milk");
+        assertThat(filteredTitles("q=10_")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should order ties by id and reject sort fields without an index")
+    @Sql(statements = {
+            "INSERT INTO TODO_ENTRIES(title, description, is_done) VALUES ('same', 'b', false)",
+            "INSERT INTO TODO_ENTRIES(title, description, is_done) VALUES ('same', 'a', false)",
+            "INSERT INTO TODO_ENTRIES(title, description, is_done) VALUES ('other', 'c', false)"
+    })
+    @Sql(statements = "DELETE FROM TODO_ENTRIES", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldSortByWhitelistedFieldsOnly() {
+        var response = restTemplate.exchange(BASE_URL + "?sortField=title&sortDirection=DESC", HttpMethod.GET, null, new ParameterizedTypeReference<TestCustomPage<TodoResponseDto>>() {
+        });
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().content()).extracting(TodoResponseDto::description).containsExactly("a", "b", "c");
+
+        var rejected = restTemplate.getForEntity(BASE_URL + "?sortField=description", String.class);
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("should notify each expired Todo entry exactly once across concurrent runs")
+    @Sql(statements = {
+            "INSERT INTO TODO_ENTRIES(title, is_done, expires_at) SELECT 'due ' || g, false, TIMESTAMP '2025-01-01 00:00:00' + g * INTERVAL '1 second' FROM generate_series(1, 250) g",
+            "INSERT INTO TODO_ENTRIES(title, is_done, expires_at) VALUES ('done', true, '2025-01-01 00:00:00')",
+            "INSERT INTO TODO_ENTRIES(title, is_done, expires_at) VALUES ('future', false, '2999-01-01 00:00:00')"
+    })
+    @Sql(statements = "DELETE FROM TODO_ENTRIES", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldProcessExpiredTodosOnce() throws Exception {
+        try (var executor = Executors.newFixedThreadPool(3)) {
+            var runs = executor.invokeAll(List.<Callable<Integer>>of(
+                    todoExpiryService::processDueTodos, todoExpiryService::processDueTodos, todoExpiryService::processDueTodos));
+            var processed = 0;
+            for (var run : runs) {
+                processed += run.get();
+            }
+            assertThat(processed).isEqualTo(250);
+        }
+        assertThat(todoExpiryService.processDueTodos()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TODO_ENTRIES WHERE EXPIRY_NOTIFIED_AT IS NOT NULL", Long.class)).isEqualTo(250);
+
+        var dueId = jdbcTemplate.queryForObject("SELECT ID FROM TODO_ENTRIES WHERE TITLE = 'due 1'", Long.class);
+        restTemplate.put(BASE_URL + "/" + dueId, new TodoRequestDto("due 1", null, LocalDateTime.of(2025, 6, 1, 0, 0), null));
+        assertThat(todoExpiryService.processDueTodos()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should answer conditional requests with 304 and reject stale If-Match updates with 412")
+    @Sql(statements = "DELETE FROM TODO_ENTRIES", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldHonorConditionalRequests() {
+        var created = restTemplate.postForEntity(BASE_URL, new TodoRequestDto("conditional", null, null, null), TodoResponseDto.class);
+        assertThat(created.getBody()).isNotNull();
+        var url = BASE_URL + "/" + created.getBody().id();
+
+        var first = restTemplate.getForEntity(url, TodoResponseDto.class);
+        var etag = first.getHeaders().getETag();
+        assertThat(etag).isNotNull();
+
+        var conditional = new HttpHeaders();
+        conditional.setIfNoneMatch(etag);
+        var notModified = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(conditional), String.class);
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getBody()).isNull();
+
+        var listEtag = restTemplate.getForEntity(BASE_URL, String.class).getHeaders().getETag();
+        var listConditional = new HttpHeaders();
+        listConditional.setIfNoneMatch(listEtag);
+        assertThat(restTemplate.exchange(BASE_URL, HttpMethod.GET, new HttpEntity<>(listConditional), String.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        var ifMatch = new HttpHeaders();
+        ifMatch.setIfMatch(etag);
+        var update = restTemplate.exchange(url, HttpMethod.PUT, new HttpEntity<>(new TodoRequestDto("first writer", null, null, null), ifMatch), Void.class);
+        assertThat(update.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        var staleUpdate = restTemplate.exchange(url, HttpMethod.PUT, new HttpEntity<>(new TodoRequestDto("second writer", null, null, null), ifMatch), TodoApiException.class);
+        assertThat(staleUpdate.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        var changed = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(conditional), TodoResponseDto.class);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getBody()).isNotNull();
+        assertThat(changed.getBody().title()).isEqualTo("first writer");
+        assertThat(restTemplate.exchange(BASE_URL, HttpMethod.GET, new HttpEntity<>(listConditional), String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    @DisplayName("should bump the version on every update and reject writes based on a stale version with 409")
+    @Sql(statements = "DELETE FROM TODO_ENTRIES", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldRejectStaleVersions() {
+        var created = restTemplate.postForEntity(BASE_URL, new TodoRequestDto("versioned", null, null, null), TodoResponseDto.class);
+        assertThat(created.getBody()).isNotNull();
+        assertThat(created.getBody().version()).isZero();
+        var url = BASE_URL + "/" + created.getBody().id();
+
+        var first = restTemplate.exchange(url, HttpMethod.PUT, new HttpEntity<>(new TodoRequestDto("first writer", null, null, 0L)), Void.class);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+        var second = restTemplate.exchange(url, HttpMethod.PUT, new HttpEntity<>(new TodoRequestDto("second writer", null, null, 0L)), TodoApiException.class);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+
+        var current = restTemplate.getForEntity(url, TodoResponseDto.class).getBody();
+        assertThat(current).isNotNull();
+        assertThat(current.title()).isEqualTo("first writer");
+        assertThat(current.version()).isEqualTo(1L);
+
+        var batch = List.of(new TodoBatchUpdateRequestDto(current.id(), new TodoRequestDto("batched", null, null, 0L)));
+        var batchResults = restTemplate.exchange(BASE_URL + "/batch", HttpMethod.PUT, new HttpEntity<>(batch), new ParameterizedTypeReference<List<TodoBatchResultDto>>() {
+        });
+        assertThat(batchResults.getBody()).extracting(TodoBatchResultDto::httpStatus).containsExactly(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    @DisplayName("should list Todo entries with an estimated total or without any total")
+    @Sql(statements = {
+            "INSERT INTO TODO_ENTRIES(title, description, is_done) VALUES ('count 1', null, false)",
+            "INSERT INTO TODO_ENTRIES(title, description, is_done) VALUES ('count 2', null, false)",
+            "INSERT INTO TODO_ENTRIES(title, description, is_done) VALUES ('count 3', null, true)",
+            "ANALYZE TODO_ENTRIES"
+    }, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(statements = "DELETE FROM TODO_ENTRIES", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    public void shouldListTodosWithEstimatedOrNoCount() {
+        var estimated = restTemplate.exchange(BASE_URL + "?count=estimated&pageSize=2", HttpMethod.GET, null, new ParameterizedTypeReference<TestCustomPage<TodoResponseDto>>() {
+        });
+        assertThat(estimated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(estimated.getBody()).isNotNull();
+        assertThat(estimated.getBody().content()).hasSize(2);
+        assertThat(estimated.getBody().page().totalElements()).isEqualTo(3);
+
+        var filteredLastPage = restTemplate.exchange(BASE_URL + "?count=estimated&done=false&page=1&pageSize=1", HttpMethod.GET, null, new ParameterizedTypeReference<TestCustomPage<TodoResponseDto>>() {
+        });
+        assertThat(filteredLastPage.getBody()).isNotNull();
+        assertThat(filteredLastPage.getBody().page().totalElements()).isEqualTo(2);
+
+        var firstSlice = restTemplate.getForEntity(BASE_URL + "?count=none&pageSize=2", TodoSliceResponseDto.class);
+        assertThat(firstSlice.getBody()).isNotNull();
+        assertThat(firstSlice.getBody().content()).hasSize(2);
+        assertThat(firstSlice.getBody().hasNext()).isTrue();
+
+        var lastSlice = restTemplate.getForEntity(BASE_URL + "?count=none&page=1&pageSize=2", TodoSliceResponseDto.class);
+        assertThat(lastSlice.getBody()).isNotNull();
+        assertThat(lastSlice.getBody().content()).hasSize(1);
+        assertThat(lastSlice.getBody().hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("should expose service, repository, query, pool and Hibernate metrics for Prometheus")
+    public void shouldExposePrometheusMetrics() {
+        assertThat(restTemplate.getForEntity(BASE_URL + "?done=false", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        var scrape = restTemplate.getForEntity("/actuator/prometheus", String.class);
+        assertThat(scrape.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(scrape.getBody())
+                .contains("todo_service_seconds_bucket{")
+                .contains("method=\"getTodos\"")
+                .contains("spring_data_repository_invocations_seconds_bucket{")
+                .contains("todo_db_queries_count{method=\"GET\",uri=\"/v1/todo\"}")
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("hikaricp_connections_active")
+                .contains("hibernate_statements_total");
+    }
+
+    private List<String> filteredTitles(String query) {
+        var response = restTemplate.exchange(BASE_URL + "?sortField=title&sortDirection=ASC&" + query, HttpMethod.GET, null, new ParameterizedTypeReference<TestCustomPage<TodoResponseDto>>() {
+        });
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        return response.getBody().content().stream().map(TodoResponseDto::title).toList();
+    }
 }
@@ -0,0 +1,320 @@
+package com.ktilelis.todo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktilelis.todo.todomanagement.TodoService;
+import com.ktilelis.todo.todomanagement.model.TodoBatchResultDto;
+import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleConsumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives a mix of list, get, create, update and delete requests against {@code /v1/todo} and reports throughput and
+ * latency percentiles per operation. Run with {@code mvn test -Dtest=TodoLoadTest -Dloadtest=true}.
+ * <p>
+ * Settings are system properties:
+ * <ul>
+ *     <li>{@code loadtest.clients} concurrent clients, default 32</li>
+ *     <li>{@code loadtest.warmup} and {@code loadtest.duration} in ISO-8601 or seconds, default 10s and 30s</li>
+ *     <li>{@code loadtest.mix} operation weights, default {@code list=40,get=40,create=10,update=5,delete=5}</li>
+ *     <li>{@code loadtest.rate} total requests per second; when set, latency is measured from the moment a request
+ *     was due rather than when it was sent, so a stalled server is not hidden by clients that stop sending</li>
+ *     <li>{@code loadtest.maxP99Millis}, {@code loadtest.maxP999Millis}, {@code loadtest.minThroughput} and
+ *     {@code loadtest.maxErrorRate} fail the run when exceeded</li>
+ * </ul>
+ * The summary is written to {@code target/loadtest/summary.json}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        // every client of the harness shares one address, so a per-client rate limit would throttle the whole run
+        properties = {"spring.jpa.show-sql=false", "todo.expiry.enabled=false", "todo.admission.rate-limit.enabled=false"})
+@Testcontainers
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+public class TodoLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoLoadTest.class);
+
+    private static final String BASE_URL = "/v1/todo";
+    private static final int SEED_ROWS = Integer.getInteger("loadtest.rows", 5_000);
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 32);
+    private static final Duration WARMUP = duration("loadtest.warmup", "10s");
+    private static final Duration DURATION = duration("loadtest.duration", "30s");
+    private static final String MIX = System.getProperty("loadtest.mix", "list=40,get=40,create=10,update=5,delete=5");
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> DB_CONTAINER = new PostgreSQLContainer<>("postgres:17.5-alpine");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<Long> ids = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Long> deletable = new ConcurrentLinkedQueue<>();
+
+    private enum Operation {
+        LIST, GET, CREATE, UPDATE, DELETE
+    }
+
+    @Test
+    @DisplayName("the API should sustain the configured load within the latency budget")
+    public void sustainLoad() throws Exception {
+        this.seed();
+        var mix = parseMix(MIX);
+
+        this.run(mix, WARMUP);
+        var result = this.run(mix, DURATION);
+
+        logger.info("{} clients for {}: {}", CLIENTS, DURATION, result);
+        var summary = Path.of("target", "loadtest", "summary.json");
+        Files.createDirectories(summary.getParent());
+        this.objectMapper.writerWithDefaultPrettyPrinter().writeValue(summary.toFile(), result.toSummary());
+
+        var total = result.total();
+        var maxErrorRate = Double.parseDouble(System.getProperty("loadtest.maxErrorRate", "0.001"));
+        assertThat((double) result.errors() / Math.max(1, total.getTotalCount())).as("error rate").isLessThanOrEqualTo(maxErrorRate);
+        threshold("loadtest.maxP99Millis", limit -> assertThat(millis(total, 99.0)).as("p99 latency in ms").isLessThanOrEqualTo(limit));
+        threshold("loadtest.maxP999Millis", limit -> assertThat(millis(total, 99.9)).as("p99.9 latency in ms").isLessThanOrEqualTo(limit));
+        threshold("loadtest.minThroughput", limit -> assertThat(result.throughput()).as("requests per second").isGreaterThanOrEqualTo(limit));
+    }
+
+    private void seed() {
+        for (int from = 0; from < SEED_ROWS; from += 1_000) {
+            this.todoService.createTodos(IntStream.range(from, Math.min(SEED_ROWS, from + 1_000))
+                            .mapToObj(i -> new TodoRequestDto("load " + i, "description " + (i % 97), LocalDateTime.now().plusDays(i % 30), null))
+                            .toList())
+                    .stream()
+                    .map(TodoBatchResultDto::id)
+                    .forEach(this.ids::add);
+        }
+    }
+
+    private Result run(Map<Operation, Integer> mix, Duration duration) throws Exception {
+        var histograms = new EnumMap<Operation, Histogram>(Operation.class);
+        for (var operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+        }
+        var errors = new LongAdder();
+        var rate = System.getProperty("loadtest.rate");
+        // nanoseconds between two requests of one client when running at a fixed rate
+        var interval = rate == null ? 0 : (long) (TimeUnit.SECONDS.toNanos(1) * CLIENTS / Double.parseDouble(rate));
+        var weightTotal = mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        long startedAt;
+        long endsAt;
+        var completedAt = new AtomicLong();
+        try (var httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+             var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            startedAt = System.nanoTime();
+            endsAt = startedAt + duration.toNanos();
+            for (int client = 0; client < CLIENTS; client++) {
+                // spread fixed-rate clients over one interval instead of sending in lock-step
+                var firstDue = startedAt + (interval * client) / CLIENTS;
+                executor.submit(() -> {
+                    var due = firstDue;
+                    while (System.nanoTime() < endsAt) {
+                        if (interval > 0) {
+                            var wait = due - System.nanoTime();
+                            if (wait > 0) {
+                                TimeUnit.NANOSECONDS.sleep(wait);
+                            }
+                        }
+                        var operation = pick(mix, weightTotal);
+                        // only todos created during the run are deleted, so reads and updates never race a delete
+                        var deleteId = operation == Operation.DELETE ? this.deletable.poll() : null;
+                        if (operation == Operation.DELETE && deleteId == null) {
+                            operation = Operation.CREATE;
+                        }
+                        var sent = interval > 0 ? due : System.nanoTime();
+                        try {
+                            if (this.execute(httpClient, operation, deleteId)) {
+                                histograms.get(operation).recordValue(Math.min(System.nanoTime() - sent, HIGHEST_TRACKABLE_NANOS));
+                            } else {
+                                errors.increment();
+                            }
+                        } catch (Exception ex) {
+                            errors.increment();
+                        }
+                        due += interval;
+                    }
+                    completedAt.accumulateAndGet(System.nanoTime(), Math::max);
+                    return null;
+                });
+            }
+        }
+
+        return new Result(histograms, errors.sum(), completedAt.get() - startedAt);
+    }
+
+    /**
+     * @return whether the response had the status this operation expects
+     */
+    private boolean execute(HttpClient httpClient, Operation operation, Long deleteId) throws Exception {
+        var random = ThreadLocalRandom.current();
+        return switch (operation) {
+            case LIST -> this.send(httpClient, HttpRequest.newBuilder(this.uri("?done=false&page=" + random.nextInt(20))).GET()) == 200;
+            case GET -> this.send(httpClient, HttpRequest.newBuilder(this.uri("/" + this.anyId())).GET()) == 200;
+            case CREATE -> {
+                var request = HttpRequest.newBuilder(this.uri(""))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(this.objectMapper.writeValueAsBytes(
+                                new TodoRequestDto("created " + random.nextInt(), null, null, null))))
+                        .build();
+                var response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                if (response.statusCode() != 201) {
+                    yield false;
+                }
+                this.deletable.add(this.objectMapper.readValue(response.body(), TodoResponseDto.class).id());
+                yield true;
+            }
+            case UPDATE -> this.send(httpClient, HttpRequest.newBuilder(this.uri("/" + this.anyId()))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofByteArray(this.objectMapper.writeValueAsBytes(
+                            new TodoRequestDto("updated " + random.nextInt(), null, null, null))))) == 204;
+            case DELETE -> this.send(httpClient, HttpRequest.newBuilder(this.uri("/" + deleteId)).DELETE()) == 204;
+        };
+    }
+
+    private int send(HttpClient httpClient, HttpRequest.Builder request) throws Exception {
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + this.port + BASE_URL + path);
+    }
+
+    private Long anyId() {
+        return this.ids.get(ThreadLocalRandom.current().nextInt(this.ids.size()));
+    }
+
+    private static Operation pick(Map<Operation, Integer> mix, int weightTotal) {
+        var roll = ThreadLocalRandom.current().nextInt(weightTotal);
+        for (var entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty operation mix");
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        var weights = new EnumMap<Operation, Integer>(Operation.class);
+        for (var part : mix.split(",")) {
+            var pair = part.trim().split("=");
+            weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+        weights.values().removeIf(weight -> weight <= 0);
+        return weights;
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        var value = System.getProperty(property, defaultValue);
+        return value.startsWith("P") ? Duration.parse(value) : Duration.ofSeconds(Long.parseLong(value.replace("s", "")));
+    }
+
+    private static void threshold(String property, DoubleConsumer check) {
+        var value = System.getProperty(property);
+        if (value != null) {
+            check.accept(Double.parseDouble(value));
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+
+    private record Result(Map<Operation, Histogram> histograms, long errors, long elapsedNanos) {
+
+        Histogram total() {
+            var total = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+            this.histograms.values().forEach(total::add);
+            return total;
+        }
+
+        double throughput() {
+            return this.total().getTotalCount() / (this.elapsedNanos / 1_000_000_000.0);
+        }
+
+        Map<String, Object> toSummary() {
+            var summary = new LinkedHashMap<String, Object>();
+            summary.put("clients", CLIENTS);
+            summary.put("durationSeconds", this.elapsedNanos / 1_000_000_000.0);
+            summary.put("throughput", this.throughput());
+            summary.put("errors", this.errors);
+            summary.put("total", percentiles(this.total()));
+            var operations = new LinkedHashMap<String, Object>();
+            this.histograms.forEach((operation, histogram) -> operations.put(operation.name().toLowerCase(), percentiles(histogram)));
+            summary.put("operations", operations);
+            return summary;
+        }
+
+        private static Map<String, Object> percentiles(Histogram histogram) {
+            var values = new LinkedHashMap<String, Object>();
+            values.put("count", histogram.getTotalCount());
+            values.put("p50Millis", millis(histogram, 50.0));
+            values.put("p99Millis", millis(histogram, 99.0));
+            values.put("p999Millis", millis(histogram, 99.9));
+            values.put("maxMillis", histogram.getMaxValue() / 1_000_000.0);
+            return values;
+        }
+
+        @Override
+        public String toString() {
+            var lines = new ArrayList<String>();
+            lines.add(String.format("%.0f req/s, %d errors", this.throughput(), this.errors));
+            var total = this.total();
+            lines.add(line("total", total));
+            this.histograms.forEach((operation, histogram) -> lines.add(line(operation.name().toLowerCase(), histogram)));
+            return String.join(System.lineSeparator(), lines);
+        }
+
+        private static String line(String name, Histogram histogram) {
+            return String.format("  %-6s n=%-7d p50 %7.2f ms  p99 %7.2f ms  p999 %7.2f ms  max %7.2f ms", name,
+                    histogram.getTotalCount(), millis(histogram, 50.0), millis(histogram, 99.0), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1_000_000.0);
+        }
+    }
+}
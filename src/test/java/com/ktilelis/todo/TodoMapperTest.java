@@ -38,7 +38,7 @@ class TodoMapperTest {
     @Test
     void shouldMapDtoToEntity() {
         var expiresAt = LocalDateTime.now().plusSeconds(3600);
-        TodoRequestDto dto = new TodoRequestDto("New Title", "New Desc", expiresAt);
+        TodoRequestDto dto = new TodoRequestDto("New Title", "New Desc", expiresAt, null);
 
         TodoEntry entity = mapper.toEntity(dto);
 
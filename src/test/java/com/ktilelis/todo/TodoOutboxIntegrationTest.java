@@ -0,0 +1,184 @@
+package com.ktilelis.todo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ktilelis.todo.todomanagement.TodoOutboxRelay;
+import com.ktilelis.todo.todomanagement.model.TodoChangeType;
+import com.ktilelis.todo.todomanagement.model.TodoImportResultDto;
+import com.ktilelis.todo.todomanagement.model.TodoOutboxEvent;
+import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "todo.expiry.enabled=false",
+        // relayed by the tests themselves
+        "todo.outbox.enabled=false",
+        "todo.outbox.batch-size=7"
+})
+@Testcontainers
+public class TodoOutboxIntegrationTest {
+
+    private final static String ALICE_URL = "/v1/owners/alice/todo";
+    private final static String BOB_URL = "/v1/owners/bob/todo";
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> DB_CONTAINER = new PostgreSQLContainer<>("postgres:17.5-alpine");
+
+    private static final Path SINK_FILE = createSinkFile();
+
+    @DynamicPropertySource
+    static void sinkFile(DynamicPropertyRegistry registry) {
+        registry.add("todo.outbox.file", SINK_FILE::toString);
+    }
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TodoOutboxRelay relay;
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        this.jdbcTemplate.update("DELETE FROM TODO_ENTRIES");
+        this.jdbcTemplate.update("DELETE FROM TODO_OUTBOX");
+        Files.write(SINK_FILE, new byte[0]);
+    }
+
+    @Test
+    @DisplayName("should deliver every committed change once, with its owner, and none that was rolled back")
+    public void shouldRelayCommittedChanges() throws Exception {
+        final var id = this.restTemplate.postForEntity(ALICE_URL, new TodoRequestDto("alice's", null, null, null), TodoResponseDto.class).getBody().id();
+        this.restTemplate.postForEntity(BOB_URL, new TodoRequestDto("bob's", null, null, null), TodoResponseDto.class);
+        this.restTemplate.exchange(ALICE_URL + "/" + id, HttpMethod.PUT, new HttpEntity<>(new TodoRequestDto("renamed", null, null, null)), Void.class);
+        final var stale = new HttpHeaders();
+        stale.setIfMatch("\"0\"");
+        assertThat(this.restTemplate.exchange(ALICE_URL + "/" + id, HttpMethod.PUT, new HttpEntity<>(new TodoRequestDto("lost", null, null, null), stale), String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        this.restTemplate.delete(ALICE_URL + "/" + id);
+
+        assertThat(this.relay.relay()).isEqualTo(4);
+        assertThat(this.relay.relay()).isZero();
+
+        final var events = this.delivered();
+        assertThat(events).extracting(event -> event.change().type())
+                .containsExactly(TodoChangeType.CREATED, TodoChangeType.CREATED, TodoChangeType.UPDATED, TodoChangeType.DELETED);
+        assertThat(events).extracting(TodoOutboxEvent::owner).containsExactly("alice", "bob", "alice", "alice");
+        assertThat(events.get(2).change().todo().title()).isEqualTo("renamed");
+        assertThat(events.get(3).change().id()).isEqualTo(id);
+        assertThat(this.jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TODO_OUTBOX", Long.class)).isZero();
+        // the change log and the outbox agree on the sequence
+        assertThat(this.jdbcTemplate.queryForList("SELECT SEQ FROM TODO_CHANGES WHERE TODO_ID = ? ORDER BY SEQ", Long.class, id))
+                .containsExactlyElementsOf(events.stream().filter(event -> event.change().id().equals(id)).map(event -> event.change().sequence()).toList());
+    }
+
+    @Test
+    @DisplayName("should deliver the todos loaded by an import like any other created todo")
+    public void shouldRelayImportedTodos() throws Exception {
+        final var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        final var imported = this.restTemplate.exchange(ALICE_URL + "/import", HttpMethod.POST,
+                new HttpEntity<>("{\"title\":\"first\"}\n{\"title\":\"\"}\n{\"title\":\"second\",\"description\":\"imported\"}\n", headers),
+                TodoImportResultDto.class);
+        assertThat(imported.getBody().imported()).isEqualTo(2);
+
+        assertThat(this.relay.relay()).isEqualTo(2);
+
+        final var events = this.delivered();
+        assertThat(events).extracting(event -> event.change().type()).containsOnly(TodoChangeType.CREATED);
+        assertThat(events).extracting(TodoOutboxEvent::owner).containsOnly("alice");
+        assertThat(events).extracting(event -> event.change().todo().title()).containsExactly("first", "second");
+        assertThat(events.get(1).change().todo().description()).isEqualTo("imported");
+        assertThat(this.jdbcTemplate.queryForList("SELECT SEQ FROM TODO_CHANGES WHERE TODO_ID IN (?, ?) ORDER BY SEQ", Long.class,
+                events.get(0).change().id(), events.get(1).change().id()))
+                .containsExactlyElementsOf(events.stream().map(event -> event.change().sequence()).toList());
+    }
+
+    @Test
+    @DisplayName("should deliver each todo's changes in order and only once across concurrent relays")
+    public void shouldKeepOrderPerTodoAcrossConcurrentRelays() throws Exception {
+        this.jdbcTemplate.update("""
+                INSERT INTO TODO_OUTBOX (SEQ, OWNER, TODO_ID, TYPE)
+                SELECT g, 'alice', g % 10, 'DELETED' FROM generate_series(1000000, 1000299) g""");
+
+        try (var executor = Executors.newFixedThreadPool(4)) {
+            final var relays = new ArrayList<Callable<Integer>>();
+            for (var i = 0; i < 4; i++) {
+                relays.add(() -> {
+                    var relayed = 0;
+                    int delivered;
+                    while ((delivered = this.relay.relay()) > 0) {
+                        relayed += delivered;
+                    }
+                    return relayed;
+                });
+            }
+            var total = 0;
+            for (var run : executor.invokeAll(relays)) {
+                total += run.get();
+            }
+            assertThat(total).isEqualTo(300);
+        }
+
+        final var events = this.delivered();
+        assertThat(events).hasSize(300);
+        assertThat(events.stream().map(event -> event.change().sequence()).distinct()).hasSize(300);
+        final var perTodo = events.stream().collect(Collectors.groupingBy(event -> event.change().id(),
+                Collectors.mapping(event -> event.change().sequence(), Collectors.toList())));
+        assertThat(perTodo).hasSize(10);
+        perTodo.values().forEach(sequences -> assertThat(sequences).isSortedAccordingTo(Comparator.naturalOrder()));
+    }
+
+    private List<TodoOutboxEvent> delivered() throws IOException {
+        final var events = new ArrayList<TodoOutboxEvent>();
+        for (var line : Files.readAllLines(SINK_FILE)) {
+            events.add(this.objectMapper.readValue(line, TodoOutboxEvent.class));
+        }
+        return events;
+    }
+
+    private static Path createSinkFile() {
+        try {
+            final var file = Files.createTempFile("todo-outbox", ".ndjson");
+            file.toFile().deleteOnExit();
+            return file;
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
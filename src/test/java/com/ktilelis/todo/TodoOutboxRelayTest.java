@@ -0,0 +1,117 @@
+package com.ktilelis.todo;
+
+import com.ktilelis.todo.todomanagement.TodoOutbox;
+import com.ktilelis.todo.todomanagement.TodoOutboxProperties;
+import com.ktilelis.todo.todomanagement.TodoOutboxRelay;
+import com.ktilelis.todo.todomanagement.model.TodoChangeDto;
+import com.ktilelis.todo.todomanagement.model.TodoChangeType;
+import com.ktilelis.todo.todomanagement.model.TodoOutboxEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TodoOutboxRelayTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(1);
+
+    @Mock
+    private TodoOutbox outbox;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> sent = new ArrayList<>();
+    private final List<Long> failing = new ArrayList<>();
+
+    private SimpleMeterRegistry meterRegistry;
+    private TodoOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        var properties = new TodoOutboxProperties(true, Duration.ofSeconds(1), 3, 10, LEASE,
+                Duration.ofSeconds(1), Duration.ofSeconds(5), null);
+        this.relay = new TodoOutboxRelay(outbox, event -> {
+            if (this.failing.contains(event.change().sequence())) {
+                throw new IllegalStateException("sink unavailable");
+            }
+            this.sent.add(event.change().sequence());
+        }, new TransactionTemplate(transactionManager), meterRegistry, properties);
+    }
+
+    @Test
+    void relay_shouldDeliverAndDeleteBatchesUntilOneIsNotFull() {
+        when(outbox.claim(3, LEASE))
+                .thenReturn(List.of(event(1, 10L, 0), event(2, 11L, 0), event(3, 10L, 0)))
+                .thenReturn(List.of(event(4, 12L, 0)));
+
+        var relayed = relay.relay();
+
+        assertThat(relayed).isEqualTo(4);
+        assertThat(this.sent).containsExactly(1L, 2L, 3L, 4L);
+        verify(outbox).delete(List.of(1L, 2L, 3L));
+        verify(outbox).delete(List.of(4L));
+        verify(outbox, never()).retryLater(anyLong(), any(), anyString());
+        assertThat(meterRegistry.get("todo.outbox.events").tag("outcome", "delivered").counter().count()).isEqualTo(4);
+        assertThat(meterRegistry.get("todo.outbox.batch.size").summary().totalAmount()).isEqualTo(4);
+    }
+
+    @Test
+    void relay_shouldHoldBackLaterEventsOfATodoWhoseEventFailed() {
+        this.failing.add(1L);
+        when(outbox.claim(3, LEASE))
+                .thenReturn(List.of(event(1, 10L, 0), event(2, 11L, 0), event(3, 10L, 0)))
+                .thenReturn(List.of());
+
+        var relayed = relay.relay();
+
+        assertThat(relayed).isEqualTo(1);
+        // 3 belongs to the same todo as 1 and must not overtake it
+        assertThat(this.sent).containsExactly(2L);
+        verify(outbox).delete(List.of(2L));
+        verify(outbox).retryLater(eq(1L), eq(Duration.ofSeconds(1)), contains("sink unavailable"));
+        assertThat(meterRegistry.get("todo.outbox.events").tag("outcome", "failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void relay_shouldDoubleTheBackoffUpToTheMaximum() {
+        this.failing.addAll(List.of(1L, 2L));
+        when(outbox.claim(3, LEASE)).thenReturn(List.of(event(1, 10L, 1), event(2, 11L, 7)));
+
+        relay.relay();
+
+        verify(outbox).retryLater(eq(1L), eq(Duration.ofSeconds(2)), anyString());
+        verify(outbox).retryLater(eq(2L), eq(Duration.ofSeconds(5)), anyString());
+        verify(outbox).delete(List.of());
+    }
+
+    @Test
+    void relay_shouldDoNothingWhenNothingIsDue() {
+        when(outbox.claim(3, LEASE)).thenReturn(List.of());
+
+        assertThat(relay.relay()).isZero();
+
+        verify(outbox, never()).delete(any());
+    }
+
+    private static TodoOutboxEvent event(long sequence, Long todoId, int attempts) {
+        return new TodoOutboxEvent("alice", new TodoChangeDto(sequence, TodoChangeType.DELETED, todoId, null),
+                LocalDateTime.now(), attempts);
+    }
+}
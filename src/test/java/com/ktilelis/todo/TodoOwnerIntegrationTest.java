@@ -0,0 +1,123 @@
+package com.ktilelis.todo;
+
+import com.ktilelis.todo.exception.TodoApiException;
+import com.ktilelis.todo.todomanagement.model.TodoBatchResultDto;
+import com.ktilelis.todo.todomanagement.model.TodoBatchUpdateRequestDto;
+import com.ktilelis.todo.todomanagement.model.TodoImportResultDto;
+import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import com.ktilelis.todo.todomanagement.model.TodoSliceResponseDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "todo.expiry.enabled=false")
+@Testcontainers
+public class TodoOwnerIntegrationTest {
+
+    private final static String ALICE_URL = "/v1/owners/alice/todo";
+    private final static String BOB_URL = "/v1/owners/bob/todo";
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> DB_CONTAINER = new PostgreSQLContainer<>("postgres:17.5-alpine");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        this.jdbcTemplate.update("DELETE FROM TODO_ENTRIES");
+    }
+
+    @Test
+    @DisplayName("should store a Todo in its owner's partition and hide it from other owners")
+    public void shouldKeepOwnersApart() {
+        final var created = this.restTemplate.postForEntity(ALICE_URL, new TodoRequestDto("alice's", null, null, null), TodoResponseDto.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        final var id = created.getBody().id();
+        assertThat(this.jdbcTemplate.queryForObject("SELECT OWNER FROM TODO_ENTRIES WHERE ID = ?", String.class, id)).isEqualTo("alice");
+        assertThat(this.jdbcTemplate.queryForObject("SELECT CAST(tableoid AS regclass) FROM TODO_ENTRIES WHERE ID = ?", String.class, id))
+                .startsWith("todo_entries_p");
+
+        assertThat(this.restTemplate.getForEntity(ALICE_URL + "/" + id, TodoResponseDto.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+        // the lookup above cached the todo; the other owner must still miss
+        assertThat(this.restTemplate.getForEntity(BOB_URL + "/" + id, TodoApiException.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(this.restTemplate.getForEntity("/v1/todo/" + id, TodoApiException.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+
+        assertThat(this.titles(ALICE_URL)).containsExactly("alice's");
+        assertThat(this.titles(BOB_URL)).isEmpty();
+        assertThat(this.titles("/v1/todo")).isEmpty();
+        assertThat(this.restTemplate.getForEntity(BOB_URL + "?pagination=keyset", TodoSliceResponseDto.class).getBody().content()).isEmpty();
+        assertThat(this.restTemplate.getForEntity(BOB_URL + "/export", String.class).getBody()).isNullOrEmpty();
+        assertThat(this.restTemplate.getForEntity(ALICE_URL + "/export", String.class).getBody()).contains("alice's");
+    }
+
+    @Test
+    @DisplayName("should not let an owner update or delete another owner's Todo")
+    public void shouldRejectWritesToAnotherOwnersTodo() {
+        final var id = this.restTemplate.postForEntity(ALICE_URL, new TodoRequestDto("alice's", null, null, null), TodoResponseDto.class).getBody().id();
+
+        final var update = this.restTemplate.exchange(BOB_URL + "/" + id, HttpMethod.PUT, new HttpEntity<>(new TodoRequestDto("bob's now", null, null, null)), TodoApiException.class);
+        assertThat(update.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        final var delete = this.restTemplate.exchange(BOB_URL + "/" + id, HttpMethod.DELETE, null, TodoApiException.class);
+        assertThat(delete.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        final var batchUpdate = this.restTemplate.exchange(BOB_URL + "/batch", HttpMethod.PUT,
+                new HttpEntity<>(List.of(new TodoBatchUpdateRequestDto(id, new TodoRequestDto("bob's now", null, null, null)))),
+                new ParameterizedTypeReference<List<TodoBatchResultDto>>() {
+                });
+        assertThat(batchUpdate.getBody()).extracting(TodoBatchResultDto::httpStatus).containsExactly(HttpStatus.NOT_FOUND);
+        final var batchDelete = this.restTemplate.exchange(BOB_URL + "/batch?ids=" + id, HttpMethod.DELETE, null, new ParameterizedTypeReference<List<TodoBatchResultDto>>() {
+        });
+        assertThat(batchDelete.getBody()).extracting(TodoBatchResultDto::httpStatus).containsExactly(HttpStatus.NOT_FOUND);
+
+        assertThat(this.jdbcTemplate.queryForObject("SELECT TITLE FROM TODO_ENTRIES WHERE ID = ?", String.class, id)).isEqualTo("alice's");
+    }
+
+    @Test
+    @DisplayName("should import Todo entries for the owner in the route")
+    public void shouldImportForTheRoutesOwner() {
+        final var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        final var response = this.restTemplate.exchange(BOB_URL + "/import", HttpMethod.POST, new HttpEntity<>("{\"title\":\"imported\"}\n", headers), TodoImportResultDto.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        assertThat(this.titles(BOB_URL)).containsExactly("imported");
+        assertThat(this.titles(ALICE_URL)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should not route owners that are not valid partition keys")
+    public void shouldRejectMalformedOwners() {
+        assertThat(this.restTemplate.getForEntity("/v1/owners/" + "a".repeat(65) + "/todo", String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(this.restTemplate.getForEntity("/v1/owners/*/todo", String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private List<String> titles(String url) {
+        final var response = this.restTemplate.exchange(url, HttpMethod.GET, null, new ParameterizedTypeReference<TestCustomPage<TodoResponseDto>>() {
+        });
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody().content().stream().map(TodoResponseDto::title).toList();
+    }
+}
@@ -0,0 +1,159 @@
+package com.ktilelis.todo;
+
+import com.ktilelis.todo.configuration.ReplicaRoutingDataSource;
+import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against two unrelated databases rather than a real standby, so a row only written to one of them shows which
+ * database served the request.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "todo.expiry.enabled=false")
+@Testcontainers
+public class TodoReplicaIntegrationTest {
+
+    private final static String BASE_URL = "/v1/todo";
+
+    @Container
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> PRIMARY_CONTAINER = new PostgreSQLContainer<>("postgres:17.5-alpine");
+
+    @Container
+    private static final PostgreSQLContainer<?> REPLICA_CONTAINER = new PostgreSQLContainer<>("postgres:17.5-alpine");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("todo.datasource.replicas.enabled", () -> "true");
+        // probes are triggered by the tests
+        registry.add("todo.datasource.replicas.check-interval", () -> "1h");
+        registry.add("todo.datasource.replicas.connection-timeout", () -> "500ms");
+        registry.add("todo.datasource.replicas.instances[0].url", REPLICA_CONTAINER::getJdbcUrl);
+        registry.add("todo.datasource.replicas.instances[0].username", REPLICA_CONTAINER::getUsername);
+        registry.add("todo.datasource.replicas.instances[0].password", REPLICA_CONTAINER::getPassword);
+    }
+
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway.configure()
+                .dataSource(REPLICA_CONTAINER.getJdbcUrl(), REPLICA_CONTAINER.getUsername(), REPLICA_CONTAINER.getPassword())
+                .load()
+                .migrate();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        this.jdbcTemplate.update("DELETE FROM TODO_ENTRIES");
+        this.replicaJdbcTemplate().update("DELETE FROM TODO_ENTRIES");
+    }
+
+    @Test
+    @DisplayName("should serve reads from the replica and writes from the primary")
+    public void shouldRouteReadOnlyTransactionsToTheReplica() {
+        this.replicaRoutingDataSource.checkReplicas();
+        this.replicaJdbcTemplate().update("INSERT INTO TODO_ENTRIES(title, description, is_done) VALUES ('from replica', 'description', false)");
+
+        final var created = this.restTemplate.postForEntity(BASE_URL, new TodoRequestDto("from primary", "description", null, null), TodoResponseDto.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(this.jdbcTemplate.queryForList("SELECT title FROM TODO_ENTRIES", String.class)).containsExactly("from primary");
+
+        assertThat(this.fetchTitles()).containsExactly("from replica");
+    }
+
+    @Test
+    @DisplayName("should fall back to the primary while the replica refuses connections")
+    public void shouldFallBackToThePrimaryWhenTheReplicaIsDown() {
+        this.jdbcTemplate.update("INSERT INTO TODO_ENTRIES(title, description, is_done) VALUES ('from primary', 'description', false)");
+        this.replicaRoutingDataSource.checkReplicas();
+        final var replica = this.replicaRoutingDataSource.getReplicas().getFirst();
+        assertThat(this.replicaRoutingDataSource.isUsable(replica)).isTrue();
+
+        final var replicaAdmin = this.replicaAdminJdbcTemplate();
+        replicaAdmin.execute("ALTER DATABASE " + REPLICA_CONTAINER.getDatabaseName() + " WITH ALLOW_CONNECTIONS false");
+        try {
+            replicaAdmin.queryForList("SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE datname = ?", Boolean.class, REPLICA_CONTAINER.getDatabaseName());
+
+            this.replicaRoutingDataSource.checkReplicas();
+            assertThat(this.replicaRoutingDataSource.isUsable(replica)).isFalse();
+            assertThat(this.fetchTitles()).containsExactly("from primary");
+        } finally {
+            replicaAdmin.execute("ALTER DATABASE " + REPLICA_CONTAINER.getDatabaseName() + " WITH ALLOW_CONNECTIONS true");
+        }
+
+        this.replicaRoutingDataSource.checkReplicas();
+        assertThat(this.replicaRoutingDataSource.isUsable(replica)).isTrue();
+        assertThat(this.fetchTitles()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should read a todo back from the primary after updating it while the replica lags behind")
+    public void shouldReadOwnWritesWhileTheReplicaLags() {
+        this.replicaRoutingDataSource.checkReplicas();
+        final var id = this.restTemplate.postForEntity(BASE_URL, new TodoRequestDto("before", "description", null, null), TodoResponseDto.class)
+                .getBody().id();
+        // the replica has caught up with the insert but not with the update below
+        this.replicaJdbcTemplate().update("INSERT INTO TODO_ENTRIES(id, title, description, is_done) VALUES (?, 'before', 'description', false)", id);
+
+        final var first = this.restTemplate.getForEntity(BASE_URL + "/" + id, TodoResponseDto.class);
+        this.restTemplate.put(BASE_URL + "/" + id, new TodoRequestDto("after", "description", null, null));
+
+        final var updated = this.restTemplate.getForEntity(BASE_URL + "/" + id, TodoResponseDto.class);
+        assertThat(updated.getBody().title()).isEqualTo("after");
+        assertThat(updated.getHeaders().getETag()).isNotEqualTo(first.getHeaders().getETag());
+
+        final var headers = new HttpHeaders();
+        headers.setIfMatch(updated.getHeaders().getETag());
+        final var conditional = this.restTemplate.exchange(BASE_URL + "/" + id, HttpMethod.PUT,
+                new HttpEntity<>(new TodoRequestDto("again", "description", null, null), headers), Void.class);
+        assertThat(conditional.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+    }
+
+    private List<String> fetchTitles() {
+        final var response = this.restTemplate.exchange(BASE_URL, HttpMethod.GET, null, new ParameterizedTypeReference<TestCustomPage<TodoResponseDto>>() {
+        });
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody().content().stream().map(TodoResponseDto::title).toList();
+    }
+
+    private JdbcTemplate replicaJdbcTemplate() {
+        return new JdbcTemplate(new DriverManagerDataSource(REPLICA_CONTAINER.getJdbcUrl(), REPLICA_CONTAINER.getUsername(), REPLICA_CONTAINER.getPassword()));
+    }
+
+    private JdbcTemplate replicaAdminJdbcTemplate() {
+        final var url = "jdbc:postgresql://" + REPLICA_CONTAINER.getHost() + ":" + REPLICA_CONTAINER.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/postgres";
+        return new JdbcTemplate(new DriverManagerDataSource(url, REPLICA_CONTAINER.getUsername(), REPLICA_CONTAINER.getPassword()));
+    }
+}
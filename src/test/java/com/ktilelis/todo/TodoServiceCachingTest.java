@@ -0,0 +1,108 @@
+package com.ktilelis.todo;
+
+import com.ktilelis.todo.configuration.CachingConfiguration;
+import com.ktilelis.todo.todomanagement.TodoChangeLog;
+import com.ktilelis.todo.todomanagement.TodoOwnerContext;
+import com.ktilelis.todo.todomanagement.TodoRepository;
+import com.ktilelis.todo.todomanagement.TodoService;
+import com.ktilelis.todo.todomanagement.model.TodoEntry;
+import com.ktilelis.todo.todomanagement.model.TodoMapper;
+import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
+import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.MessageSource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig({CachingConfiguration.class, TodoService.class})
+@TestPropertySource(properties = {
+        "spring.cache.cache-names=" + CachingConfiguration.TODO_CACHE,
+        "spring.cache.caffeine.spec=maximumSize=100,recordStats"
+})
+class TodoServiceCachingTest {
+
+    @MockitoBean
+    private TodoRepository todoRepository;
+
+    @MockitoBean
+    private TodoMapper todoMapper;
+
+    @MockitoBean
+    private MessageSource messageSource;
+
+    @MockitoBean
+    private Validator validator;
+
+    @MockitoBean
+    private TodoChangeLog changeLog;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final TodoEntry entity = new TodoEntry();
+    private final TodoResponseDto dto = new TodoResponseDto(1L, "title", "desc", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CachingConfiguration.TODO_CACHE).clear();
+        when(todoRepository.findDtoById(1L)).thenReturn(Optional.of(dto));
+    }
+
+    @Test
+    void getTodoById_shouldOnlyHitRepositoryOnce() {
+        assertThat(todoService.getTodoById(1L)).isEqualTo(dto);
+        assertThat(todoService.getTodoById(1L)).isEqualTo(dto);
+
+        verify(todoRepository, times(1)).findDtoById(1L);
+    }
+
+    @Test
+    void updateTodo_shouldInvalidateCachedTodo() {
+        when(todoRepository.updateTodo(eq(1L), any(), any(), any(), any(), any())).thenReturn(1);
+
+        todoService.getTodoById(1L);
+        todoService.updateTodo(1L, new TodoRequestDto("updated", "desc", null, null), null);
+        todoService.getTodoById(1L);
+
+        verify(todoRepository, times(2)).findDtoById(1L);
+    }
+
+    @Test
+    void deleteTodo_shouldInvalidateCachedTodo() {
+        when(todoRepository.deleteTodoById(1L)).thenReturn(1);
+
+        todoService.getTodoById(1L);
+        todoService.deleteTodo(1L);
+
+        assertThat(cacheManager.getCache(CachingConfiguration.TODO_CACHE).get(TodoOwnerContext.cacheKey(1L))).isNull();
+    }
+
+    @Test
+    void createTodo_shouldPopulateCache() {
+        var request = new TodoRequestDto("title", "desc", null, null);
+        when(todoMapper.toEntity(request)).thenReturn(entity);
+        when(todoRepository.save(any(TodoEntry.class))).thenReturn(entity);
+        when(todoMapper.toDto(entity)).thenReturn(dto);
+
+        todoService.createTodo(request);
+        todoService.getTodoById(1L);
+
+        verify(todoRepository, never()).findDtoById(1L);
+    }
+}
@@ -1,28 +1,50 @@
 package com.ktilelis.todo;
 
+import com.ktilelis.todo.configuration.CachingConfiguration;
+import com.ktilelis.todo.exception.TodoNotFoundException;
+import com.ktilelis.todo.exception.TodoPreconditionFailedException;
+import com.ktilelis.todo.todomanagement.TodoChangeLog;
+import com.ktilelis.todo.todomanagement.TodoOwnerContext;
 import com.ktilelis.todo.todomanagement.TodoRepository;
 import com.ktilelis.todo.todomanagement.TodoService;
+import com.ktilelis.todo.todomanagement.model.TodoBatchUpdateRequestDto;
+import com.ktilelis.todo.todomanagement.model.TodoChangeDto;
+import com.ktilelis.todo.todomanagement.model.TodoCursor;
 import com.ktilelis.todo.todomanagement.model.TodoEntry;
+import com.ktilelis.todo.todomanagement.model.TodoField;
+import com.ktilelis.todo.todomanagement.model.TodoFilter;
 import com.ktilelis.todo.todomanagement.model.TodoMapper;
 import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
 import com.ktilelis.todo.todomanagement.model.TodoResponseDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Path;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.MessageSource;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -40,31 +62,153 @@ class TodoServiceTest {
     @Mock
     private MessageSource messageSource;
 
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private TodoChangeLog changeLog;
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CachingConfiguration.TODO_CACHE);
+
     @InjectMocks
     private TodoService todoService;
 
     @Test
     void getTodos_shouldReturnPagedTodos() {
-        var entry = new TodoEntry();
-        var dto = new TodoResponseDto(1L, "title", "desc", false, null, LocalDateTime.now(), LocalDateTime.now());
-        Page<TodoEntry> entityPage = new PageImpl<>(List.of(entry));
+        var dto = new TodoResponseDto(1L, "title", "desc", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
 
-        when(todoRepository.findAll(any(Pageable.class))).thenReturn(entityPage);
-        when(todoMapper.toDto(entry)).thenReturn(dto);
+        when(todoRepository.findProjected(ArgumentMatchers.<Specification<TodoEntry>>any(), eq(EnumSet.allOf(TodoField.class)), any(Sort.class), eq(0L), eq(10)))
+                .thenReturn(List.of(dto));
 
         Pageable pageable = PageRequest.of(0, 10);
-        Page<TodoResponseDto> result = todoService.getTodos(pageable);
+        var filter = new TodoFilter(false, null, null, null, null, "title");
+        Page<TodoResponseDto> result = todoService.getTodos(filter, null, pageable);
 
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).title()).isEqualTo("title");
+        verifyNoInteractions(todoMapper);
+    }
+
+    @Test
+    void getTodos_shouldOnlyReadTheRequestedFieldsAndTheETagFields() {
+        when(todoRepository.findProjected(ArgumentMatchers.<Specification<TodoEntry>>any(), any(), any(Sort.class), anyLong(), anyInt()))
+                .thenReturn(List.of());
+
+        todoService.getTodos(new TodoFilter(null, null, null, null, null, null), EnumSet.of(TodoField.TITLE), PageRequest.of(0, 10));
+
+        verify(todoRepository).findProjected(ArgumentMatchers.<Specification<TodoEntry>>any(),
+                eq(EnumSet.of(TodoField.ID, TodoField.TITLE, TodoField.VERSION)), any(Sort.class), eq(0L), eq(10));
+    }
+
+    @Test
+    void getTodosWithEstimatedCount_shouldUsePlannerEstimateForUnfilteredLists() {
+        var dto = new TodoResponseDto(1L, "title", "desc", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
+        var pageable = PageRequest.of(0, 1);
+
+        when(todoRepository.findProjected(ArgumentMatchers.<Specification<TodoEntry>>any(), any(), any(Sort.class), eq(0L), eq(2)))
+                .thenReturn(List.of(dto, dto));
+        when(todoRepository.estimateRowCount(TodoOwnerContext.DEFAULT_OWNER)).thenReturn(10_000L);
+
+        var result = todoService.getTodosWithEstimatedCount(new TodoFilter(null, null, null, null, null, " "), null, pageable);
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getTotalElements()).isEqualTo(10_000L);
+        verify(todoRepository, never()).count(ArgumentMatchers.<Specification<TodoEntry>>any());
+    }
+
+    @Test
+    void getTodosWithEstimatedCount_shouldDeriveTotalFromTheLastPage() {
+        var dto = new TodoResponseDto(1L, "title", "desc", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
+        var pageable = PageRequest.of(3, 10);
+
+        when(todoRepository.findProjected(ArgumentMatchers.<Specification<TodoEntry>>any(), any(), any(Sort.class), eq(30L), eq(11)))
+                .thenReturn(List.of(dto));
+
+        var result = todoService.getTodosWithEstimatedCount(new TodoFilter(false, null, null, null, null, null), null, pageable);
+
+        assertThat(result.getTotalElements()).isEqualTo(31L);
+        verify(todoRepository, never()).estimateRowCount(any());
+        verify(todoRepository, never()).count(ArgumentMatchers.<Specification<TodoEntry>>any());
+    }
+
+    @Test
+    void getTodosWithEstimatedCount_shouldCountFilteredLists() {
+        var dto = new TodoResponseDto(1L, "title", "desc", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
+        var pageable = PageRequest.of(0, 1);
+
+        when(todoRepository.findProjected(ArgumentMatchers.<Specification<TodoEntry>>any(), any(), any(Sort.class), eq(0L), eq(2)))
+                .thenReturn(List.of(dto, dto));
+        when(todoRepository.count(ArgumentMatchers.<Specification<TodoEntry>>any())).thenReturn(7L);
+
+        var result = todoService.getTodosWithEstimatedCount(new TodoFilter(false, null, null, null, null, null), null, pageable);
+
+        assertThat(result.getTotalElements()).isEqualTo(7L);
+        verify(todoRepository, never()).estimateRowCount(any());
+    }
+
+    @Test
+    void getTodosAfter_shouldReturnFirstPageWithNextCursor() {
+        var updatedAt = LocalDateTime.of(2025, 1, 1, 10, 0);
+        var first = entry(2L, updatedAt);
+        var second = entry(1L, updatedAt.minusMinutes(1));
+        var extra = entry(3L, updatedAt.minusMinutes(2));
+        var dto = new TodoResponseDto(2L, "title", "desc", false, null, updatedAt, updatedAt, 0L);
+
+        when(todoRepository.findFirstKeysetPageDesc(TodoOwnerContext.DEFAULT_OWNER, 3)).thenReturn(List.of(first, second, extra));
+        when(todoMapper.toDto(any(TodoEntry.class))).thenReturn(dto);
+
+        var result = todoService.getTodosAfter(new TodoFilter(null, null, null, null, null, null), null, 2, Sort.Direction.DESC);
+
+        assertThat(result.content()).hasSize(2);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(TodoCursor.from(result.nextCursor())).isEqualTo(new TodoCursor(second.getUpdatedAt(), 1L));
+    }
+
+    @Test
+    void getTodosAfter_shouldSeekPastCursorWithoutNextPage() {
+        var cursor = new TodoCursor(LocalDateTime.of(2025, 1, 1, 10, 0), 5L);
+        var last = entry(4L, cursor.updatedAt().plusMinutes(1));
+
+        when(todoRepository.findKeysetPageAsc(TodoOwnerContext.DEFAULT_OWNER, cursor.updatedAt(), cursor.id(), 11)).thenReturn(List.of(last));
+
+        var result = todoService.getTodosAfter(new TodoFilter(null, null, null, null, null, null), cursor, 10, Sort.Direction.ASC);
+
+        assertThat(result.content()).hasSize(1);
+        assertThat(result.hasNext()).isFalse();
+        assertThat(result.nextCursor()).isNull();
+    }
+
+    @Test
+    void getTodosAfter_shouldSeekThroughTheFilterWhenFiltered() {
+        var cursor = new TodoCursor(LocalDateTime.of(2025, 1, 1, 10, 0), 5L);
+        var updatedAt = cursor.updatedAt().minusMinutes(1);
+        var first = new TodoResponseDto(4L, "title", "desc", false, null, updatedAt, updatedAt, 0L);
+        var extra = new TodoResponseDto(3L, "title", "desc", false, null, updatedAt, updatedAt.minusMinutes(1), 0L);
+
+        when(todoRepository.findProjected(ArgumentMatchers.<Specification<TodoEntry>>any(), eq(EnumSet.allOf(TodoField.class)),
+                eq(Sort.by(Sort.Direction.DESC, "updatedAt", "id")), eq(0L), eq(2))).thenReturn(List.of(first, extra));
+
+        var result = todoService.getTodosAfter(new TodoFilter(false, null, null, null, null, null), cursor, 1, Sort.Direction.DESC);
+
+        assertThat(result.content()).containsExactly(first);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(TodoCursor.from(result.nextCursor())).isEqualTo(new TodoCursor(updatedAt, 4L));
+        verify(todoRepository, never()).findKeysetPageDesc(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void todoCursor_shouldRejectMalformedToken() {
+        assertThatThrownBy(() -> TodoCursor.from("not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
     }
 
     @Test
     void createTodo_shouldSaveAndReturnDto() {
-        var req = new TodoRequestDto("new", "desc", LocalDateTime.now());
+        var req = new TodoRequestDto("new", "desc", LocalDateTime.now(), null);
         var entity = new TodoEntry();
         var savedEntity = new TodoEntry();
-        var dto = new TodoResponseDto(1L, "new", "desc", false, null, LocalDateTime.now(), LocalDateTime.now());
+        var dto = new TodoResponseDto(1L, "new", "desc", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
 
         when(todoMapper.toEntity(req)).thenReturn(entity);
         when(todoRepository.save(entity)).thenReturn(savedEntity);
@@ -73,83 +217,265 @@ class TodoServiceTest {
         TodoResponseDto result = todoService.createTodo(req);
 
         assertThat(result.title()).isEqualTo("new");
+        verify(changeLog).record(TodoChangeDto.created(dto));
     }
 
     @Test
-    void updateTodo_shouldUpdateAndReturnDto() {
+    void updateTodo_shouldUpdateInOneStatement() {
         Long id = 1L;
-        var existing = new TodoEntry();
-        existing.setId(id);
-        existing.setTitle("old");
+        var req = new TodoRequestDto("updated", "desc", LocalDateTime.now(), null);
+
+        when(todoRepository.updateTodo(eq(id), eq("updated"), eq("desc"), eq(req.expiresAt()), any(LocalDateTime.class), isNull())).thenReturn(1);
 
-        var req = new TodoRequestDto("updated", "desc", LocalDateTime.now());
-        var saved = new TodoEntry();
-        var dto = new TodoResponseDto(id, "updated", "desc", false, null, LocalDateTime.now(), LocalDateTime.now());
+        todoService.updateTodo(id, req, null);
 
-        when(todoRepository.findById(id)).thenReturn(Optional.of(existing));
-        when(todoRepository.save(existing)).thenReturn(saved);
-        when(todoMapper.toDto(saved)).thenReturn(dto);
+        verify(todoRepository, never()).findById(any());
+        verify(todoRepository, never()).save(any());
+        verify(changeLog).recordUpdate(id);
+    }
 
-        TodoResponseDto result = todoService.updateTodo(id, req);
+    @Test
+    void updateTodo_shouldThrowIfNothingWasUpdated() {
+        Long id = 1L;
+        var req = new TodoRequestDto("updated", "desc", null, null);
 
-        assertThat(result.title()).isEqualTo("updated");
-        assertThat(existing.getTitle()).isEqualTo("updated");
+        when(todoRepository.updateTodo(eq(id), any(), any(), any(), any(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> todoService.updateTodo(id, req, null))
+                .isInstanceOfSatisfying(TodoNotFoundException.class, ex -> assertThat(ex.getId()).isEqualTo(id));
+        verifyNoInteractions(messageSource);
+    }
+
+    @Test
+    void updateTodo_shouldUpdateOnTheCurrentOfSeveralIfMatchVersions() {
+        Long id = 1L;
+        var req = new TodoRequestDto("updated", "desc", null, null);
+
+        when(todoRepository.findVersionById(id)).thenReturn(Optional.of(4L));
+        when(todoRepository.updateTodo(eq(id), any(), any(), any(), any(), eq(4L))).thenReturn(1);
+
+        todoService.updateTodo(id, req, Set.of(3L, 4L));
+
+        verify(changeLog).recordUpdate(id);
+    }
+
+    @Test
+    void updateTodo_shouldFailPreconditionIfNoneOfSeveralIfMatchVersionsIsCurrent() {
+        Long id = 1L;
+        var req = new TodoRequestDto("updated", "desc", null, null);
+
+        when(todoRepository.findVersionById(id)).thenReturn(Optional.of(5L));
+
+        assertThatThrownBy(() -> todoService.updateTodo(id, req, Set.of(3L, 4L)))
+                .isInstanceOf(TodoPreconditionFailedException.class);
+        verify(todoRepository, never()).updateTodo(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void updateTodo_shouldFailPreconditionIfIfMatchVersionIsStale() {
+        Long id = 1L;
+        var req = new TodoRequestDto("updated", "desc", null, null);
+
+        when(todoRepository.updateTodo(eq(id), any(), any(), any(), any(), eq(3L))).thenReturn(0);
+        when(todoRepository.existsById(id)).thenReturn(true);
+
+        assertThatThrownBy(() -> todoService.updateTodo(id, req, Set.of(3L)))
+                .isInstanceOf(TodoPreconditionFailedException.class);
+    }
+
+    @Test
+    void updateTodo_shouldConflictIfBodyVersionIsStale() {
+        Long id = 1L;
+        var req = new TodoRequestDto("updated", "desc", null, 3L);
+
+        when(todoRepository.updateTodo(eq(id), any(), any(), any(), any(), eq(3L))).thenReturn(0);
+        when(todoRepository.existsById(id)).thenReturn(true);
+
+        assertThatThrownBy(() -> todoService.updateTodo(id, req, null))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
     }
 
     @Test
     void getTodoById_shouldReturnDtoIfExists() {
         Long id = 1L;
-        var entity = new TodoEntry();
-        var dto = new TodoResponseDto(id, "sample", "desc", false, null, LocalDateTime.now(), LocalDateTime.now());
+        var dto = new TodoResponseDto(id, "sample", "desc", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
 
-        when(todoRepository.findById(id)).thenReturn(Optional.of(entity));
-        when(todoMapper.toDto(entity)).thenReturn(dto);
+        when(todoRepository.findDtoById(id)).thenReturn(Optional.of(dto));
 
         TodoResponseDto result = todoService.getTodoById(id);
 
         assertThat(result.id()).isEqualTo(id);
+        verify(todoRepository, never()).findById(any());
     }
 
     @Test
     void getTodoById_shouldThrowIfNotFound() {
         Long id = 1L;
-        when(todoRepository.findById(id)).thenReturn(Optional.empty());
-        when(messageSource.getMessage(any(), any(), any(Locale.class))).thenReturn("Not found: " + id);
+        when(todoRepository.findDtoById(id)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> todoService.getTodoById(id))
                 .isInstanceOf(NoSuchElementException.class)
-                .hasMessageContaining("Not found");
+                .isInstanceOfSatisfying(TodoNotFoundException.class, ex -> assertThat(ex.getStackTrace()).isEmpty());
+        verifyNoInteractions(messageSource);
     }
 
     @Test
-    void deleteTodo_shouldDeleteIfExists() {
+    void deleteTodo_shouldDeleteInOneStatement() {
         Long id = 1L;
-        var entry = new TodoEntry();
 
-        when(todoRepository.existsById(id)).thenReturn(true);
-        when(todoRepository.findById(id)).thenReturn(Optional.of(entry));
+        when(todoRepository.deleteTodoById(id)).thenReturn(1);
 
         todoService.deleteTodo(id);
 
-        verify(todoRepository).delete(entry);
+        verify(todoRepository, never()).existsById(any());
+        verify(todoRepository, never()).findById(any());
+        verify(changeLog).record(TodoChangeDto.deleted(id));
     }
 
     @Test
     void deleteTodo_shouldThrowIfNotFound() {
         Long id = 1L;
-        when(todoRepository.existsById(id)).thenReturn(false);
-        when(messageSource.getMessage(any(), any(), any(Locale.class))).thenReturn("Not found");
+        when(todoRepository.deleteTodoById(id)).thenReturn(0);
 
         assertThatThrownBy(() -> todoService.deleteTodo(id))
-                .isInstanceOf(NoSuchElementException.class)
-                .hasMessage("Not found");
+                .isInstanceOfSatisfying(TodoNotFoundException.class, ex -> assertThat(ex.getId()).isEqualTo(id));
+        verifyNoInteractions(changeLog);
     }
 
     @Test
-    void deleteTodos_shouldCallDeleteAllById() {
+    void createTodos_shouldSaveValidTodosInOneBatchAndReportInvalidOnes() {
+        var valid = new TodoRequestDto("new", "desc", null, null);
+        var invalid = new TodoRequestDto("", "desc", null, null);
+        var entity = new TodoEntry();
+        var dto = new TodoResponseDto(1L, "new", "desc", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
+        ConstraintViolation<TodoRequestDto> violation = mock();
+        Path path = mock();
+
+        when(path.toString()).thenReturn("title");
+        when(violation.getPropertyPath()).thenReturn(path);
+        when(violation.getMessage()).thenReturn("Title must not be blank");
+        when(validator.validate(valid)).thenReturn(Set.of());
+        when(validator.validate(invalid)).thenReturn(Set.of(violation));
+        when(messageSource.getMessage(eq("exception.validation_error"), any(), any(Locale.class))).thenReturn("Validation error");
+        when(todoMapper.toEntity(valid)).thenReturn(entity);
+        when(todoRepository.saveAll(List.of(entity))).thenReturn(List.of(entity));
+        when(todoMapper.toDto(entity)).thenReturn(dto);
+
+        var results = todoService.createTodos(List.of(invalid, valid));
+
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).httpStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(results.get(0).validationErrors()).extracting("fieldName").containsExactly("title");
+        assertThat(results.get(1).httpStatus()).isEqualTo(HttpStatus.CREATED);
+        assertThat(results.get(1).id()).isEqualTo(1L);
+    }
+
+    @Test
+    void updateTodos_shouldUpdateExistingTodosAndReportMissingOnes() {
+        var existing = new TodoEntry();
+        existing.setId(1L);
+        var update = new TodoBatchUpdateRequestDto(1L, new TodoRequestDto("updated", "desc", null, null));
+        var missing = new TodoBatchUpdateRequestDto(2L, new TodoRequestDto("missing", "desc", null, null));
+        var dto = new TodoResponseDto(1L, "updated", "desc", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
+
+        when(validator.validate(any())).thenReturn(Set.of());
+        when(todoRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(existing));
+        when(messageSource.getMessage(eq("exception.not_found"), any(), any(Locale.class))).thenReturn("Not found");
+        when(todoMapper.toDto(existing)).thenReturn(dto);
+
+        var results = todoService.updateTodos(List.of(update, missing));
+
+        verify(todoRepository).flush();
+        assertThat(existing.getTitle()).isEqualTo("updated");
+        assertThat(results.get(0).httpStatus()).isEqualTo(HttpStatus.OK);
+        assertThat(results.get(1).httpStatus()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(results.get(1).message()).isEqualTo("Not found");
+    }
+
+    @Test
+    void updateTodos_shouldReportConflictForStaleVersion() {
+        var existing = new TodoEntry();
+        existing.setId(1L);
+        existing.setTitle("current");
+        existing.setVersion(4L);
+        var stale = new TodoBatchUpdateRequestDto(1L, new TodoRequestDto("updated", "desc", null, 3L));
+
+        when(validator.validate(any())).thenReturn(Set.of());
+        when(todoRepository.findAllById(Set.of(1L))).thenReturn(List.of(existing));
+        when(messageSource.getMessage(eq("exception.conflict"), any(), any(Locale.class))).thenReturn("Conflict");
+
+        var results = todoService.updateTodos(List.of(stale));
+
+        assertThat(existing.getTitle()).isEqualTo("current");
+        assertThat(results.get(0).httpStatus()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(results.get(0).message()).isEqualTo("Conflict");
+    }
+
+    @Test
+    void updateTodos_shouldRejectRepeatedIdsAndApplyTheFirstUpdate() {
+        var existing = new TodoEntry();
+        existing.setId(1L);
+        var first = new TodoBatchUpdateRequestDto(1L, new TodoRequestDto("first", "desc", null, null));
+        var repeated = new TodoBatchUpdateRequestDto(1L, new TodoRequestDto("repeated", "desc", null, null));
+        var dto = new TodoResponseDto(1L, "first", "desc", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L);
+
+        when(validator.validate(any())).thenReturn(Set.of());
+        when(todoRepository.findAllById(Set.of(1L))).thenReturn(List.of(existing));
+        when(messageSource.getMessage(eq("exception.duplicate_batch_id"), any(), any(Locale.class))).thenReturn("Duplicate");
+        when(todoMapper.toDto(existing)).thenReturn(dto);
+
+        var results = todoService.updateTodos(List.of(first, repeated));
+
+        assertThat(existing.getTitle()).isEqualTo("first");
+        assertThat(results).extracting(r -> r.httpStatus()).containsExactly(HttpStatus.OK, HttpStatus.BAD_REQUEST);
+        assertThat(results.get(1).id()).isEqualTo(1L);
+        assertThat(results.get(1).message()).isEqualTo("Duplicate");
+        verify(changeLog).record(List.of(TodoChangeDto.updated(dto)));
+    }
+
+    @Test
+    void deleteTodos_shouldDeleteExistingTodosInOneStatement() {
         List<Long> ids = List.of(1L, 2L);
-        todoService.deleteTodos(ids);
+        when(todoRepository.findExistingIds(ids)).thenReturn(List.of(1L));
+        when(messageSource.getMessage(eq("exception.not_found"), any(), any(Locale.class))).thenReturn("Not found");
+
+        var results = todoService.deleteTodos(ids);
+
+        verify(todoRepository).deleteAllByIdInBatch(Set.of(1L));
+        verify(todoRepository, never()).findById(any());
+        verify(changeLog).record(List.of(TodoChangeDto.deleted(1L)));
+        assertThat(results).extracting(r -> r.httpStatus()).containsExactly(HttpStatus.NO_CONTENT, HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void deleteTodos_shouldRejectRepeatedIdsAndDeleteOnce() {
+        List<Long> ids = List.of(1L, 1L);
+        when(todoRepository.findExistingIds(ids)).thenReturn(List.of(1L));
+        when(messageSource.getMessage(eq("exception.duplicate_batch_id"), any(), any(Locale.class))).thenReturn("Duplicate");
+
+        var results = todoService.deleteTodos(ids);
 
-        verify(todoRepository).deleteAllById(ids);
+        verify(todoRepository).deleteAllByIdInBatch(Set.of(1L));
+        verify(changeLog).record(List.of(TodoChangeDto.deleted(1L)));
+        assertThat(results).extracting(r -> r.httpStatus()).containsExactly(HttpStatus.NO_CONTENT, HttpStatus.BAD_REQUEST);
+        assertThat(results.get(1).id()).isEqualTo(1L);
+    }
+
+    @Test
+    void deleteTodos_shouldEvictDeletedTodosFromCache() {
+        var cache = cacheManager.getCache(CachingConfiguration.TODO_CACHE);
+        cache.put(TodoOwnerContext.cacheKey(1L), new TodoResponseDto(1L, "cached", "desc", false, null, LocalDateTime.now(), LocalDateTime.now(), 0L));
+        when(todoRepository.findExistingIds(List.of(1L))).thenReturn(List.of(1L));
+
+        todoService.deleteTodos(List.of(1L));
+
+        assertThat(cache.get(TodoOwnerContext.cacheKey(1L))).isNull();
+    }
+
+    private static TodoEntry entry(Long id, LocalDateTime updatedAt) {
+        var entry = new TodoEntry();
+        entry.setId(id);
+        entry.setUpdatedAt(updatedAt);
+        return entry;
     }
 }
@@ -0,0 +1,167 @@
+package com.ktilelis.todo;
+
+import com.ktilelis.todo.todomanagement.TodoRepository;
+import com.ktilelis.todo.todomanagement.TodoService;
+import com.ktilelis.todo.todomanagement.model.TodoRequestDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares platform-thread and virtual-thread request handling under a burst of concurrent clients. Every client
+ * alternates a database-bound list query with a read of a cached todo, so the second request shows how badly
+ * requests that never touch the database are held up by threads blocked on it.
+ * Run with {@code mvn test -Dtest=TodoThreadingBenchmarkTest -Dbenchmark=true}.
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class TodoThreadingBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TodoThreadingBenchmarkTest.class);
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 1_000);
+    private static final int REQUESTS_PER_CLIENT = Integer.getInteger("benchmark.requests", 20);
+    private static final int ROWS = 20_000;
+
+    @Container
+    private static final PostgreSQLContainer<?> DB_CONTAINER = new PostgreSQLContainer<>("postgres:17.5-alpine");
+
+    @Test
+    @DisplayName("virtual threads should keep serving cached reads while database-bound requests wait")
+    public void compareThreadingModes() throws Exception {
+        var platform = this.run(false);
+        var virtual = this.run(true);
+
+        logger.info("{} clients x {} requests, platform threads: {}", CLIENTS, REQUESTS_PER_CLIENT, platform);
+        logger.info("{} clients x {} requests, virtual threads:  {}", CLIENTS, REQUESTS_PER_CLIENT, virtual);
+
+        // requests rejected by the connection limiter count as errors, so they are reported rather than asserted
+        assertThat(platform.requestsPerSecond()).isPositive();
+        assertThat(virtual.requestsPerSecond()).isPositive();
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        // command line arguments, unlike builder defaults, take precedence over application.yml
+        try (var context = new SpringApplicationBuilder(TodoApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=" + DB_CONTAINER.getJdbcUrl(),
+                "--spring.datasource.username=" + DB_CONTAINER.getUsername(),
+                "--spring.datasource.password=" + DB_CONTAINER.getPassword(),
+                "--spring.jpa.show-sql=false",
+                "--todo.expiry.enabled=false",
+                // compares thread models under overload, which admission control would shed with 429 and 503
+                "--todo.admission.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.ktilelis.todo=INFO")) {
+            var cachedId = this.seed(context.getBean(TodoService.class), context.getBean(TodoRepository.class));
+            var baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/v1/todo";
+
+            // warm up so both modes are measured with a hot JIT, pool and cache
+            this.burst(baseUrl, cachedId, 100, 5);
+            return this.burst(baseUrl, cachedId, CLIENTS, REQUESTS_PER_CLIENT);
+        }
+    }
+
+    private Long seed(TodoService todoService, TodoRepository todoRepository) {
+        if (todoRepository.count() == 0) {
+            for (int from = 0; from < ROWS; from += 1_000) {
+                todoService.createTodos(IntStream.range(from, from + 1_000)
+                        .mapToObj(i -> new TodoRequestDto("benchmark " + i, "description " + (i % 97), null, null))
+                        .toList());
+            }
+        }
+        return todoService.createTodo(new TodoRequestDto("cached", null, null, null)).id();
+    }
+
+    private Result burst(String baseUrl, Long cachedId, int clients, int requestsPerClient) throws InterruptedException {
+        var listLatencies = new long[clients * requestsPerClient / 2 + clients];
+        var cachedLatencies = new long[clients * requestsPerClient / 2 + clients];
+        var listCount = new AtomicInteger();
+        var cachedCount = new AtomicInteger();
+        var errors = new AtomicInteger();
+        var start = new CountDownLatch(1);
+
+        long elapsed;
+        try (var httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+             var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var done = new CountDownLatch(clients);
+            for (int client = 0; client < clients; client++) {
+                var clientId = client;
+                executor.submit(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < requestsPerClient; i++) {
+                            var cached = i % 2 == 1;
+                            var uri = cached
+                                    ? URI.create(baseUrl + "/" + cachedId)
+                                    : URI.create(baseUrl + "?done=false&page=" + ((clientId + i) % 50));
+                            var sent = System.nanoTime();
+                            var response = httpClient.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding());
+                            var latency = System.nanoTime() - sent;
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            } else if (cached) {
+                                cachedLatencies[cachedCount.getAndIncrement()] = latency;
+                            } else {
+                                listLatencies[listCount.getAndIncrement()] = latency;
+                            }
+                        }
+                    } catch (Exception ex) {
+                        errors.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                    return null;
+                });
+            }
+            long startedAt = System.nanoTime();
+            start.countDown();
+            done.await();
+            elapsed = System.nanoTime() - startedAt;
+        }
+
+        var requests = listCount.get() + cachedCount.get();
+        return new Result(requests / (elapsed / 1_000_000_000.0),
+                percentileMillis(listLatencies, listCount.get(), 0.99),
+                percentileMillis(cachedLatencies, cachedCount.get(), 0.50),
+                percentileMillis(cachedLatencies, cachedCount.get(), 0.99),
+                errors.get());
+    }
+
+    private static double percentileMillis(long[] latencies, int count, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        var sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)] / 1_000_000.0;
+    }
+
+    private record Result(double requestsPerSecond, double listP99Millis, double cachedP50Millis, double cachedP99Millis, int errors) {
+
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s, list p99 %.1f ms, cached read p50 %.1f ms / p99 %.1f ms, %d errors",
+                    requestsPerSecond, listP99Millis, cachedP50Millis, cachedP99Millis, errors);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.ktilelis.todo;
+
+import com.ktilelis.todo.configuration.TokenBucketRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void tryAcquire_shouldAllowABurstAndThenTheAverageRate() {
+        var limiter = new TokenBucketRateLimiter(10, 3, 100, this.now::get);
+
+        for (var i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("client")).isZero();
+        }
+        assertThat(limiter.tryAcquire("client")).isEqualTo(Duration.ofMillis(100));
+
+        this.now.addAndGet(Duration.ofMillis(40).toNanos());
+        assertThat(limiter.tryAcquire("client")).isEqualTo(Duration.ofMillis(60));
+
+        this.now.addAndGet(Duration.ofMillis(60).toNanos());
+        assertThat(limiter.tryAcquire("client")).isZero();
+    }
+
+    @Test
+    void tryAcquire_shouldKeepOneBucketPerClient() {
+        var limiter = new TokenBucketRateLimiter(1, 1, 100, this.now::get);
+
+        assertThat(limiter.tryAcquire("first")).isZero();
+        assertThat(limiter.tryAcquire("first")).isPositive();
+        assertThat(limiter.tryAcquire("second")).isZero();
+    }
+
+    @Test
+    void tryAcquire_shouldNotSaveUpMoreThanTheBurst() {
+        var limiter = new TokenBucketRateLimiter(10, 2, 100, this.now::get);
+        limiter.tryAcquire("client");
+
+        this.now.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        assertThat(limiter.tryAcquire("client")).isZero();
+        assertThat(limiter.tryAcquire("client")).isZero();
+        assertThat(limiter.tryAcquire("client")).isPositive();
+    }
+}
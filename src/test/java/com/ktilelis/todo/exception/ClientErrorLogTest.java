@@ -0,0 +1,39 @@
+package com.ktilelis.todo.exception;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ClientErrorLogTest {
+
+    private final Logger logger = mock(Logger.class);
+
+    @Test
+    void shouldLogOncePerIntervalAndReportSuppressedErrors() throws InterruptedException {
+        when(logger.isWarnEnabled()).thenReturn(true);
+        var log = new ClientErrorLog(logger, Duration.ofMillis(200));
+
+        log.warn("first");
+        log.warn("second");
+        log.warn("third");
+        verify(logger).warn("first");
+        verifyNoMoreInteractions(ignoreStubs(logger));
+
+        Thread.sleep(250);
+        log.warn("fourth");
+        verify(logger).warn("{} ({} similar errors suppressed)", "fourth", 2L);
+    }
+
+    @Test
+    void shouldSkipWhenWarnIsDisabled() {
+        var log = new ClientErrorLog(logger, Duration.ZERO);
+
+        log.warn("ignored");
+
+        verify(logger, never()).warn(anyString());
+    }
+}
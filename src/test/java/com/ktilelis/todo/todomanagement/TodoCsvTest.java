@@ -0,0 +1,51 @@
+package com.ktilelis.todo.todomanagement;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TodoCsvTest {
+
+    @Test
+    void recordReader_shouldReadQuotedFieldsSpanningLines() throws IOException {
+        var reader = new TodoCsv.RecordReader(new StringReader(
+                "title,description,expiresAt\n"
+                        + "\"a, b\",\"line one\nline two\",2025-01-01T10:00\n"
+                        + "\"say \"\"hi\"\"\",,\n"
+                        + "last,no newline"));
+
+        assertThat(reader.next()).containsExactly("title", "description", "expiresAt");
+        assertThat(reader.recordLine()).isEqualTo(1);
+
+        assertThat(reader.next()).containsExactly("a, b", "line one\nline two", "2025-01-01T10:00");
+        assertThat(reader.recordLine()).isEqualTo(2);
+
+        assertThat(reader.next()).containsExactly("say \"hi\"", "", "");
+        assertThat(reader.recordLine()).isEqualTo(4);
+
+        assertThat(reader.next()).containsExactly("last", "no newline");
+        assertThat(reader.recordLine()).isEqualTo(5);
+
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void recordReader_shouldIgnoreCarriageReturns() throws IOException {
+        var reader = new TodoCsv.RecordReader(new StringReader("a,b\r\nc,d\r\n"));
+
+        assertThat(reader.next()).isEqualTo(List.of("a", "b"));
+        assertThat(reader.next()).isEqualTo(List.of("c", "d"));
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void escapeForCopy_shouldQuoteEverythingButNull() {
+        assertThat(TodoCsv.escapeForCopy(null)).isEmpty();
+        assertThat(TodoCsv.escapeForCopy("")).isEqualTo("\"\"");
+        assertThat(TodoCsv.escapeForCopy("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+    }
+}